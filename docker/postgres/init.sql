@@ -235,6 +235,10 @@ CREATE TABLE shift_assignment (
         REFERENCES employee(employee_code),
     UNIQUE (store_code, employee_code, start_at)
 );
+-- 店舗×期間の範囲取得用（店舗×従業員×期間は UNIQUE 制約のインデックスを利用）
+CREATE INDEX IF NOT EXISTS idx_shift_assignment_store_start ON shift_assignment (store_code, start_at);
+-- 従業員個人シフト（全店舗）・重複チェック用
+CREATE INDEX IF NOT EXISTS idx_shift_assignment_employee_start ON shift_assignment (employee_code, start_at);
 
 -- ------------------------------------------------
 -- 7a. register_assignment : 生成済みレジ割り当て
@@ -254,6 +258,8 @@ CREATE TABLE register_assignment (
         REFERENCES employee(employee_code),
     UNIQUE (store_code, employee_code, start_at)
 );
+-- 店舗×期間の範囲取得用（店舗×従業員×期間は UNIQUE 制約のインデックスを利用）
+CREATE INDEX IF NOT EXISTS idx_register_assignment_store_start ON register_assignment (store_code, start_at);
 
 -- ------------------------------------------------
 -- 8. employee_request : 希望休・出勤希望
@@ -0,0 +1,30 @@
+package io.github.riemr.shift.application.dto;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.infrastructure.persistence.entity.TaskCategoryMaster;
+import io.github.riemr.shift.infrastructure.persistence.entity.TaskMaster;
+import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 日次シフト画面（店舗×部門×日付）の表示に必要なデータ一式。
+ * <p>
+ * 個別 API（assignments/daily, employees, shifts/monthly, staffing-balance, work-model-slot,
+ * work-demands, task-categories, task-masters）の応答をまとめたもの。
+ * 画面で使わない組み合わせ（非レジ部門のレジ需要、部門未指定の作業需要）は空リスト。
+ */
+public record DailyBoardDto(
+        LocalDate date,
+        String storeCode,
+        String departmentCode,
+        List<ShiftAssignmentView> assignments,
+        List<Employee> employees,
+        // 当日の出勤（shift_assignment）。部門指定に関係なく店舗ベース
+        List<ShiftAssignmentMonthlyView> shifts,
+        List<StaffingBalanceDto> staffingBalance,
+        List<RegisterDemandSlot> workModelSlots,
+        List<DemandIntervalDto> workDemands,
+        List<TaskCategoryMaster> taskCategories,
+        List<TaskMaster> taskMasters) {}
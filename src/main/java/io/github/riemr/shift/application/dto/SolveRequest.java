@@ -1,3 +1,12 @@
 package io.github.riemr.shift.application.dto;
 
-public record SolveRequest(String month, String storeCode, String departmentCode){}
+/**
+ * @param reproducible 再現モード（シード固定・ステップ数終了）で解くか。null はプロパティ既定
+ * @param seed 再現モードの乱数シード。null はプロパティ既定
+ */
+public record SolveRequest(String month, String storeCode, String departmentCode, Boolean reproducible, Long seed) {
+
+    public SolveRequest(String month, String storeCode, String departmentCode) {
+        this(month, storeCode, departmentCode, null, null);
+    }
+}
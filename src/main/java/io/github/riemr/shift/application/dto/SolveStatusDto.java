@@ -8,19 +8,26 @@ public record SolveStatusDto(
     long expectedFinishMillis, 
     String phase,
     boolean hasHardConstraintViolations,
-    List<String> constraintViolationMessages
+    List<String> constraintViolationMessages,
+    String solveMode
 ) {
     // 既存のコンストラクタとの互換性のため
     public SolveStatusDto(String status, int progress, long expectedFinishMillis) {
-        this(status, progress, expectedFinishMillis, null, false, null);
+        this(status, progress, expectedFinishMillis, null, false, null, null);
     }
     
     public SolveStatusDto(String status, int progress, long expectedFinishMillis, String phase) {
-        this(status, progress, expectedFinishMillis, phase, false, null);
+        this(status, progress, expectedFinishMillis, phase, false, null, null);
     }
     
     // 制約違反ありのコンストラクタ
     public static SolveStatusDto withConstraintViolations(String status, int progress, long expectedFinishMillis, String phase, List<String> violations) {
-        return new SolveStatusDto(status, progress, expectedFinishMillis, phase, true, violations);
+        return new SolveStatusDto(status, progress, expectedFinishMillis, phase, true, violations, null);
     }
-}
\ No newline at end of file
+
+    // 実行モード（例: REPRODUCIBLE(seed=42)）を付ける
+    public SolveStatusDto withSolveMode(String solveMode) {
+        return new SolveStatusDto(status, progress, expectedFinishMillis, phase,
+                hasHardConstraintViolations, constraintViolationMessages, solveMode);
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.riemr.shift.application.dto;
+
+/**
+ * ソルバーの実行時状態（ジョブレジストリ・進捗配信）のメモリ使用状況。
+ * estimatedBytes はオブジェクトサイズからの概算値。
+ */
+public record SolverRegistryFootprint(
+        int jobs,
+        int runningJobs,
+        int completedJobs,
+        int tickets,
+        long scorePoints,
+        int scorePointCapacityPerJob,
+        int progressChannels,
+        long progressEvents,
+        long estimatedBytes,
+        String completedTtl,
+        int maxCompletedJobs) {}
@@ -0,0 +1,27 @@
+package io.github.riemr.shift.application.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 作業計画（週次・月次）を日付に展開した 1 件分。
+ * 範囲クエリで「対象日 × その日に有効な計画」をまとめて取得するために使う。
+ */
+@Data
+@NoArgsConstructor
+public class TaskPlanOccurrence {
+    private LocalDate targetDate;
+    private Long planId;
+    private String departmentCode;
+    private String taskCode;
+    private String scheduleType; // FIXED or FLEXIBLE
+    private LocalTime fixedStartTime;
+    private LocalTime fixedEndTime;
+    private LocalTime windowStartTime;
+    private LocalTime windowEndTime;
+    private Integer requiredStaffCount;
+    private Integer lane;
+}
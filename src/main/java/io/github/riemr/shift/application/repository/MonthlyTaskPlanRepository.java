@@ -1,7 +1,9 @@
 package io.github.riemr.shift.application.repository;
 
+import io.github.riemr.shift.application.dto.TaskPlanOccurrence;
 import io.github.riemr.shift.infrastructure.persistence.entity.MonthlyTaskPlan;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -18,5 +20,7 @@ public interface MonthlyTaskPlanRepository {
     void replaceWomPairs(Long planId, List<Short> weeksOfMonth, List<Short> daysOfWeek);
 
     List<MonthlyTaskPlan> listEffectiveByStoreAndDate(String storeCode, Date date);
+    /** 期間 [from, to) の各日に有効な月次計画（departmentCode が null なら全部門） */
+    List<TaskPlanOccurrence> listOccurrences(String storeCode, String departmentCode, LocalDate from, LocalDate to);
 }
 
@@ -1,6 +1,7 @@
 package io.github.riemr.shift.application.repository;
 
 import java.time.LocalDate;
+import io.github.riemr.shift.optimization.entity.SolveStage;
 import io.github.riemr.shift.optimization.solution.ShiftSchedule;
 
 public interface ShiftScheduleRepository {
@@ -8,5 +9,12 @@ public interface ShiftScheduleRepository {
      * 指定月のシフト計算用データをすべて取得し、ドメインモデルへ変換する。
      * @param month 例: 2025‑07‑01 (日付は 1 日で固定)
      */
-    ShiftSchedule fetchShiftSchedule(LocalDate month, String storeCode, String departmentCode);
+    default ShiftSchedule fetchShiftSchedule(LocalDate month, String storeCode, String departmentCode) {
+        return fetchShiftSchedule(month, storeCode, departmentCode, null);
+    }
+
+    /**
+     * ステージを指定して取得する（クエリ群ごとの読込時間メトリクスの stage タグに使う）。
+     */
+    ShiftSchedule fetchShiftSchedule(LocalDate month, String storeCode, String departmentCode, SolveStage stage);
 }
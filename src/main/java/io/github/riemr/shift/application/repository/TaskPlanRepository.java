@@ -1,7 +1,9 @@
 package io.github.riemr.shift.application.repository;
 
+import io.github.riemr.shift.application.dto.TaskPlanOccurrence;
 import io.github.riemr.shift.infrastructure.persistence.entity.TaskPlan;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 
@@ -13,6 +15,8 @@ public interface TaskPlanRepository {
     List<TaskPlan> listWeeklyByStoreAndDow(String storeCode, short dayOfWeek);
     List<TaskPlan> listWeeklyByStoreAndDowAndDept(String storeCode, short dayOfWeek, String departmentCode);
     List<TaskPlan> listWeeklyEffective(String storeCode, short dayOfWeek, Date date);
+    /** 期間 [from, to) の各日に有効な週次計画（departmentCode が null なら全部門） */
+    List<TaskPlanOccurrence> listWeeklyOccurrences(String storeCode, String departmentCode, LocalDate from, LocalDate to);
 
     // Special-day plan APIs removed; use monthly_task_plan for date-based patterns.
 
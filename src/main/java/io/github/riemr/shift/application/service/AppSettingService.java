@@ -3,11 +3,24 @@ package io.github.riemr.shift.application.service;
 import io.github.riemr.shift.infrastructure.mapper.AppSettingMapper;
 import io.github.riemr.shift.infrastructure.persistence.entity.AppSetting;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * app_setting の読み書き。
+ * <p>
+ * 設定値はプロセス内にまとめてキャッシュし、本サービス経由の更新はコミット後にキャッシュへ反映する。
+ * DB を直接書き換えた場合に備え、キャッシュは shift.settings.cache-ttl 経過後に読み直す。
+ */
 @Service
 @RequiredArgsConstructor
 public class AppSettingService {
@@ -16,11 +29,20 @@ public class AppSettingService {
     private final AppSettingMapper mapper;
     private final JdbcTemplate jdbc;
 
+    // 設定キャッシュの有効期間（ISO-8601 Duration）
+    @Value("${shift.settings.cache-ttl:PT1M}")
+    private Duration cacheTtl;
+
+    private volatile Snapshot snapshot;
+
+    /** 読み込み時点の全設定（キー → 値） */
+    private record Snapshot(Map<String, String> values, long loadedAtNanos) {}
+
     public int getShiftCycleStartDay() {
-        AppSetting s = mapper.selectByKey(KEY_SHIFT_START_DAY);
-        if (s == null) return 1;
+        String raw = cachedValue(KEY_SHIFT_START_DAY);
+        if (raw == null) return 1;
         try {
-            int v = Integer.parseInt(s.getSettingValue());
+            int v = Integer.parseInt(raw);
             if (v < 1 || v > 28) return 1;
             return v;
         } catch (NumberFormatException e) {
@@ -31,14 +53,14 @@ public class AppSettingService {
     @Transactional
     public void updateShiftCycleStartDay(int day) {
         if (day < 1 || day > 28) throw new IllegalArgumentException("start day must be 1..28");
-        mapper.upsert(KEY_SHIFT_START_DAY, Integer.toString(day));
+        write(KEY_SHIFT_START_DAY, Integer.toString(day));
     }
 
     public int getTimeResolutionMinutes() {
-        AppSetting s = mapper.selectByKey(KEY_TIME_RES_MIN);
-        if (s == null) return 10;
+        String raw = cachedValue(KEY_TIME_RES_MIN);
+        if (raw == null) return 10;
         try {
-            int v = Integer.parseInt(s.getSettingValue());
+            int v = Integer.parseInt(raw);
             return (v == 10 || v == 15) ? v : 10;
         } catch (NumberFormatException e) {
             return 10;
@@ -55,38 +77,21 @@ public class AppSettingService {
             throw new IllegalStateException("既存の需要データがあるため、timeResolutionMinutes は変更できません（現在: "
                     + current + " / 変更要求: " + minutes + "）。");
         }
-        mapper.upsert(KEY_TIME_RES_MIN, Integer.toString(minutes));
+        write(KEY_TIME_RES_MIN, Integer.toString(minutes));
     }
 
     public boolean isTimeResolutionChangeLocked() {
         // 変更禁止方針：需要intervalが存在するなら解像度は固定（データ移行をしないため）
+        // 需要以外にも、スロット前提の割当が一度でも作られていれば変更不可
+        // 件数は不要なので、各テーブル 1 行の存在確認だけを 1 往復で行う
         try {
-            Integer regCount = jdbc.queryForObject("""
-                    SELECT COUNT(*)
-                    FROM register_demand_interval
-                    """, Integer.class);
-            if (regCount != null && regCount > 0) return true;
-
-            Integer workCount = jdbc.queryForObject("""
-                    SELECT COUNT(*)
-                    FROM work_demand_interval
-                    """, Integer.class);
-            if (workCount != null && workCount > 0) return true;
-
-            // 需要以外にも、スロット前提の割当が一度でも作られていれば変更不可
-            Integer regAssignCount = jdbc.queryForObject("""
-                    SELECT COUNT(*)
-                    FROM register_assignment
-                    """, Integer.class);
-            if (regAssignCount != null && regAssignCount > 0) return true;
-
-            Integer deptAssignCount = jdbc.queryForObject("""
-                    SELECT COUNT(*)
-                    FROM department_task_assignment
-                    """, Integer.class);
-            if (deptAssignCount != null && deptAssignCount > 0) return true;
-
-            return false;
+            Boolean locked = jdbc.queryForObject("""
+                    SELECT EXISTS (SELECT 1 FROM register_demand_interval)
+                        OR EXISTS (SELECT 1 FROM work_demand_interval)
+                        OR EXISTS (SELECT 1 FROM register_assignment)
+                        OR EXISTS (SELECT 1 FROM department_task_assignment)
+                    """, Boolean.class);
+            return Boolean.TRUE.equals(locked);
         } catch (DataAccessException e) {
             // 初期セットアップではテーブル未作成の可能性があるため、その場合は変更を許可する。
             // それ以外（接続不可など）は保存自体が失敗するが、安全側に倒して変更不可とする。
@@ -94,6 +99,59 @@ public class AppSettingService {
         }
     }
 
+    private String cachedValue(String key) {
+        Snapshot s = snapshot;
+        if (s == null || isExpired(s)) {
+            s = reload();
+        }
+        return s.values().get(key);
+    }
+
+    private boolean isExpired(Snapshot s) {
+        if (cacheTtl == null || cacheTtl.isZero() || cacheTtl.isNegative()) return true;
+        return System.nanoTime() - s.loadedAtNanos() > cacheTtl.toNanos();
+    }
+
+    private synchronized Snapshot reload() {
+        Snapshot s = snapshot;
+        // 待っている間に他スレッドが読み直していればそれを使う
+        if (s != null && !isExpired(s)) return s;
+        Map<String, String> values = new HashMap<>();
+        for (AppSetting row : mapper.selectAll()) {
+            if (row.getSettingValue() != null) values.put(row.getSettingKey(), row.getSettingValue());
+        }
+        s = new Snapshot(Map.copyOf(values), System.nanoTime());
+        snapshot = s;
+        return s;
+    }
+
+    /** 更新をキャッシュへ書き込む（トランザクション中ならコミット後、ロールバック時は破棄して読み直させる） */
+    private void write(String key, String value) {
+        mapper.upsert(key, value);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            putCached(key, value);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    putCached(key, value);
+                } else {
+                    snapshot = null;
+                }
+            }
+        });
+    }
+
+    private synchronized void putCached(String key, String value) {
+        Snapshot s = snapshot;
+        if (s == null) return; // 次回参照時に全件を読み込む
+        Map<String, String> values = new HashMap<>(s.values());
+        values.put(key, value);
+        snapshot = new Snapshot(Map.copyOf(values), s.loadedAtNanos());
+    }
+
     private static boolean looksLikeMissingTable(Throwable t) {
         for (Throwable cur = t; cur != null; cur = cur.getCause()) {
             String msg = cur.getMessage();
@@ -0,0 +1,204 @@
+package io.github.riemr.shift.application.service;
+
+import io.github.riemr.shift.application.dto.DailyBoardDto;
+import io.github.riemr.shift.application.dto.QuarterSlot;
+import io.github.riemr.shift.application.dto.ShiftAssignmentMonthlyView;
+import io.github.riemr.shift.application.dto.ShiftAssignmentView;
+import io.github.riemr.shift.application.util.TimeIntervalQuarterUtils;
+import io.github.riemr.shift.infrastructure.mapper.DepartmentTaskAssignmentMapper;
+import io.github.riemr.shift.infrastructure.mapper.EmployeeMapper;
+import io.github.riemr.shift.infrastructure.mapper.RegisterAssignmentMapper;
+import io.github.riemr.shift.infrastructure.mapper.RegisterDemandIntervalMapper;
+import io.github.riemr.shift.infrastructure.mapper.ShiftAssignmentMapper;
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.infrastructure.persistence.entity.ShiftAssignment;
+import io.github.riemr.shift.infrastructure.persistence.entity.TaskMaster;
+import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 日次シフト画面のデータ取得。
+ * <p>
+ * {@link #load} は画面表示に必要なものを 1 つの読み取りトランザクションでまとめて取得し、
+ * 従業員一覧や当日の出勤などの共通データは 1 回だけ読む。個別 API もここを経由する。
+ */
+@Service
+@RequiredArgsConstructor
+public class DailyBoardService {
+    private static final String REGISTER_DEPARTMENT = "520";
+
+    private final EmployeeMapper employeeMapper;
+    private final ShiftAssignmentMapper shiftAssignmentMapper;
+    private final RegisterAssignmentMapper registerAssignmentMapper;
+    private final DepartmentTaskAssignmentMapper departmentTaskAssignmentMapper;
+    private final RegisterDemandIntervalMapper registerDemandIntervalMapper;
+    private final StaffingBalanceService staffingBalanceService;
+    private final WorkDemandIntervalService workDemandIntervalService;
+    private final TaskMasterService taskMasterService;
+    private final TaskCategoryMasterService taskCategoryMasterService;
+    private final AppSettingService appSettingService;
+
+    @Transactional(readOnly = true)
+    public DailyBoardDto load(String storeCode, String departmentCode, LocalDate date) {
+        List<Employee> storeEmployees = employeeMapper.selectByStoreCode(storeCode);
+        Map<String, String> empName = employeeNames(storeEmployees);
+
+        // 当日の出勤は店舗ベースで 1 回だけ読み、部門指定時の出勤者だけ部門所属で絞り込む
+        List<ShiftAssignment> storeShifts = shiftAssignmentMapper.selectByStoreAndRange(storeCode, date, date.plusDays(1));
+        List<ShiftAssignment> attendances = isDepartmentScoped(departmentCode)
+                ? shiftAssignmentMapper.selectByStoreDepartmentAndRange(storeCode, departmentCode, date, date.plusDays(1))
+                : storeShifts;
+
+        ZoneId zone = ZoneId.systemDefault();
+        List<ShiftAssignmentMonthlyView> shifts = new ArrayList<>(storeShifts.size());
+        for (var s : storeShifts) {
+            String code = s.getEmployeeCode();
+            shifts.add(new ShiftAssignmentMonthlyView(
+                    s.getStartAt().toInstant().atZone(zone).toLocalDateTime(),
+                    s.getEndAt().toInstant().atZone(zone).toLocalDateTime(),
+                    null,
+                    code,
+                    (code == null) ? null : empName.getOrDefault(code, code),
+                    "manual_edit".equalsIgnoreCase(s.getCreatedBy())));
+        }
+
+        boolean hasDepartment = departmentCode != null && !departmentCode.isBlank();
+        return new DailyBoardDto(
+                date,
+                storeCode,
+                departmentCode,
+                assignments(storeCode, departmentCode, date, empName),
+                attendingEmployees(storeEmployees, attendances),
+                shifts,
+                staffingBalanceService.getHourlyStaffingBalance(storeCode, date, departmentCode),
+                isRegisterDepartment(departmentCode) ? registerDemandSlots(storeCode, date) : List.of(),
+                hasDepartment ? workDemandIntervalService.list(storeCode, date, departmentCode) : List.of(),
+                taskCategoryMasterService.list(),
+                taskMasters(departmentCode));
+    }
+
+    /** 当日のレジ割当・部門作業割当（開始時刻順） */
+    @Transactional(readOnly = true)
+    public List<ShiftAssignmentView> assignments(String storeCode, String departmentCode, LocalDate date) {
+        return assignments(storeCode, departmentCode, date, employeeNames(employeeMapper.selectByStoreCode(storeCode)));
+    }
+
+    /** 当日の出勤者（非レジ部門の指定時は部門所属者のみ、社員コード順） */
+    @Transactional(readOnly = true)
+    public List<Employee> attendingEmployees(String storeCode, String departmentCode, LocalDate date) {
+        var attendances = isDepartmentScoped(departmentCode)
+                ? shiftAssignmentMapper.selectByStoreDepartmentAndRange(storeCode, departmentCode, date, date.plusDays(1))
+                : shiftAssignmentMapper.selectByStoreAndRange(storeCode, date, date.plusDays(1));
+        if (attendances.isEmpty()) return List.of();
+        return attendingEmployees(employeeMapper.selectByStoreCode(storeCode), attendances);
+    }
+
+    /** 当日のレジ需要を時間解像度単位のスロットに分割したもの */
+    public List<RegisterDemandSlot> registerDemandSlots(String storeCode, LocalDate date) {
+        var intervals = registerDemandIntervalMapper.selectByStoreAndDate(storeCode, date);
+        int resMin = appSettingService.getTimeResolutionMinutes();
+        var quarters = TimeIntervalQuarterUtils.splitAll(intervals, resMin);
+        List<RegisterDemandSlot> result = new ArrayList<>(quarters.size());
+        for (QuarterSlot qs : quarters) {
+            RegisterDemandSlot slot = new RegisterDemandSlot();
+            slot.setStoreCode(qs.getStoreCode());
+            slot.setDemandDate(qs.getDate());
+            slot.setSlotTime(qs.getStart());
+            slot.setRequiredUnits(qs.getDemand());
+            slot.setRegisterNo(qs.getRegisterNo());
+            result.add(slot);
+        }
+        return result;
+    }
+
+    /** 作業マスタ（部門指定時はその部門のもののみ） */
+    public List<TaskMaster> taskMasters(String departmentCode) {
+        var list = taskMasterService.list();
+        if (departmentCode == null || departmentCode.isBlank()) {
+            return list;
+        }
+        return list.stream()
+                .filter(t -> departmentCode.equals(t.getDepartmentCode()))
+                .toList();
+    }
+
+    private List<ShiftAssignmentView> assignments(String storeCode, String departmentCode, LocalDate date,
+                                                  Map<String, String> empName) {
+        var zone = ZoneId.systemDefault();
+        var from = date;
+        var to = date.plusDays(1);
+        List<ShiftAssignmentView> results = new ArrayList<>();
+
+        if (isRegisterDepartment(departmentCode)) {
+            for (var a : registerAssignmentMapper.selectByStoreAndRange(storeCode, from, to)) {
+                String code = a.getEmployeeCode();
+                results.add(new ShiftAssignmentView(
+                        a.getStartAt().toInstant().atZone(zone).toLocalDateTime().toString(),
+                        a.getEndAt().toInstant().atZone(zone).toLocalDateTime().toString(),
+                        a.getRegisterNo(),
+                        REGISTER_DEPARTMENT,
+                        "REGISTER_OP",
+                        null,
+                        code,
+                        (code == null) ? null : empName.getOrDefault(code, code)));
+            }
+        }
+
+        String taskDepartment = isRegisterDepartment(departmentCode) ? REGISTER_DEPARTMENT : departmentCode;
+        for (var t : departmentTaskAssignmentMapper.selectByDate(storeCode, taskDepartment, from, to)) {
+            String code = t.getEmployeeCode();
+            results.add(new ShiftAssignmentView(
+                    t.getStartAt().toInstant().atZone(zone).toLocalDateTime().toString(),
+                    t.getEndAt().toInstant().atZone(zone).toLocalDateTime().toString(),
+                    null,
+                    taskDepartment,
+                    "DEPARTMENT_TASK",
+                    t.getTaskCode(),
+                    code,
+                    (code == null) ? null : empName.getOrDefault(code, code)));
+        }
+
+        results.sort(Comparator.comparing(ShiftAssignmentView::startAt));
+        return results;
+    }
+
+    private static List<Employee> attendingEmployees(List<Employee> storeEmployees, List<ShiftAssignment> attendances) {
+        Set<String> attendEmp = attendances.stream()
+                .map(ShiftAssignment::getEmployeeCode)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (attendEmp.isEmpty()) return List.of();
+        // 安定出力のため社員コードでソート
+        return storeEmployees.stream()
+                .filter(e -> attendEmp.contains(e.getEmployeeCode()))
+                .sorted(Comparator.comparing(Employee::getEmployeeCode))
+                .collect(Collectors.toList());
+    }
+
+    private static Map<String, String> employeeNames(List<Employee> employees) {
+        return employees.stream().collect(Collectors.toMap(
+                Employee::getEmployeeCode,
+                Employee::getEmployeeName,
+                (a, b) -> a));
+    }
+
+    private static boolean isRegisterDepartment(String departmentCode) {
+        return departmentCode == null || departmentCode.isBlank() || REGISTER_DEPARTMENT.equalsIgnoreCase(departmentCode);
+    }
+
+    private static boolean isDepartmentScoped(String departmentCode) {
+        return !isRegisterDepartment(departmentCode);
+    }
+}
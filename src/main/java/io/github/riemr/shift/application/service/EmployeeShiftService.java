@@ -38,10 +38,10 @@ public class EmployeeShiftService {
         // 対象月の全てのシフト割り当てを取得
         LocalDate startDate = targetMonth.atDay(1);
         LocalDate endDate = targetMonth.atEndOfMonth();
-        List<ShiftAssignment> assignments = getShiftAssignmentsForMonth(employeeCode, startDate, endDate);
+        Map<LocalDate, DaySpan> spans = getDaySpansForMonth(employee, startDate, endDate);
 
         // 日別シフト詳細のマップを作成
-        Map<LocalDate, EmployeeShiftDetailDto> dailyShifts = createDailyShiftsMap(assignments, startDate, endDate);
+        Map<LocalDate, EmployeeShiftDetailDto> dailyShifts = createDailyShiftsMap(spans, startDate, endDate);
 
         // カレンダー表示用の週リストを作成
         List<List<LocalDate>> weeks = createWeeksList(targetMonth);
@@ -61,26 +61,46 @@ public class EmployeeShiftService {
     }
 
     /**
-     * 指定期間の従業員のシフト割り当てを取得
+     * 指定期間（両端含む）の従業員のシフト割り当てを日ごとの勤務範囲に集約して取得。
+     * 所属以外の店舗での勤務も含めるため、店舗では絞らず従業員・期間で取得する。
      */
-    private List<ShiftAssignment> getShiftAssignmentsForMonth(String employeeCode, LocalDate startDate, LocalDate endDate) {
-        List<ShiftAssignment> allAssignments = shiftAssignmentMapper.selectAll();
-        return allAssignments.stream()
-                .filter(assignment -> employeeCode.equals(assignment.getEmployeeCode()))
-                .filter(assignment -> {
-                    LocalDate assignmentDate = assignment.getStartAt().toInstant()
-                            .atZone(java.time.ZoneId.systemDefault())
-                            .toLocalDate();
-                    return !assignmentDate.isBefore(startDate) && !assignmentDate.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
+    private Map<LocalDate, DaySpan> getDaySpansForMonth(Employee employee, LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, DaySpan> spans = new HashMap<>();
+        List<ShiftAssignment> assignments = shiftAssignmentMapper.selectByEmployeeAndRange(
+                employee.getEmployeeCode(), startDate, endDate.plusDays(1));
+        for (ShiftAssignment assignment : assignments) {
+            LocalDateTime start = assignment.getStartAt().toInstant()
+                    .atZone(java.time.ZoneId.systemDefault()).toLocalDateTime();
+            LocalDateTime end = assignment.getEndAt().toInstant()
+                    .atZone(java.time.ZoneId.systemDefault()).toLocalDateTime();
+            // 開始時刻順に取得しているため、日ごとの最初の行の店舗コードを採用する
+            spans.computeIfAbsent(start.toLocalDate(), d -> new DaySpan(assignment.getStoreCode()))
+                    .include(start, end);
+        }
+        return spans;
+    }
+
+    /** 同日の全ての割り当てを統合した勤務範囲（開始時刻が最も早い、終了時刻が最も遅い） */
+    private static final class DaySpan {
+        private final String storeCode;
+        private LocalDateTime earliestStart;
+        private LocalDateTime latestEnd;
+
+        private DaySpan(String storeCode) {
+            this.storeCode = storeCode;
+        }
+
+        private void include(LocalDateTime start, LocalDateTime end) {
+            if (earliestStart == null || start.isBefore(earliestStart)) earliestStart = start;
+            if (latestEnd == null || end.isAfter(latestEnd)) latestEnd = end;
+        }
     }
 
     /**
      * 日別シフト詳細のマップを作成
      */
     private Map<LocalDate, EmployeeShiftDetailDto> createDailyShiftsMap(
-            List<ShiftAssignment> assignments, LocalDate startDate, LocalDate endDate) {
+            Map<LocalDate, DaySpan> spans, LocalDate startDate, LocalDate endDate) {
         
         Map<LocalDate, EmployeeShiftDetailDto> dailyShifts = new LinkedHashMap<>();
         
@@ -96,39 +116,17 @@ public class EmployeeShiftService {
         }
 
         // シフト割り当てがある日付を更新
-        Map<LocalDate, List<ShiftAssignment>> assignmentsByDate = assignments.stream()
-                .collect(Collectors.groupingBy(assignment -> 
-                    assignment.getStartAt().toInstant()
-                            .atZone(java.time.ZoneId.systemDefault())
-                            .toLocalDate()));
-
-        assignmentsByDate.forEach((date, dayAssignments) -> {
-            // 同日の全ての割り当てを統合（開始時刻が最も早い、終了時刻が最も遅い）
-            LocalDateTime earliestStart = dayAssignments.stream()
-                    .map(ShiftAssignment::getStartAt)
-                    .map(timestamp -> timestamp.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime())
-                    .min(LocalDateTime::compareTo)
-                    .orElse(null);
-            
-            LocalDateTime latestEnd = dayAssignments.stream()
-                    .map(ShiftAssignment::getEndAt)
-                    .map(timestamp -> timestamp.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDateTime())
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null);
-
-            if (earliestStart != null && latestEnd != null) {
-                int workMinutes = (int) java.time.Duration.between(earliestStart, latestEnd).toMinutes();
-                
-                // 最初の割り当てから店舗コードを取得
-                ShiftAssignment firstAssignment = dayAssignments.get(0);
+        spans.forEach((date, span) -> {
+            if (span.earliestStart != null && span.latestEnd != null) {
+                int workMinutes = (int) java.time.Duration.between(span.earliestStart, span.latestEnd).toMinutes();
                 
                 dailyShifts.put(date, EmployeeShiftDetailDto.builder()
                         .workDate(date)
-                        .startTime(earliestStart.toLocalTime())
-                        .endTime(latestEnd.toLocalTime())
+                        .startTime(span.earliestStart.toLocalTime())
+                        .endTime(span.latestEnd.toLocalTime())
                         .workMinutes(workMinutes)
                         .registerNo(null) // ShiftAssignmentにはregisterNoフィールドがないため、nullに設定
-                        .storeCode(firstAssignment.getStoreCode())
+                        .storeCode(span.storeCode)
                         .isHoliday(false)
                         .build());
             }
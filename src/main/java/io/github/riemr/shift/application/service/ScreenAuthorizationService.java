@@ -8,19 +8,37 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 画面単位の閲覧/更新権限チェック（テンプレート・@PreAuthorize から {@code @screenAuth} で参照）。
+ * <p>
+ * 権限ごとの画面権限は findAllByAuthority でまとめて読み込んでキャッシュし、
+ * 権限設定の保存時に {@link #invalidatePermissions()} で破棄する。
+ * ログインユーザーの権限コードは HTTP リクエスト単位で 1 回だけ引く（従業員の権限変更は次のリクエストから反映）。
+ */
 @Component("screenAuth")
 @RequiredArgsConstructor
 public class ScreenAuthorizationService {
+    private static final String REQUEST_ATTR_USER = ScreenAuthorizationService.class.getName() + ".user";
+
     private final AuthorityScreenPermissionMapper permissionMapper;
     private final EmployeeMapper employeeMapper;
+    // 権限コード → (画面コード → 権限)
+    private final Map<String, Map<String, AuthorityScreenPermission>> permissionsByAuthority = new ConcurrentHashMap<>();
 
     public boolean hasViewPermission(String screenCode) {
         AuthUser user = currentUser();
         if (user == null) return false;
         // ADMINは常に許可（念のためのデフォルト）
         if ("ADMIN".equalsIgnoreCase(user.getAuthorityCode())) return true;
-        AuthorityScreenPermission p = permissionMapper.find(user.getAuthorityCode(), screenCode);
+        AuthorityScreenPermission p = permission(user.getAuthorityCode(), screenCode);
         return p != null && Boolean.TRUE.equals(p.getCanView());
     }
 
@@ -28,13 +46,43 @@ public class ScreenAuthorizationService {
         AuthUser user = currentUser();
         if (user == null) return false;
         if ("ADMIN".equalsIgnoreCase(user.getAuthorityCode())) return true;
-        AuthorityScreenPermission p = permissionMapper.find(user.getAuthorityCode(), screenCode);
+        AuthorityScreenPermission p = permission(user.getAuthorityCode(), screenCode);
         return p != null && Boolean.TRUE.equals(p.getCanUpdate());
     }
 
+    /** 権限設定を変更したら呼び出す（次回チェック時に読み直す） */
+    public void invalidatePermissions() {
+        permissionsByAuthority.clear();
+    }
+
+    private AuthorityScreenPermission permission(String authorityCode, String screenCode) {
+        if (authorityCode == null) return null;
+        return permissionsByAuthority.computeIfAbsent(authorityCode, this::loadPermissions).get(screenCode);
+    }
+
+    private Map<String, AuthorityScreenPermission> loadPermissions(String authorityCode) {
+        Map<String, AuthorityScreenPermission> byScreen = new HashMap<>();
+        for (AuthorityScreenPermission p : permissionMapper.findAllByAuthority(authorityCode)) {
+            byScreen.put(p.getScreenCode(), p);
+        }
+        return byScreen;
+    }
+
     private AuthUser currentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || auth.getName() == null) return null;
-        return employeeMapper.selectAuthByEmployeeCode(auth.getName());
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            // リクエスト外（非同期処理など）はキャッシュせず都度引く
+            return employeeMapper.selectAuthByEmployeeCode(auth.getName());
+        }
+        String attr = REQUEST_ATTR_USER + "." + auth.getName();
+        @SuppressWarnings("unchecked")
+        Optional<AuthUser> cached = (Optional<AuthUser>) request.getAttribute(attr, RequestAttributes.SCOPE_REQUEST);
+        if (cached == null) {
+            cached = Optional.ofNullable(employeeMapper.selectAuthByEmployeeCode(auth.getName()));
+            request.setAttribute(attr, cached, RequestAttributes.SCOPE_REQUEST);
+        }
+        return cached.orElse(null);
     }
 }
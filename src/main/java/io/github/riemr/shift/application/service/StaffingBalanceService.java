@@ -46,7 +46,7 @@ public class StaffingBalanceService {
 
         List<ShiftAssignment> assignments = new ArrayList<>();
         if (isRegister) {
-            assignments = shiftMapper.selectByDate(targetDate, targetDate.plusDays(1));
+            assignments = shiftMapper.selectByStoreAndRange(storeCode, targetDate, targetDate.plusDays(1));
         }
 
         Map<LocalTime, StaffingBalanceDto> balanceMap = new LinkedHashMap<>();
@@ -3,24 +3,43 @@ package io.github.riemr.shift.application.service;
 import io.github.riemr.shift.application.repository.MonthlyTaskPlanRepository;
 import io.github.riemr.shift.application.repository.TaskPlanRepository;
 import io.github.riemr.shift.infrastructure.persistence.entity.TaskPlan;
-import io.github.riemr.shift.infrastructure.persistence.entity.MonthlyTaskPlan;
 import io.github.riemr.shift.infrastructure.persistence.entity.DepartmentTaskAssignment;
 import io.github.riemr.shift.infrastructure.mapper.DepartmentTaskAssignmentMapper;
 import io.github.riemr.shift.infrastructure.mapper.WorkDemandIntervalMapper;
 import io.github.riemr.shift.application.dto.DemandIntervalDto;
+import io.github.riemr.shift.application.dto.TaskPlanOccurrence;
+import io.github.riemr.shift.util.BulkWrites;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.*;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Service
+@Slf4j
 public class TaskPlanService {
+    /** 材料化フィンガープリントを保持するスコープ（店舗×部門×期間）の上限 */
+    private static final int MAX_FINGERPRINTS = 512;
+
     private final TaskPlanRepository planRepository;
     private final MonthlyTaskPlanRepository monthlyRepository;
     private final DepartmentTaskAssignmentMapper deptTaskAssignmentMapper;
     private final WorkDemandIntervalMapper workDemandIntervalMapper;
+    // スコープ → 「計画フィンガープリント/書き込み後の保存済み行ダイジェスト」（古いものから破棄）
+    private final Map<String, String> materializedFingerprints = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_FINGERPRINTS;
+                }
+            });
 
     public TaskPlanService(TaskPlanRepository planRepository,
                            MonthlyTaskPlanRepository monthlyRepository,
@@ -73,6 +92,9 @@ public class TaskPlanService {
      * 週次・月次の作業計画から、指定範囲の DepartmentTaskAssignment を再生成する（従業員未割当）。
      * - FIXED: 指定開始/終了で requiredStaffCount 件を作成
      * - FLEXIBLE: 窓全体を1件（requiredStaffCount 件）として作成（所要は反映せず）
+     * 計画から生成される行と保存済みの行がいずれも前回の材料化から変わっていなければ何もしない。
+     *
+     * @return 作成件数（変更なしでスキップした場合は 0）
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public int materializeDepartmentAssignments(String storeCode,
@@ -81,71 +103,57 @@ public class TaskPlanService {
                                                 LocalDate to,
                                                 String createdBy) {
         if (storeCode == null || storeCode.isBlank() || departmentCode == null || departmentCode.isBlank()) return 0;
-        // まず既存を削除（半開区間）
-        deptTaskAssignmentMapper.deleteByMonthStoreAndDepartment(from, to, storeCode, departmentCode);
-        int created = 0;
-        ZoneId zone = ZoneId.systemDefault();
-        for (LocalDate d = from; d.isBefore(to); d = d.plusDays(1)) {
-            short dow = (short) d.getDayOfWeek().getValue();
-            Date dd = Date.from(d.atStartOfDay(zone).toInstant());
-            // 週次有効
-            var weekly = planRepository.listWeeklyEffective(storeCode, dow, dd);
-            // 月次（DOM/WOM）有効
-            var monthly = monthlyRepository.listEffectiveByStoreAndDate(storeCode, dd);
-            // 部門でフィルタ
-            weekly = weekly.stream().filter(p -> departmentCode.equals(p.getDepartmentCode())).toList();
-            monthly = monthly.stream().filter(p -> departmentCode.equals(p.getDepartmentCode())).toList();
+        List<DepartmentTaskAssignment> rows = new ArrayList<>();
+        for (TaskPlanOccurrence p : loadOccurrences(storeCode, departmentCode, from, to)) {
+            toDeptAssignments(storeCode, departmentCode, p, createdBy, rows);
+        }
 
-            // 週次
-            for (TaskPlan p : weekly) {
-                created += toDeptAssignments(storeCode, departmentCode, p.getTaskCode(), p.getScheduleType(),
-                        toLocalTime(p.getFixedStartTime()), toLocalTime(p.getFixedEndTime()),
-                        toLocalTime(p.getWindowStartTime()), toLocalTime(p.getWindowEndTime()),
-                        p.getRequiredStaffCount(), d, createdBy);
-            }
-            // 月次
-            for (MonthlyTaskPlan p : monthly) {
-                created += toDeptAssignments(storeCode, departmentCode, p.getTaskCode(), p.getScheduleType(),
-                        toLocalTime(p.getFixedStartTime()), toLocalTime(p.getFixedEndTime()),
-                        toLocalTime(p.getWindowStartTime()), toLocalTime(p.getWindowEndTime()),
-                        p.getRequiredStaffCount(), d, createdBy);
-            }
+        String scope = "DTA|" + storeCode + "|" + departmentCode + "|" + from + "|" + to;
+        String planFingerprint = fingerprint(rows, a -> String.join("|",
+                String.valueOf(a.getTaskCode()), String.valueOf(a.getStartAt().getTime()),
+                String.valueOf(a.getEndAt().getTime()), String.valueOf(a.getCreatedBy())));
+        if (isUnchanged(scope, planFingerprint,
+                () -> deptTaskAssignmentMapper.selectContentDigest(storeCode, departmentCode, from, to))) {
+            log.debug("Skip department task materialization (unchanged): store={}, dept={}, range={}..{}",
+                    storeCode, departmentCode, from, to);
+            return 0;
         }
+        // 既存を削除（半開区間）してまとめて挿入
+        deptTaskAssignmentMapper.deleteByMonthStoreAndDepartment(from, to, storeCode, departmentCode);
+        int created = BulkWrites.inChunks(rows, deptTaskAssignmentMapper::insertAll);
+        remember(scope, planFingerprint, deptTaskAssignmentMapper.selectContentDigest(storeCode, departmentCode, from, to));
         return created;
     }
 
-    private int toDeptAssignments(String storeCode, String departmentCode, String taskCode, String scheduleType,
-                                  LocalTime fixedStart, LocalTime fixedEnd,
-                                  LocalTime winStart, LocalTime winEnd,
-                                  Integer requiredStaff, LocalDate date, String createdBy) {
-        int count = Math.max(1, nvl(requiredStaff, 1));
+    private void toDeptAssignments(String storeCode, String departmentCode, TaskPlanOccurrence p,
+                                   String createdBy, List<DepartmentTaskAssignment> out) {
+        int count = Math.max(1, nvl(p.getRequiredStaffCount(), 1));
         ZoneId zone = ZoneId.systemDefault();
+        LocalDate date = p.getTargetDate();
         Date startAt;
         Date endAt;
-        if ("FIXED".equalsIgnoreCase(scheduleType) && fixedStart != null && fixedEnd != null) {
-            startAt = Date.from(date.atTime(fixedStart).atZone(zone).toInstant());
-            endAt = Date.from(date.atTime(fixedEnd).atZone(zone).toInstant());
-        } else if (winStart != null && winEnd != null) {
-            startAt = Date.from(date.atTime(winStart).atZone(zone).toInstant());
-            endAt = Date.from(date.atTime(winEnd).atZone(zone).toInstant());
+        if ("FIXED".equalsIgnoreCase(p.getScheduleType()) && p.getFixedStartTime() != null && p.getFixedEndTime() != null) {
+            startAt = Date.from(date.atTime(p.getFixedStartTime()).atZone(zone).toInstant());
+            endAt = Date.from(date.atTime(p.getFixedEndTime()).atZone(zone).toInstant());
+        } else if (p.getWindowStartTime() != null && p.getWindowEndTime() != null) {
+            startAt = Date.from(date.atTime(p.getWindowStartTime()).atZone(zone).toInstant());
+            endAt = Date.from(date.atTime(p.getWindowEndTime()).atZone(zone).toInstant());
         } else {
-            return 0;
+            return;
         }
-        int created = 0;
         for (int i = 0; i < count; i++) {
             DepartmentTaskAssignment a = new DepartmentTaskAssignment();
             a.setStoreCode(storeCode);
             a.setDepartmentCode(departmentCode);
-            a.setTaskCode(taskCode);
+            a.setTaskCode(p.getTaskCode());
             a.setEmployeeCode(null);
             a.setStartAt(startAt);
             a.setEndAt(endAt);
             a.setCreatedBy(createdBy);
-            deptTaskAssignmentMapper.insert(a);
-            created++;
+            out.add(a);
         }
-        return created;
     }
+
     private TaskPlan clonePlan(TaskPlan p) {
         TaskPlan c = new TaskPlan();
         c.setStoreCode(p.getStoreCode());
@@ -172,46 +180,17 @@ public class TaskPlanService {
     /**
      * 週次・月次の作業計画から、work_demand_interval を再生成（指定範囲/店舗/部門）。
      * demand には requiredStaffCount を使用。FLEXIBLE は窓全体を1区間として扱う。
+     * 計画から生成される行と保存済みの行がいずれも前回の材料化から変わっていなければ何もしない。
+     *
+     * @return 作成件数（変更なしでスキップした場合は 0）
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public int materializeWorkDemands(String storeCode, String departmentCode,
                                       LocalDate from, LocalDate to) {
         if (storeCode == null || storeCode.isBlank() || departmentCode == null || departmentCode.isBlank()) {
-            System.out.println("DEBUG: materializeWorkDemands - invalid parameters, returning 0");
             return 0;
         }
-        System.out.println("DEBUG: materializeWorkDemands starting for store: " + storeCode + ", dept: " + departmentCode + ", range: " + from + " to " + to);
-        workDemandIntervalMapper.deleteByStoreDeptAndRange(storeCode, departmentCode, from, to);
-        int created = 0;
-        for (LocalDate d = from; d.isBefore(to); d = d.plusDays(1)) {
-            short dow = (short) d.getDayOfWeek().getValue();
-            Date dd = Date.from(d.atStartOfDay(ZoneId.systemDefault()).toInstant());
-            var weekly = planRepository.listWeeklyEffective(storeCode, dow, dd)
-                    .stream().filter(p -> departmentCode.equals(p.getDepartmentCode())).toList();
-            var monthly = monthlyRepository.listEffectiveByStoreAndDate(storeCode, dd)
-                    .stream().filter(p -> departmentCode.equals(p.getDepartmentCode())).toList();
-            
-            System.out.println("DEBUG: Date " + d + " (dow=" + dow + ") for dept " + departmentCode + " - weekly: " + weekly.size() + ", monthly: " + monthly.size());
-            System.out.println("DEBUG: Starting weekly plans processing...");
-            for (TaskPlan p : weekly) {
-                System.out.println("DEBUG: Processing weekly plan - taskCode: " + p.getTaskCode() + ", scheduleType: " + p.getScheduleType());
-                int result = toWorkDemandRows(storeCode, departmentCode, d, p.getTaskCode(), p.getScheduleType(),
-                        toLocalTime(p.getFixedStartTime()), toLocalTime(p.getFixedEndTime()),
-                        toLocalTime(p.getWindowStartTime()), toLocalTime(p.getWindowEndTime()),
-                        p.getRequiredStaffCount(), p.getLane());
-                created += result;
-                System.out.println("DEBUG: Weekly plan processing result: " + result);
-            }
-            System.out.println("DEBUG: Finished weekly plans processing, total created so far: " + created);
-            for (MonthlyTaskPlan p : monthly) {
-                created += toWorkDemandRows(storeCode, departmentCode, d, p.getTaskCode(), p.getScheduleType(),
-                        toLocalTime(p.getFixedStartTime()), toLocalTime(p.getFixedEndTime()),
-                        toLocalTime(p.getWindowStartTime()), toLocalTime(p.getWindowEndTime()),
-                        p.getRequiredStaffCount(), p.getLane());
-            }
-        }
-        System.out.println("DEBUG: materializeWorkDemands completed - created " + created + " work demand intervals for dept: " + departmentCode);
-        return created;
+        return materializeWorkDemandRows(storeCode, departmentCode, from, to);
     }
 
     /**
@@ -223,88 +202,111 @@ public class TaskPlanService {
                                                        LocalDate from, 
                                                        LocalDate to) {
         if (storeCode == null || storeCode.isBlank()) return 0;
-        
-        // 既存のwork_demand_intervalを全削除（店舗・期間指定）
-        workDemandIntervalMapper.deleteByStoreAndRange(storeCode, from, to);
-        
-        int totalCreated = 0;
-        for (LocalDate d = from; d.isBefore(to); d = d.plusDays(1)) {
-            short dow = (short) d.getDayOfWeek().getValue();
-            Date dd = Date.from(d.atStartOfDay(ZoneId.systemDefault()).toInstant());
-            
-            // 全部門の週次計画を取得
-            var weekly = planRepository.listWeeklyEffective(storeCode, dow, dd);
-            // 全部門の月次計画を取得
-            var monthly = monthlyRepository.listEffectiveByStoreAndDate(storeCode, dd);
-            
-            System.out.println("DEBUG: Date " + d + " (dow=" + dow + ") - weekly plans: " + weekly.size() + ", monthly plans: " + monthly.size());
-            
-            for (TaskPlan p : weekly) {
-                if (p.getDepartmentCode() != null && !p.getDepartmentCode().isBlank()) {
-                    totalCreated += toWorkDemandRows(storeCode, p.getDepartmentCode(), d, p.getTaskCode(), p.getScheduleType(),
-                            toLocalTime(p.getFixedStartTime()), toLocalTime(p.getFixedEndTime()),
-                            toLocalTime(p.getWindowStartTime()), toLocalTime(p.getWindowEndTime()),
-                            p.getRequiredStaffCount(), p.getLane());
-                }
-            }
-            for (MonthlyTaskPlan p : monthly) {
-                if (p.getDepartmentCode() != null && !p.getDepartmentCode().isBlank()) {
-                    totalCreated += toWorkDemandRows(storeCode, p.getDepartmentCode(), d, p.getTaskCode(), p.getScheduleType(),
-                            toLocalTime(p.getFixedStartTime()), toLocalTime(p.getFixedEndTime()),
-                            toLocalTime(p.getWindowStartTime()), toLocalTime(p.getWindowEndTime()),
-                            p.getRequiredStaffCount(), p.getLane());
-                }
-            }
+        return materializeWorkDemandRows(storeCode, null, from, to);
+    }
+
+    /** departmentCode が null の場合は店舗の全部門（部門未設定の計画は除く）を対象にする */
+    private int materializeWorkDemandRows(String storeCode, String departmentCode, LocalDate from, LocalDate to) {
+        List<DemandIntervalDto> rows = new ArrayList<>();
+        for (TaskPlanOccurrence p : loadOccurrences(storeCode, departmentCode, from, to)) {
+            if (p.getDepartmentCode() == null || p.getDepartmentCode().isBlank()) continue;
+            DemandIntervalDto row = toWorkDemandRow(storeCode, p);
+            if (row != null) rows.add(row);
         }
-        System.out.println("DEBUG: Total work demand intervals created: " + totalCreated);
-        return totalCreated;
+
+        String scope = "WDI|" + storeCode + "|" + (departmentCode == null ? "*" : departmentCode) + "|" + from + "|" + to;
+        String planFingerprint = fingerprint(rows, r -> String.join("|",
+                r.getDepartmentCode(), String.valueOf(r.getTargetDate()), String.valueOf(r.getFrom()),
+                String.valueOf(r.getTo()), String.valueOf(r.getDemand()), String.valueOf(r.getTaskCode()),
+                String.valueOf(r.getLane())));
+        if (isUnchanged(scope, planFingerprint,
+                () -> workDemandIntervalMapper.selectContentDigest(storeCode, departmentCode, from, to))) {
+            log.debug("Skip work demand materialization (unchanged): store={}, dept={}, range={}..{}",
+                    storeCode, departmentCode, from, to);
+            return 0;
+        }
+        if (departmentCode == null) {
+            workDemandIntervalMapper.deleteByStoreAndRange(storeCode, from, to);
+        } else {
+            workDemandIntervalMapper.deleteByStoreDeptAndRange(storeCode, departmentCode, from, to);
+        }
+        int created = BulkWrites.inChunks(rows, workDemandIntervalMapper::insertAll);
+        remember(scope, planFingerprint, workDemandIntervalMapper.selectContentDigest(storeCode, departmentCode, from, to));
+        log.debug("Materialized {} work demand intervals: store={}, dept={}, range={}..{}",
+                created, storeCode, departmentCode, from, to);
+        return created;
     }
 
-    private int toWorkDemandRows(String storeCode, String departmentCode, LocalDate date, String taskCode,
-                                 String scheduleType, LocalTime fixedStart, LocalTime fixedEnd,
-                                 LocalTime winStart, LocalTime winEnd, Integer requiredStaff, Integer lane) {
-        System.out.println("DEBUG: toWorkDemandRows - task: " + taskCode + ", scheduleType: " + scheduleType + ", fixedStart: " + fixedStart + ", fixedEnd: " + fixedEnd + ", winStart: " + winStart + ", winEnd: " + winEnd);
-        
-        int demand = Math.max(1, nvl(requiredStaff, 1));
+    private DemandIntervalDto toWorkDemandRow(String storeCode, TaskPlanOccurrence p) {
         LocalTime from;
         LocalTime to;
-        if ("FIXED".equalsIgnoreCase(scheduleType) && fixedStart != null && fixedEnd != null) {
-            from = fixedStart; to = fixedEnd;
-            System.out.println("DEBUG: Using FIXED schedule - from: " + from + ", to: " + to);
-        } else if (winStart != null && winEnd != null) {
-            from = winStart; to = winEnd;
-            System.out.println("DEBUG: Using window schedule - from: " + from + ", to: " + to);
-        } else { 
-            System.out.println("DEBUG: No valid time range found for task: " + taskCode + ", returning 0");
-            return 0; 
+        if ("FIXED".equalsIgnoreCase(p.getScheduleType()) && p.getFixedStartTime() != null && p.getFixedEndTime() != null) {
+            from = p.getFixedStartTime(); to = p.getFixedEndTime();
+        } else if (p.getWindowStartTime() != null && p.getWindowEndTime() != null) {
+            from = p.getWindowStartTime(); to = p.getWindowEndTime();
+        } else {
+            log.debug("No valid time range for task {} on {}", p.getTaskCode(), p.getTargetDate());
+            return null;
         }
-        
+        return DemandIntervalDto.builder()
+                .storeCode(storeCode)
+                .departmentCode(p.getDepartmentCode())
+                .targetDate(p.getTargetDate())
+                .from(from)
+                .to(to)
+                .demand(Math.max(1, nvl(p.getRequiredStaffCount(), 1)))
+                .taskCode(p.getTaskCode())
+                .lane(p.getLane())
+                .build();
+    }
+
+    /**
+     * 期間 [from, to) の有効な計画を週次・月次それぞれ 1 クエリで取得し、
+     * 日付ごとに「週次 → 月次」の順（各々 priority, plan_id 順）で並べる。
+     */
+    private List<TaskPlanOccurrence> loadOccurrences(String storeCode, String departmentCode, LocalDate from, LocalDate to) {
+        Map<LocalDate, List<TaskPlanOccurrence>> byDate = new TreeMap<>();
+        for (TaskPlanOccurrence o : planRepository.listWeeklyOccurrences(storeCode, departmentCode, from, to)) {
+            byDate.computeIfAbsent(o.getTargetDate(), d -> new ArrayList<>()).add(o);
+        }
+        for (TaskPlanOccurrence o : monthlyRepository.listOccurrences(storeCode, departmentCode, from, to)) {
+            byDate.computeIfAbsent(o.getTargetDate(), d -> new ArrayList<>()).add(o);
+        }
+        List<TaskPlanOccurrence> all = new ArrayList<>();
+        byDate.values().forEach(all::addAll);
+        return all;
+    }
+
+    // ---- 変更検知 ------------------------------------------------------------
+
+    /**
+     * 計画から生成される行のフィンガープリントと、書き込み直後の保存済み行のダイジェストが
+     * どちらも前回と一致する場合のみ true（手修正や他経路での更新があれば再生成する）。
+     */
+    private boolean isUnchanged(String scope, String planFingerprint, Supplier<String> storedDigest) {
+        String last = materializedFingerprints.get(scope);
+        if (last == null || !last.startsWith(planFingerprint + "/")) return false;
+        return last.equals(planFingerprint + "/" + storedDigest.get());
+    }
+
+    private void remember(String scope, String planFingerprint, String storedDigest) {
+        materializedFingerprints.put(scope, planFingerprint + "/" + storedDigest);
+    }
+
+    private static <T> String fingerprint(List<T> rows, Function<T, String> canonical) {
         try {
-            DemandIntervalDto dto = DemandIntervalDto.builder()
-                    .storeCode(storeCode)
-                    .departmentCode(departmentCode)
-                    .targetDate(date)
-                    .from(from)
-                    .to(to)
-                    .demand(demand)
-                    .taskCode(taskCode)
-                    .lane(lane)
-                    .build();
-            System.out.println("DEBUG: Inserting work demand interval for task: " + taskCode);
-            workDemandIntervalMapper.insert(dto);
-            System.out.println("DEBUG: Successfully inserted work demand interval for task: " + taskCode);
-            return 1;
-        } catch (Exception e) {
-            System.out.println("DEBUG: Failed to insert work demand interval for task: " + taskCode + " - " + e.getMessage());
-            e.printStackTrace();
-            return 0;
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (T row : rows) {
+                md.update(canonical.apply(row).getBytes(StandardCharsets.UTF_8));
+                md.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
+
     // Special-day generation removed; use monthly_task_plan
 
     private static int nvl(Integer v, int def) { return v == null ? def : v; }
-    private static LocalTime toLocalTime(Date timeOnly) { 
-        if (timeOnly == null) return null;
-        return timeOnly.toInstant().atZone(ZoneId.systemDefault()).toLocalTime(); 
-    }
 }
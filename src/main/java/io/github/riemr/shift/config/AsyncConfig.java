@@ -6,6 +6,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -21,4 +22,18 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /** 最適化問題の読込時に、互いに独立したマスタ／実績の取得を並列実行する */
+    @Bean(name = "problemLoadExecutor")
+    public Executor problemLoadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("ProblemLoad-");
+        // 溢れた場合は呼び出し元スレッドで実行（読込自体は止めない）
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
 }
\ No newline at end of file
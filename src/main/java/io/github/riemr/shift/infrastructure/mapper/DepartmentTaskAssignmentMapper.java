@@ -11,6 +11,15 @@ import java.util.List;
 public interface DepartmentTaskAssignmentMapper {
     int insert(DepartmentTaskAssignment row);
 
+    /** 複数行 INSERT（1 文）。行数が多い場合は呼び出し側でチャンク分割すること。 */
+    int insertAll(@Param("rows") List<DepartmentTaskAssignment> rows);
+
+    /** 範囲内の行の「件数:内容ダイジェスト」（材料化の変更検知用） */
+    String selectContentDigest(@Param("storeCode") String storeCode,
+                               @Param("departmentCode") String departmentCode,
+                               @Param("from") LocalDate from,
+                               @Param("to") LocalDate to);
+
     int deleteByMonthStoreAndDepartment(@Param("from") LocalDate from,
                                         @Param("to") LocalDate to,
                                         @Param("storeCode") String storeCode,
@@ -10,5 +10,7 @@ import java.util.List;
 public interface EmployeeDepartmentMapper {
     List<EmployeeDepartment> selectByEmployee(@Param("employeeCode") String employeeCode);
     List<EmployeeDepartment> selectByDepartment(@Param("departmentCode") String departmentCode);
+    List<EmployeeDepartment> selectByDepartmentAndEmployeeCodes(@Param("departmentCode") String departmentCode,
+                                                                @Param("employeeCodes") List<String> employeeCodes);
     int insert(EmployeeDepartment row);
 }
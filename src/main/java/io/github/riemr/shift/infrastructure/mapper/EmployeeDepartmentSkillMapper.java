@@ -9,6 +9,8 @@ import java.util.List;
 @Mapper
 public interface EmployeeDepartmentSkillMapper {
     List<EmployeeDepartmentSkill> selectByDepartment(@Param("departmentCode") String departmentCode);
+    List<EmployeeDepartmentSkill> selectByDepartmentAndEmployeeCodes(@Param("departmentCode") String departmentCode,
+                                                                      @Param("employeeCodes") List<String> employeeCodes);
     EmployeeDepartmentSkill find(@Param("employeeCode") String employeeCode,
                                  @Param("departmentCode") String departmentCode);
     int insert(EmployeeDepartmentSkill row);
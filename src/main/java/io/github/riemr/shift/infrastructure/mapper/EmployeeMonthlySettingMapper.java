@@ -12,5 +12,7 @@ public interface EmployeeMonthlySettingMapper {
     List<EmployeeMonthlySetting> selectByMonth(@Param("monthStart") Date monthStart);
     List<EmployeeMonthlySetting> selectByEmployeeAndMonth(@Param("employeeCode") String employeeCode,
                                                           @Param("monthStart") Date monthStart);
+    List<EmployeeMonthlySetting> selectByMonthAndEmployees(@Param("monthStart") Date monthStart,
+                                                           @Param("employeeCodes") List<String> employeeCodes);
 }
 
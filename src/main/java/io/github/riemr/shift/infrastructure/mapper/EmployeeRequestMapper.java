@@ -100,6 +100,8 @@ public interface EmployeeRequestMapper {
     
     // カスタムメソッド
     List<EmployeeRequest> selectByDateRange(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    List<EmployeeRequest> selectByStoreAndDateRange(@Param("storeCode") String storeCode, @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
     
     EmployeeRequest selectByEmployeeAndDate(@Param("employeeCode") String employeeCode, @Param("requestDate") LocalDate requestDate);
     
@@ -10,6 +10,7 @@ import java.util.List;
 public interface EmployeeShiftPatternMapper {
     List<EmployeeShiftPattern> selectByEmployee(@Param("employeeCode") String employeeCode);
     List<EmployeeShiftPattern> selectAllActive();
+    List<EmployeeShiftPattern> selectActiveByEmployeeCodes(@Param("employeeCodes") List<String> employeeCodes);
     int upsert(EmployeeShiftPattern row);
     int delete(@Param("employeeCode") String employeeCode, @Param("patternCode") String patternCode);
 }
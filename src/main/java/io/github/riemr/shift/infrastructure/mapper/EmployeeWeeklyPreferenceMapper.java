@@ -8,6 +8,7 @@ import org.apache.ibatis.annotations.Param;
 @Mapper
 public interface EmployeeWeeklyPreferenceMapper {
     List<EmployeeWeeklyPreference> selectByEmployee(@Param("employeeCode") String employeeCode);
+    List<EmployeeWeeklyPreference> selectByEmployeeCodes(@Param("employeeCodes") List<String> employeeCodes);
     int deleteByEmployee(@Param("employeeCode") String employeeCode);
     int deleteAll();
     int insert(EmployeeWeeklyPreference row);
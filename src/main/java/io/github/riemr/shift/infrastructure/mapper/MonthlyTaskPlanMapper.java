@@ -1,9 +1,11 @@
 package io.github.riemr.shift.infrastructure.mapper;
 
+import io.github.riemr.shift.application.dto.TaskPlanOccurrence;
 import io.github.riemr.shift.infrastructure.persistence.entity.MonthlyTaskPlan;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 
@@ -23,5 +25,11 @@ public interface MonthlyTaskPlanMapper {
     // Query effective monthly plans matching a specific date (by DOM or WOM rule)
     List<MonthlyTaskPlan> selectEffectiveByStoreAndDate(@Param("storeCode") String storeCode,
                                                         @Param("date") Date date);
+
+    // Expand effective monthly plans over [from, to) in one query
+    List<TaskPlanOccurrence> selectOccurrences(@Param("storeCode") String storeCode,
+                                               @Param("departmentCode") String departmentCode,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to);
 }
 
@@ -39,6 +39,11 @@ public interface RegisterAssignmentMapper {
 
     List<RegisterAssignment> selectByDate(@Param("from") LocalDate from,
                                           @Param("to") LocalDate to);
+
+    /** 店舗・期間 [from, to) で取得 */
+    List<RegisterAssignment> selectByStoreAndRange(@Param("storeCode") String storeCode,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
     
     int deleteByEmployeeCodeAndTimeRange(@Param("employeeCode") String employeeCode, 
                                        @Param("startAt") Date startAt, 
@@ -49,6 +54,9 @@ public interface RegisterAssignmentMapper {
                                               @Param("startAt") Date startAt,
                                               @Param("endAt") Date endAt);
 
+    /** 差分保存用: 主キー指定で複数行削除 */
+    int deleteByIds(@Param("ids") List<Long> ids);
+
     int deleteByMonthAndStore(@Param("from") LocalDate from,
                                @Param("to") LocalDate to,
                                @Param("storeCode") String storeCode);
@@ -56,4 +64,7 @@ public interface RegisterAssignmentMapper {
     int deleteByStoreEmployeeAndStartAt(@Param("storeCode") String storeCode,
                                         @Param("employeeCode") String employeeCode,
                                         @Param("startAt") Date startAt);
+
+    /** 複数行 INSERT（1 文）。行数が多い場合は呼び出し側でチャンク分割すること。 */
+    int insertAll(@Param("rows") List<RegisterAssignment> rows);
 }
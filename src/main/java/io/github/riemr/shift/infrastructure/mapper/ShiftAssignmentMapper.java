@@ -108,8 +108,21 @@ public interface ShiftAssignmentMapper {
     List<ShiftAssignment> selectByDate(@Param("from") LocalDate from,
             @Param("to") LocalDate to);
 
-    /** 全シフト割り当てを取得 */
-    List<ShiftAssignment> selectAll();
+    /** 店舗・期間 [from, to) で取得 */
+    List<ShiftAssignment> selectByStoreAndRange(@Param("storeCode") String storeCode,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /** 店舗・部門所属従業員・期間 [from, to) で取得 */
+    List<ShiftAssignment> selectByStoreDepartmentAndRange(@Param("storeCode") String storeCode,
+            @Param("departmentCode") String departmentCode,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /** 従業員・期間 [from, to) で取得（全店舗。開始時刻順） */
+    List<ShiftAssignment> selectByEmployeeAndRange(@Param("employeeCode") String employeeCode,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
 
     /**
      * Solver 結果をまとめて書き戻す
@@ -125,6 +138,15 @@ public interface ShiftAssignmentMapper {
      */
     int upsert(ShiftAssignment entity);
 
+    /** 複数行 INSERT（1 文）。行数が多い場合は呼び出し側でチャンク分割すること。 */
+    int insertAll(@Param("rows") List<ShiftAssignment> rows);
+
+    /** 複数行 UPSERT（1 文）。同一文内で (store_code, employee_code, start_at) が重複しないこと。 */
+    int upsertAll(@Param("rows") List<ShiftAssignment> rows);
+
+    /** 差分保存用: 主キー指定で複数行削除 */
+    int deleteByIds(@Param("ids") List<Long> ids);
+
     int deleteByMonthAndStore(@Param("from") LocalDate from,
                               @Param("to") LocalDate to,
                               @Param("storeCode") String storeCode);
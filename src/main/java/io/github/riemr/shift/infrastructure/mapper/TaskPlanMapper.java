@@ -1,9 +1,11 @@
 package io.github.riemr.shift.infrastructure.mapper;
 
+import io.github.riemr.shift.application.dto.TaskPlanOccurrence;
 import io.github.riemr.shift.infrastructure.persistence.entity.TaskPlan;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 
@@ -25,6 +27,11 @@ public interface TaskPlanMapper {
                                          @Param("dayOfWeek") short dayOfWeek,
                                          @Param("date") Date date);
 
+    List<TaskPlanOccurrence> selectWeeklyOccurrences(@Param("storeCode") String storeCode,
+                                                     @Param("departmentCode") String departmentCode,
+                                                     @Param("from") LocalDate from,
+                                                     @Param("to") LocalDate to);
+
     int deleteWeeklyByStoreDeptAndDow(@Param("storeCode") String storeCode,
                                       @Param("departmentCode") String departmentCode,
                                       @Param("dayOfWeek") short dayOfWeek);
@@ -18,6 +18,14 @@ public interface WorkDemandIntervalMapper {
 
     int insert(DemandIntervalDto dto);
 
+    int insertAll(@Param("rows") List<DemandIntervalDto> rows);
+
+    /** 範囲内の行の「件数:内容ダイジェスト」。departmentCode が null なら店舗の全部門 */
+    String selectContentDigest(@Param("storeCode") String storeCode,
+                               @Param("departmentCode") String departmentCode,
+                               @Param("from") LocalDate from,
+                               @Param("to") LocalDate to);
+
     int deleteById(@Param("id") Long id);
 
     int deleteAll();
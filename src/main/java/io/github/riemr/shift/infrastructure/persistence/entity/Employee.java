@@ -3,6 +3,7 @@ package io.github.riemr.shift.infrastructure.persistence.entity;
 import java.io.Serializable;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.optaplanner.core.api.domain.lookup.PlanningId;
 
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,6 +19,8 @@ public class Employee implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    // 計画変数の値として使われるため、マルチスレッド解探索でのムーブ受け渡し（rebase）用に ID を公開する
+    @PlanningId
     public String getEmployeeCode() {
         return employeeCode;
     }
@@ -1,10 +1,12 @@
 package io.github.riemr.shift.infrastructure.repository;
 
+import io.github.riemr.shift.application.dto.TaskPlanOccurrence;
 import io.github.riemr.shift.application.repository.MonthlyTaskPlanRepository;
 import io.github.riemr.shift.infrastructure.mapper.MonthlyTaskPlanMapper;
 import io.github.riemr.shift.infrastructure.persistence.entity.MonthlyTaskPlan;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -53,4 +55,9 @@ public class MonthlyTaskPlanRepositoryImpl implements MonthlyTaskPlanRepository
     public List<MonthlyTaskPlan> listEffectiveByStoreAndDate(String storeCode, Date date) {
         return mapper.selectEffectiveByStoreAndDate(storeCode, date);
     }
+
+    @Override
+    public List<TaskPlanOccurrence> listOccurrences(String storeCode, String departmentCode, LocalDate from, LocalDate to) {
+        return mapper.selectOccurrences(storeCode, departmentCode, from, to);
+    }
 }
@@ -13,6 +13,8 @@ import io.github.riemr.shift.optimization.solution.ShiftSchedule;
 import io.github.riemr.shift.optimization.entity.WorkKind;
 import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
 import io.github.riemr.shift.optimization.entity.WorkDemandSlot;
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import io.github.riemr.shift.optimization.metrics.SolverMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
@@ -21,7 +23,12 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -48,6 +55,9 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
     private final EmployeeWeeklyPreferenceMapper employeeWeeklyPreferenceMapper;
     private final EmployeeMonthlySettingMapper employeeMonthlySettingMapper;
     private final EmployeeShiftPatternMapper employeeShiftPatternMapper;
+    // 独立した事実の取得を並列化する（AsyncConfig#problemLoadExecutor）
+    private final Executor problemLoadExecutor;
+    private final SolverMetrics solverMetrics;
 
     /*
      * buildEmptyAssignments() で生成する一時レコード用の負 ID 採番器。
@@ -62,22 +72,78 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
     // ============================================================================
 
     @Override
-    public ShiftSchedule fetchShiftSchedule(LocalDate month, String storeCode, String departmentCode) {
+    public ShiftSchedule fetchShiftSchedule(LocalDate month, String storeCode, String departmentCode, SolveStage stage) {
         // 呼び出し側は「サイクル開始日」を渡してくる前提
         LocalDate cycleStart = month;
         LocalDate cycleEnd   = cycleStart.plusMonths(1); // 半開区間 [start, end)
+        // クエリ群ごとの所要時間を store / stage タグ付きで記録する
+        LoadScope scope = new LoadScope(storeCode, stage);
 
         // 1. 必要なマスタ／トランザクションデータを取得
-        List<Employee> employees = (storeCode == null)
+        //    従業員を先に確定し、以降は店舗（＋その従業員）に限定したクエリを並列に発行する。
+        //    店舗未指定（全店）の場合のみ従来どおり全件を読む。
+        List<Employee> employees = timed(scope, "employees", () -> (storeCode == null)
                 ? employeeMapper.selectAll()
-                : employeeMapper.selectByStoreCode(storeCode);
+                : employeeMapper.selectByStoreCode(storeCode));
+        List<String> employeeCodes = employees.stream().map(Employee::getEmployeeCode).toList();
+        java.util.Date monthStartDate = java.sql.Date.valueOf(cycleStart.withDayOfMonth(1));
 
-        List<Register> registers = registerMapper.selectAll();
+        CompletableFuture<List<Register>> registersF = async(scope, "registers", () -> storeCode == null
+                ? registerMapper.selectAll()
+                : registerMapper.selectByStoreCode(storeCode));
+        CompletableFuture<List<DemandIntervalDto>> intervalRowsF = async(scope, "register_demand", () ->
+                registerDemandIntervalMapper.selectByDateRange(storeCode, cycleStart, cycleEnd));
+        // 希望は日付範囲APIを利用
+        CompletableFuture<List<EmployeeRequest>> requestsF = async(scope, "requests", () -> storeCode == null
+                ? requestMapper.selectByDateRange(cycleStart, cycleEnd)
+                : requestMapper.selectByStoreAndDateRange(storeCode, cycleStart, cycleEnd));
+        // constraint_master は店舗に依存しない少数のマスタ
+        CompletableFuture<List<ConstraintMaster>> settingsF = async(scope, "constraint_master", constraintMasterMapper::selectAll);
+        // 部門スキルは部門＋対象従業員に限定する（他店舗の所属者を読まない）
+        CompletableFuture<List<EmployeeDepartmentSkill>> deptSkillsF = async(scope, "department_skills", () -> departmentCode == null
+                ? java.util.Collections.<EmployeeDepartmentSkill>emptyList()
+                : storeCode == null
+                        ? employeeDepartmentSkillMapper.selectByDepartment(departmentCode)
+                        : employeeCodes.isEmpty()
+                                ? List.<EmployeeDepartmentSkill>of()
+                                : employeeDepartmentSkillMapper.selectByDepartmentAndEmployeeCodes(departmentCode, employeeCodes));
+        // 従業員曜日別勤務設定（対象従業員分を 1 クエリで取得）
+        CompletableFuture<List<EmployeeWeeklyPreference>> weeklyPreferencesF = async(scope, "weekly_preferences", () -> employeeCodes.isEmpty()
+                ? List.<EmployeeWeeklyPreference>of()
+                : employeeWeeklyPreferenceMapper.selectByEmployeeCodes(employeeCodes));
+        // 従業員レジスキル
+        CompletableFuture<List<EmployeeRegisterSkill>> registerSkillsF = async(scope, "register_skills", () -> {
+            if (storeCode == null) return skillMapper.selectByExample(null);
+            EmployeeRegisterSkillExample ex = new EmployeeRegisterSkillExample();
+            ex.createCriteria().andStoreCodeEqualTo(storeCode);
+            return skillMapper.selectByExample(ex);
+        });
+        // 従業員の月次勤務時間設定（対象月）
+        CompletableFuture<List<EmployeeMonthlySetting>> monthlySettingsF = async(scope, "monthly_settings", () -> storeCode == null
+                ? employeeMonthlySettingMapper.selectByMonth(monthStartDate)
+                : employeeCodes.isEmpty()
+                        ? List.<EmployeeMonthlySetting>of()
+                        : employeeMonthlySettingMapper.selectByMonthAndEmployees(monthStartDate, employeeCodes));
+        CompletableFuture<List<EmployeeShiftPattern>> shiftPatternsF = async(scope, "shift_patterns", () -> storeCode == null
+                ? employeeShiftPatternMapper.selectAllActive()
+                : employeeCodes.isEmpty()
+                        ? List.<EmployeeShiftPattern>of()
+                        : employeeShiftPatternMapper.selectActiveByEmployeeCodes(employeeCodes));
+        // 出勤時間データを取得（制約用）
+        CompletableFuture<List<ShiftAssignment>> shiftAssignmentsF = async(scope, "shift_assignments", () -> storeCode == null
+                ? shiftAssignmentMapper.selectByMonth(cycleStart, cycleEnd)
+                : shiftAssignmentMapper.selectByStoreAndRange(storeCode, cycleStart, cycleEnd));
+        // ウォームスタート用の前回結果は「前サイクル」範囲で取得
+        CompletableFuture<List<RegisterAssignment>> previousF = async(scope, "previous_assignments", () -> storeCode == null
+                ? assignmentMapper.selectByMonth(cycleStart.minusMonths(1), cycleStart)
+                : assignmentMapper.selectByStoreAndRange(storeCode, cycleStart.minusMonths(1), cycleStart));
+
+        List<Register> registers = await(registersF);
 
         // Register demand: read interval rows for the cycle range [start, end), then split to quarters
         int minutesPerSlot = appSettingService.getTimeResolutionMinutes();
 
-        List<DemandIntervalDto> intervalRows = registerDemandIntervalMapper.selectByDateRange(storeCode, cycleStart, cycleEnd);
+        List<DemandIntervalDto> intervalRows = await(intervalRowsF);
         if (intervalRows.isEmpty()) {
             log.warn("No register demand intervals found for store={} range={}..{} (register assignments will be empty)",
                     storeCode, cycleStart, cycleEnd);
@@ -101,39 +167,15 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
             demands.add(slot);
         }
 
-        // 希望は日付範囲APIを利用
-        List<EmployeeRequest> requests = requestMapper.selectByDateRange(cycleStart, cycleEnd);
-
-        List<ConstraintMaster> settings = constraintMasterMapper.selectAll();
-        List<EmployeeDepartmentSkill> deptSkills = departmentCode != null
-                ? employeeDepartmentSkillMapper.selectByDepartment(departmentCode)
-                : java.util.Collections.emptyList();
-
-        // 従業員曜日別勤務設定を取得
-        List<EmployeeWeeklyPreference> weeklyPreferences = new ArrayList<>();
-        for (Employee emp : employees) {
-            weeklyPreferences.addAll(employeeWeeklyPreferenceMapper.selectByEmployee(emp.getEmployeeCode()));
-        }
-
-        // 従業員レジスキルを取得
-        List<EmployeeRegisterSkill> employeeRegisterSkills = skillMapper.selectByExample(null);
-
-        // 従業員の月次勤務時間設定（対象月）
-        java.util.Date monthStartDate = java.sql.Date.valueOf(cycleStart.withDayOfMonth(1));
-        List<EmployeeMonthlySetting> monthlySettings = employeeMonthlySettingMapper.selectByMonth(monthStartDate);
-        List<EmployeeShiftPattern> shiftPatterns = employeeShiftPatternMapper.selectAllActive();
-
-        // 出勤時間データを取得（制約用）
-        List<ShiftAssignment> shiftAssignments = 
-                shiftAssignmentMapper.selectByMonth(cycleStart, cycleEnd)
-                .stream()
-                .filter(s -> storeCode == null || storeCode.equals(s.getStoreCode()))
-                .toList();
-
-        // ウォームスタート用の前回結果は「前サイクル」範囲で取得
-        List<RegisterAssignment> previous = assignmentMapper.selectByMonth(
-                cycleStart.minusMonths(1),
-                cycleStart);
+        List<EmployeeRequest> requests = await(requestsF);
+        List<ConstraintMaster> settings = await(settingsF);
+        List<EmployeeDepartmentSkill> deptSkills = await(deptSkillsF);
+        List<EmployeeWeeklyPreference> weeklyPreferences = await(weeklyPreferencesF);
+        List<EmployeeRegisterSkill> employeeRegisterSkills = await(registerSkillsF);
+        List<EmployeeMonthlySetting> monthlySettings = await(monthlySettingsF);
+        List<EmployeeShiftPattern> shiftPatterns = await(shiftPatternsF);
+        List<ShiftAssignment> shiftAssignments = await(shiftAssignmentsF);
+        List<RegisterAssignment> previous = await(previousF);
 
         // 2. 未割当 Assignment 生成
         List<ShiftAssignmentPlanningEntity> emptyAssignments = new ArrayList<>();
@@ -144,14 +186,19 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
             if ("520".equalsIgnoreCase(departmentCode)) {
                 isRegisterDepartment = true;
             } else {
-                var dept = departmentMasterMapper.selectByCode(departmentCode);
+                var dept = timed(scope, "department", () -> departmentMasterMapper.selectByCode(departmentCode));
                 isRegisterDepartment = (dept != null && Boolean.TRUE.equals(dept.getIsRegister()));
             }
         }
 
         // Filter employees by department only when it's NOT a register department
         if (departmentCode != null && !departmentCode.isBlank() && !isRegisterDepartment) {
-            var edList = employeeDepartmentMapper.selectByDepartment(departmentCode);
+            // 所属も部門＋対象従業員に限定する
+            var edList = timed(scope, "employee_departments", () -> storeCode == null
+                    ? employeeDepartmentMapper.selectByDepartment(departmentCode)
+                    : employeeCodes.isEmpty()
+                            ? List.<EmployeeDepartment>of()
+                            : employeeDepartmentMapper.selectByDepartmentAndEmployeeCodes(departmentCode, employeeCodes));
             Set<String> allowed = edList.stream().map(EmployeeDepartment::getEmployeeCode).collect(Collectors.toSet());
             employees = employees.stream().filter(e -> allowed.contains(e.getEmployeeCode())).toList();
         }
@@ -163,13 +210,14 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
 
         // レジ部門ならレジ需要も含める
         if (isRegisterDepartment) {
-            emptyAssignments.addAll(buildEmptyAssignments(demands, registers, departmentCode, minutesPerSlot));
+            emptyAssignments.addAll(buildEmptyAssignments(demands, registers, departmentCode, minutesPerSlot, TEMP_ID_SEQ::getAndDecrement));
         }
 
         // 指定部門の非レジ作業需要を含める（レジ部門か否かに関わらず）
         List<WorkDemandSlot> workDemands = List.of();
         if (departmentCode != null && !departmentCode.isBlank()) {
-            var workIntervals = workDemandIntervalMapper.selectByMonth(storeCode, departmentCode, cycleStart, cycleEnd);
+            var workIntervals = timed(scope, "work_demand",
+                    () -> workDemandIntervalMapper.selectByMonth(storeCode, departmentCode, cycleStart, cycleEnd));
             // Expand intervals to quarter rows
             Map<LocalDate, List<DemandIntervalDto>> byDate = workIntervals.stream().collect(Collectors.groupingBy(DemandIntervalDto::getTargetDate));
             List<WorkDemandSlot> tmp = new ArrayList<>();
@@ -190,7 +238,7 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
                 }
             }
             workDemands = tmp;
-            emptyAssignments.addAll(buildEmptyWorkAssignments(workDemands, departmentCode, minutesPerSlot));
+            emptyAssignments.addAll(buildEmptyWorkAssignments(workDemands, departmentCode, minutesPerSlot, TEMP_ID_SEQ::getAndDecrement));
         }
 
         // 3. ドメインモデル組み立て
@@ -215,6 +263,28 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
         return schedule;
     }
 
+    /** 問題ロードの計測タグ（店舗・ステージ） */
+    private record LoadScope(String storeCode, SolveStage stage) {}
+
+    private <T> CompletableFuture<T> async(LoadScope scope, String queryGroup, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> timed(scope, queryGroup, query), problemLoadExecutor);
+    }
+
+    private <T> T timed(LoadScope scope, String queryGroup, Supplier<T> query) {
+        return solverMetrics.timeLoad(scope.storeCode(), scope.stage(), queryGroup, query);
+    }
+
+    /** 並列取得の結果を待ち、失敗時は元の例外をそのまま投げ直す */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
     private void validateRegisterDemandIntervals(List<DemandIntervalDto> intervals,
                                                  int minutesPerSlot,
                                                  String storeCode,
@@ -258,11 +328,13 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
      *     <li>Employee は <code>null</code> で初期化し、OptaPlanner が割り当て</li>
      *     <li>registerNo は <b>レジ番号の若い順</b> で、<b>SEMI → NORMAL</b> の優先で設定</li>
      * </ul>
+     * 合成問題の生成からも同じ手順を使うため、ID 採番は呼び出し側から渡す。
      */
-    private List<ShiftAssignmentPlanningEntity> buildEmptyAssignments(List<RegisterDemandSlot> demandList,
+    static List<ShiftAssignmentPlanningEntity> buildEmptyAssignments(List<RegisterDemandSlot> demandList,
                                                                      List<Register> registerList,
                                                                      String departmentCode,
-                                                                     int minutesPerSlot) {
+                                                                     int minutesPerSlot,
+                                                                     LongSupplier idSeq) {
         // 店舗毎のレジを [SEMI 優先] & [register_no 昇順] ソートで保持
         Map<String, List<Register>> registerMap = registerList.stream()
                 .collect(Collectors.groupingBy(Register::getStoreCode, Collectors.collectingAndThen(Collectors.toList(), list -> {
@@ -299,7 +371,7 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
 
                 // ---- RegisterAssignment 組み立て ----
                 RegisterAssignment sa = new RegisterAssignment();
-                sa.setAssignmentId(TEMP_ID_SEQ.getAndDecrement());
+                sa.setAssignmentId(idSeq.getAsLong());
                 sa.setStoreCode(d.getStoreCode());
                 sa.setEmployeeCode(null);           // 未割当
                 sa.setRegisterNo(registerNo);       // 今回の修正ポイント
@@ -318,10 +390,11 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
         return result;
     }
 
-    private List<ShiftAssignmentPlanningEntity> buildEmptyWorkAssignments(
+    static List<ShiftAssignmentPlanningEntity> buildEmptyWorkAssignments(
             List<WorkDemandSlot> demandList,
             String departmentCode,
-            int minutesPerSlot) {
+            int minutesPerSlot,
+            LongSupplier idSeq) {
         List<ShiftAssignmentPlanningEntity> result = new ArrayList<>();
         for (var d : demandList) {
             LocalDate demandDate = d.getDemandDate();
@@ -331,7 +404,7 @@ public class ShiftScheduleRepositoryImpl implements ShiftScheduleRepository {
             for (int i = 0; i < required; i++) {
                 // Reuse RegisterAssignment as time container with null registerNo
                 RegisterAssignment sa = new RegisterAssignment();
-                sa.setAssignmentId(TEMP_ID_SEQ.getAndDecrement());
+                sa.setAssignmentId(idSeq.getAsLong());
                 sa.setStoreCode(d.getStoreCode());
                 sa.setEmployeeCode(null);
                 sa.setRegisterNo(null);
@@ -1,10 +1,12 @@
 package io.github.riemr.shift.infrastructure.repository;
 
+import io.github.riemr.shift.application.dto.TaskPlanOccurrence;
 import io.github.riemr.shift.application.repository.TaskPlanRepository;
 import io.github.riemr.shift.infrastructure.mapper.TaskPlanMapper;
 import io.github.riemr.shift.infrastructure.persistence.entity.TaskPlan;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
 
@@ -27,6 +29,9 @@ public class TaskPlanRepositoryImpl implements TaskPlanRepository {
     @Override public List<TaskPlan> listWeeklyEffective(String storeCode, short dayOfWeek, Date date) {
         return mapper.selectWeeklyEffective(storeCode, dayOfWeek, date);
     }
+    @Override public List<TaskPlanOccurrence> listWeeklyOccurrences(String storeCode, String departmentCode, LocalDate from, LocalDate to) {
+        return mapper.selectWeeklyOccurrences(storeCode, departmentCode, from, to);
+    }
     @Override
     public void deleteWeeklyByStoreDeptAndDow(String storeCode, String departmentCode, short dayOfWeek) {
         mapper.deleteWeeklyByStoreDeptAndDow(storeCode, departmentCode, dayOfWeek);
@@ -4,6 +4,8 @@ import io.github.riemr.shift.optimization.constraint.ShiftScheduleConstraintProv
 import io.github.riemr.shift.optimization.constraint.AttendanceConstraintProvider;
 import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
 import io.github.riemr.shift.optimization.entity.DailyPatternAssignmentEntity;
+import io.github.riemr.shift.optimization.move.RegisterBlockMoveIteratorFactory;
+import io.github.riemr.shift.optimization.nearby.AssignmentTimeNearbyDistanceMeter;
 import io.github.riemr.shift.optimization.solution.ShiftSchedule;
 import io.github.riemr.shift.optimization.solution.AttendanceSolution;
 import io.github.riemr.shift.optimization.phase.AttendanceInitialSolutionBuilder;
@@ -16,28 +18,35 @@ import org.optaplanner.core.config.heuristic.selector.entity.EntitySelectorConfi
 import org.optaplanner.core.config.heuristic.selector.move.generic.ChangeMoveSelectorConfig;
 import org.optaplanner.core.config.heuristic.selector.value.ValueSelectorConfig;
 import org.optaplanner.core.config.heuristic.selector.common.SelectionOrder;
+import org.optaplanner.core.config.heuristic.selector.common.nearby.NearbySelectionConfig;
+import org.optaplanner.core.config.heuristic.selector.common.nearby.NearbySelectionDistributionType;
+import org.optaplanner.core.config.heuristic.selector.move.MoveSelectorConfig;
 import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
 import org.optaplanner.core.config.localsearch.LocalSearchType;
 import org.optaplanner.core.config.phase.PhaseConfig;
 import org.optaplanner.core.config.phase.custom.CustomPhaseConfig;
 import org.optaplanner.core.config.heuristic.selector.move.generic.SwapMoveSelectorConfig;
 import org.optaplanner.core.config.heuristic.selector.move.composite.UnionMoveSelectorConfig;
+import org.optaplanner.core.config.heuristic.selector.move.factory.MoveIteratorFactoryConfig;
 import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicType;
-// pillar move APIs are not available in current OptaPlanner public config; use standard Change/Swap instead
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.optaplanner.core.api.score.ScoreManager;
 import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
 import org.optaplanner.core.config.solver.SolverConfig;
 import org.optaplanner.core.config.solver.termination.TerminationConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Arrays;
+import java.util.Map;
 
 @Configuration
+@Slf4j
 public class OptaPlannerConfig {
 
     // 共通（ASSIGNMENT 月次など）デフォルト上限
@@ -49,6 +58,23 @@ public class OptaPlannerConfig {
     // ATTENDANCE 未改善終了（既定: 30秒）
     @Value("${shift.attendance.unimproved-limit:PT30S}")
     private String attendanceUnimprovedLimit;
+    // ムーブ評価スレッド数（NONE: 単一スレッド / AUTO: コア数から自動 / n: 固定スレッド数）
+    @Value("${shift.solver.move-thread-count:NONE}")
+    private String moveThreadCount;
+    // 日次 ASSIGNMENT のスワップを近傍選択（同一レジ/作業・近い時刻）にする（既定: 無効=ランダム）。月次には適用しない
+    @Value("${shift.assignment.daily.nearby-swap.enabled:false}")
+    private boolean assignmentDailyNearbySwapEnabled;
+    // 近傍スワップで候補とする近い順の上限件数（PARABOLIC 分布の最大サイズ）
+    @Value("${shift.assignment.daily.nearby-swap.size-maximum:40}")
+    private int assignmentDailyNearbySwapSizeMaximum;
+    // ASSIGNMENT で同一レジの連続スロットをまとめて動かすブロックムーブを併用する（既定: 無効。ベンチマークで効果を確認してから有効化）
+    @Value("${shift.assignment.block-moves.enabled:false}")
+    private boolean assignmentBlockMovesEnabled;
+    // 再現モードでのローカルサーチ各フェーズのステップ数上限（時間上限の代わり）
+    @Value("${shift.solver.reproducible.assignment-step-limit:20000}")
+    private int reproducibleAssignmentStepLimit;
+    @Value("${shift.solver.reproducible.attendance-step-limit:20000}")
+    private int reproducibleAttendanceStepLimit;
     // アーリーストッピングを無効化
     // @Value("${shift.solver.unimproved-soft-spent-limit:PT30S}")
     // private Duration unimprovedScoreLimit;
@@ -57,10 +83,36 @@ public class OptaPlannerConfig {
     @ConditionalOnMissingBean(SolverFactory.class)
     @SuppressWarnings({"rawtypes", "unchecked"})
     public SolverFactory solverFactory() {
+        return SolverFactory.create(assignmentSolverConfig());
+    }
+
+    /**
+     * ASSIGNMENT（ShiftSchedule）用のソルバー設定。ベンチマークから同じ構成を再利用できるよう公開する。
+     * 月次の問題にも使うため、スワップは常にランダム選択とする。
+     */
+    public SolverConfig assignmentSolverConfig() {
+        return assignmentSolverConfig(false);
+    }
+
+    /**
+     * 日次 ASSIGNMENT（1 日分に切り出した問題）用のソルバー設定。
+     * 近傍スワップは距離表を起点ごとに全エンティティ分保持する（エンティティ数の 2 乗）ため、日次でのみ有効にできる。
+     */
+    public SolverConfig dailyAssignmentSolverConfig() {
+        return assignmentSolverConfig(assignmentDailyNearbySwapEnabled);
+    }
+
+    /** 日次用の設定が月次用と異なるか（同じなら日次も共有の SolverManager で解く） */
+    public boolean hasDailyAssignmentVariant() {
+        return assignmentDailyNearbySwapEnabled;
+    }
+
+    private SolverConfig assignmentSolverConfig(boolean nearbySwap) {
         SolverConfig solverConfig = new SolverConfig()
                 .withSolutionClass(ShiftSchedule.class)
                 .withEntityClasses(ShiftAssignmentPlanningEntity.class)
-                .withTerminationConfig(terminationConfig());
+                .withTerminationConfig(terminationConfig())
+                .withMoveThreadCount(resolveMoveThreadCount());
 
         // Constraint Streams を設定（ConstraintMatchはバージョン互換のためsetter使用）
         ScoreDirectorFactoryConfig sdf1 = new ScoreDirectorFactoryConfig()
@@ -76,11 +128,10 @@ public class OptaPlannerConfig {
         solverConfig.setPhaseConfigList(List.<PhaseConfig>of(
                 customInitial,
                 constructionHeuristicPhaseConfig(), // カスタム初期解で漏れたエンティティを補完  
-                relaxedLocalSearchPhase(),
-                strictLocalSearchPhase()
+                relaxedLocalSearchPhase(nearbySwap),
+                strictLocalSearchPhase(nearbySwap)
         ));
-
-        return SolverFactory.create(solverConfig);
+        return solverConfig;
     }
 
     @Bean
@@ -94,9 +145,17 @@ public class OptaPlannerConfig {
     // ATTENDANCE（パターン単位）用ソルバー
     @Bean
     public SolverFactory<AttendanceSolution> attendanceSolverFactory() {
+        return SolverFactory.create(attendanceSolverConfig());
+    }
+
+    /**
+     * ATTENDANCE（AttendanceSolution）用のソルバー設定。ベンチマークから同じ構成を再利用できるよう公開する。
+     */
+    public SolverConfig attendanceSolverConfig() {
         SolverConfig solverConfig = new SolverConfig()
                 .withSolutionClass(AttendanceSolution.class)
                 .withEntityClasses(DailyPatternAssignmentEntity.class)
+                .withMoveThreadCount(resolveMoveThreadCount())
                 // ATTENDANCEは専用の時間上限＋未改善終了を使用
                 .withTerminationConfig(new TerminationConfig()
                         .withSpentLimit(parseDurationTolerant(attendanceSpentLimit, Duration.ofMinutes(2)))
@@ -156,7 +215,45 @@ public class OptaPlannerConfig {
                 alsDiversify,
                 alsConverge
         ));
-        return SolverFactory.create(solverConfig);
+        return solverConfig;
+    }
+
+    /**
+     * 再現モードの ASSIGNMENT 設定。カスタム初期解（AssignmentInitialSolutionBuilder）は乱数を使わないためシード指定は不要。
+     */
+    public SolverConfig reproducibleAssignmentSolverConfig(long seed) {
+        return reproducible(assignmentSolverConfig(), seed, reproducibleAssignmentStepLimit);
+    }
+
+    /**
+     * 再現モードの ATTENDANCE 設定。カスタム初期解（AttendanceInitialSolutionBuilder）の乱数にも同じシードを渡す。
+     */
+    public SolverConfig reproducibleAttendanceSolverConfig(long seed) {
+        SolverConfig config = reproducible(attendanceSolverConfig(), seed, reproducibleAttendanceStepLimit);
+        for (PhaseConfig phase : config.getPhaseConfigList()) {
+            if (phase instanceof CustomPhaseConfig custom) {
+                custom.setCustomProperties(Map.of("randomSeed", Long.toString(seed)));
+            }
+        }
+        return config;
+    }
+
+    /**
+     * 乱数シードと REPRODUCIBLE モードを固定し、時間ではなくステップ数で終了させる。
+     * CH とカスタム初期解は全エンティティを処理して自然に終わるため、ローカルサーチの各フェーズにだけ上限を付ける。
+     */
+    private static SolverConfig reproducible(SolverConfig config, long seed, int stepLimit) {
+        config.setEnvironmentMode(EnvironmentMode.REPRODUCIBLE);
+        config.setRandomSeed(seed);
+        // ムーブ評価の並列化はスレッド数に結果が依存しうるため使わない
+        config.setMoveThreadCount(SolverConfig.MOVE_THREAD_COUNT_NONE);
+        config.setTerminationConfig(null);
+        for (PhaseConfig phase : config.getPhaseConfigList()) {
+            if (phase instanceof LocalSearchPhaseConfig ls) {
+                ls.setTerminationConfig(new TerminationConfig().withStepCountLimit(Math.max(1, stepLimit)));
+            }
+        }
+        return config;
     }
 
     // ScoreManager は explainScore に利用（デバッグ用途）
@@ -184,6 +281,21 @@ public class OptaPlannerConfig {
         return t;
     }
 
+    /**
+     * shift.solver.move-thread-count を SolverConfig の moveThreadCount に変換する。
+     * 不正値は単一スレッド（NONE）として扱う。
+     */
+    private String resolveMoveThreadCount() {
+        if (moveThreadCount == null || moveThreadCount.isBlank()) return SolverConfig.MOVE_THREAD_COUNT_NONE;
+        String v = moveThreadCount.trim().toUpperCase();
+        if (SolverConfig.MOVE_THREAD_COUNT_NONE.equals(v) || SolverConfig.MOVE_THREAD_COUNT_AUTO.equals(v)) return v;
+        try {
+            if (Integer.parseInt(v) >= 1) return v;
+        } catch (NumberFormatException ignore) {}
+        log.warn("Invalid shift.solver.move-thread-count '{}'; falling back to NONE", moveThreadCount);
+        return SolverConfig.MOVE_THREAD_COUNT_NONE;
+    }
+
     private Duration parseDurationTolerant(String raw, Duration def) {
         if (raw == null || raw.isBlank()) return def;
         String s = raw.trim();
@@ -207,43 +319,86 @@ public class OptaPlannerConfig {
         return new ConstructionHeuristicPhaseConfig();
     }
 
-    private LocalSearchPhaseConfig strictLocalSearchPhase() {
+    private LocalSearchPhaseConfig strictLocalSearchPhase(boolean nearbySwap) {
         LocalSearchPhaseConfig ls = new LocalSearchPhaseConfig();
         ls.setLocalSearchType(LocalSearchType.TABU_SEARCH);
+        List<MoveSelectorConfig> moves = new ArrayList<>(List.of(assignmentChangeMove(), assignmentSwapMove(nearbySwap)));
+        if (assignmentBlockMovesEnabled) moves.add(assignmentBlockMove());
+        UnionMoveSelectorConfig union =
+                new UnionMoveSelectorConfig();
+        union.setMoveSelectorList(moves);
+
+        ls.setMoveSelectorConfig(union);
+        return ls;
+    }
+
+    /**
+     * 同一レジ・同一従業員の連続スロット（max_allowance 以内）を 1 ムーブで付け替え/入れ替えする。
+     * 単一スロットのムーブだけではレジ切替・分断の解消に上り坂の手順が多く必要になるため併用する。
+     */
+    private MoveIteratorFactoryConfig assignmentBlockMove() {
+        return new MoveIteratorFactoryConfig()
+                .withMoveIteratorFactoryClass(RegisterBlockMoveIteratorFactory.class)
+                .withSelectionOrder(SelectionOrder.RANDOM)
+                // 単一スロットの change/swap（重み 1.0）より低頻度で選ぶ
+                .withFixedProbabilityWeight(0.5);
+    }
+
+    private ChangeMoveSelectorConfig assignmentChangeMove() {
         ChangeMoveSelectorConfig change = new ChangeMoveSelectorConfig();
         change.setEntitySelectorConfig(new EntitySelectorConfig()
                 .withEntityClass(ShiftAssignmentPlanningEntity.class)
                 .withSelectionOrder(SelectionOrder.RANDOM));
-        ValueSelectorConfig valueSelector = new ValueSelectorConfig()
+        change.setValueSelectorConfig(new ValueSelectorConfig()
                 .withVariableName("assignedEmployee")
-                .withSelectionOrder(SelectionOrder.RANDOM);
-        change.setValueSelectorConfig(valueSelector);
+                .withSelectionOrder(SelectionOrder.RANDOM));
+        return change;
+    }
 
-        UnionMoveSelectorConfig union =
-                new UnionMoveSelectorConfig();
+    /**
+     * ASSIGNMENT のスワップムーブ。近傍スワップ有効時は、1 つ目のエンティティをランダムに選び、
+     * 2 つ目を {@link AssignmentTimeNearbyDistanceMeter} で近い順（同一レジ/作業・近い時刻）に偏らせて選ぶ。
+     * 距離は起点ごとに全エンティティ分を保持するため、日次 ASSIGNMENT の設定からのみ有効にする。
+     */
+    private SwapMoveSelectorConfig assignmentSwapMove(boolean nearbySwap) {
         SwapMoveSelectorConfig swap =
                 new SwapMoveSelectorConfig();
+        if (!nearbySwap) {
+            swap.setEntitySelectorConfig(new EntitySelectorConfig()
+                    .withEntityClass(ShiftAssignmentPlanningEntity.class)
+                    .withSelectionOrder(SelectionOrder.RANDOM));
+            return swap;
+        }
+        // フェーズごとに別インスタンスを作るため、同じ ID を使っても衝突しない
+        String originId = "assignmentSwapOrigin";
         swap.setEntitySelectorConfig(new EntitySelectorConfig()
+                .withId(originId)
                 .withEntityClass(ShiftAssignmentPlanningEntity.class)
                 .withSelectionOrder(SelectionOrder.RANDOM));
-        union.setMoveSelectorList(Arrays.asList(change, swap));
-
-        ls.setMoveSelectorConfig(union);
-        return ls;
+        swap.setSecondaryEntitySelectorConfig(new EntitySelectorConfig()
+                .withEntityClass(ShiftAssignmentPlanningEntity.class)
+                .withNearbySelectionConfig(new NearbySelectionConfig()
+                        .withOriginEntitySelectorConfig(EntitySelectorConfig.newMimicSelectorConfig(originId))
+                        .withNearbyDistanceMeterClass(AssignmentTimeNearbyDistanceMeter.class)
+                        .withNearbySelectionDistributionType(NearbySelectionDistributionType.PARABOLIC_DISTRIBUTION)
+                        .withParabolicDistributionSizeMaximum(Math.max(1, assignmentDailyNearbySwapSizeMaximum))));
+        return swap;
     }
 
-    private LocalSearchPhaseConfig relaxedLocalSearchPhase() {
+    private LocalSearchPhaseConfig relaxedLocalSearchPhase(boolean nearbySwap) {
         LocalSearchPhaseConfig ls = new LocalSearchPhaseConfig();
         ls.setLocalSearchType(LocalSearchType.LATE_ACCEPTANCE);
-        // 変更ムーブ中心（探索の多様化を優先）
-        ChangeMoveSelectorConfig change = new ChangeMoveSelectorConfig();
-        change.setEntitySelectorConfig(new EntitySelectorConfig()
-                .withEntityClass(ShiftAssignmentPlanningEntity.class)
-                .withSelectionOrder(SelectionOrder.RANDOM));
-        change.setValueSelectorConfig(new ValueSelectorConfig()
-                .withVariableName("assignedEmployee")
-                .withSelectionOrder(SelectionOrder.RANDOM));
-        ls.setMoveSelectorConfig(change);
+        // 変更ムーブ中心（探索の多様化を優先）。近傍スワップ・ブロックムーブは有効時のみ併用する
+        List<MoveSelectorConfig> moves = new ArrayList<>(List.of(assignmentChangeMove()));
+        if (nearbySwap) moves.add(assignmentSwapMove(true));
+        if (assignmentBlockMovesEnabled) moves.add(assignmentBlockMove());
+        if (moves.size() == 1) {
+            ls.setMoveSelectorConfig(moves.get(0));
+        } else {
+            UnionMoveSelectorConfig union = new UnionMoveSelectorConfig();
+            union.setMoveSelectorList(moves);
+            ls.setMoveSelectorConfig(union);
+        }
         // 後続フェーズがあるため、このフェーズ単体の終了条件を必須で設定
         ls.setTerminationConfig(new TerminationConfig().withSpentLimit(
                 parseDurationTolerant(solverSpentLimit, Duration.ofMinutes(30)).dividedBy(2)));
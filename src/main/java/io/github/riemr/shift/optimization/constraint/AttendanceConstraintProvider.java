@@ -6,11 +6,17 @@ import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeWeeklyPre
 import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeMonthlySetting;
 import io.github.riemr.shift.optimization.entity.AttendanceGroupInfo;
 import io.github.riemr.shift.optimization.entity.AttendanceGroupRuleType;
+import io.github.riemr.shift.optimization.entity.ConsecutiveWorkLimit;
 import io.github.riemr.shift.optimization.entity.DailyPatternAssignmentEntity;
 import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
+import io.github.riemr.shift.optimization.entity.TimeKeys;
 import io.github.riemr.shift.util.OffRequestKinds;
 import io.github.riemr.shift.util.EmployeeRequestKinds;
+import org.optaplanner.core.api.score.stream.bi.BiConstraintCollector;
+import org.optaplanner.core.api.score.stream.bi.BiConstraintStream;
+import org.optaplanner.core.api.score.stream.bi.BiJoiner;
 import org.optaplanner.core.api.score.stream.tri.TriConstraintStream;
+import org.optaplanner.core.api.score.stream.uni.UniConstraintStream;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 import org.optaplanner.core.api.score.stream.Constraint;
 import org.optaplanner.core.api.score.stream.ConstraintFactory;
@@ -22,6 +28,8 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.YearMonth;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
 
 public class AttendanceConstraintProvider implements ConstraintProvider {
     /**
@@ -44,7 +52,7 @@ public class AttendanceConstraintProvider implements ConstraintProvider {
                 monthlyMinOffDaysHard(f),
                 monthlyMaxOffDaysHard(f),
                 monthlyMaxOffDaysHardNoWork(f),
-                consecutiveSevenDaysHard(f),
+                consecutiveWorkDaysHard(f),
                 requirePatternAlignment(f),
                 headcountBalance(f),
                 weeklyWorkHoursRange(f),
@@ -64,27 +72,22 @@ public class AttendanceConstraintProvider implements ConstraintProvider {
      * @return 重複割当禁止制約
      */
     private Constraint employeeNotDoubleBooked(ConstraintFactory f) {
-        return f.forEachUniquePair(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(e -> e.getAssignedEmployee() != null ? e.getAssignedEmployee().getEmployeeCode() : null,
-                                e -> e.getAssignedEmployee() != null ? e.getAssignedEmployee().getEmployeeCode() : null),
-                        Joiners.equal(DailyPatternAssignmentEntity::getDate))
-                .filter((a, b) -> overlaps(a, b))
+        // 未割当（null 従業員）を結合前に除外し、従業員+日の索引と区間 [start, end) の重なりで結合する
+        return assignedPatterns(f)
+                .join(assignedPatterns(f),
+                        Joiners.equal(e -> e.getAssignedEmployee().getEmployeeCode()),
+                        Joiners.equal(DailyPatternAssignmentEntity::getDayIndex),
+                        Joiners.lessThan(DailyPatternAssignmentEntity::getId),
+                        Joiners.overlapping(DailyPatternAssignmentEntity::getStartMinute,
+                                DailyPatternAssignmentEntity::getEndMinute))
+                .filter((a, b) -> a.getDayIndex() != TimeKeys.NONE && b.getDayIndex() != TimeKeys.NONE)
                 .penalize(HardSoftScore.ONE_HARD)
                 .asConstraint("Attendance double booking");
     }
 
-    /**
-     * パターン時間帯が重なっているかを判定する。
-     *
-     * @param a パターン割当 A
-     * @param b パターン割当 B
-     * @return 重なる場合は true
-     */
-    private static boolean overlaps(DailyPatternAssignmentEntity a, DailyPatternAssignmentEntity b) {
-        if (a.getAssignedEmployee() == null || b.getAssignedEmployee() == null) return false;
-        if (!a.getDate().equals(b.getDate())) return false;
-        // [start, end) の重なり
-        return a.getPatternStart().isBefore(b.getPatternEnd()) && b.getPatternStart().isBefore(a.getPatternEnd());
+    private static UniConstraintStream<DailyPatternAssignmentEntity> assignedPatterns(ConstraintFactory f) {
+        return f.forEach(DailyPatternAssignmentEntity.class)
+                .filter(e -> e.getAssignedEmployee() != null);
     }
 
     /**
@@ -199,16 +202,9 @@ public class AttendanceConstraintProvider implements ConstraintProvider {
      * @return 人数バランス制約
      */
     private Constraint headcountBalance(ConstraintFactory f) {
-        return f.forEach(RegisterDemandSlot.class)
-                .join(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(RegisterDemandSlot::getStoreCode, DailyPatternAssignmentEntity::getStoreCode),
-                        Joiners.equal(RegisterDemandSlot::getDemandDate, DailyPatternAssignmentEntity::getDate),
-                        Joiners.filtering((d, e) -> e.getAssignedEmployee() != null
-                                && timeWithin(e, d.getSlotTime())))
-                .groupBy((d, e) -> d, ConstraintCollectors.countBi())
+        return slotHeadcount(f)
                 .penalize(HardSoftScore.ofSoft(200), (d, assigned) -> {
-                    int required = d.getRequiredUnits() == null ? 0 : Math.max(0, d.getRequiredUnits());
-                    int diff = assigned - required;
+                    int diff = assigned - requiredUnits(d);
                     if (diff < 0) return (-diff) * 2;
                     if (diff > 0) return diff;
                     return 0;
@@ -223,27 +219,44 @@ public class AttendanceConstraintProvider implements ConstraintProvider {
      * @return 過剰配置ペナルティ制約
      */
     private Constraint overstaffLightPenalty(ConstraintFactory f) {
-        return f.forEach(RegisterDemandSlot.class)
-                .join(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(RegisterDemandSlot::getStoreCode, DailyPatternAssignmentEntity::getStoreCode),
-                        Joiners.equal(RegisterDemandSlot::getDemandDate, DailyPatternAssignmentEntity::getDate),
-                        Joiners.filtering((d, e) -> e.getAssignedEmployee() != null && timeWithin(e, d.getSlotTime())))
-                .groupBy((d, e) -> d, ConstraintCollectors.countBi())
-                .filter((d, assigned) -> assigned > (d.getRequiredUnits() == null ? 0 : Math.max(0, d.getRequiredUnits())))
-                .penalize(HardSoftScore.ofSoft(10), (d, assigned) -> assigned - (d.getRequiredUnits() == null ? 0 : Math.max(0, d.getRequiredUnits())))
+        return slotHeadcount(f)
+                .filter((d, assigned) -> assigned > requiredUnits(d))
+                .penalize(HardSoftScore.ofSoft(10), (d, assigned) -> assigned - requiredUnits(d))
                 .asConstraint("Attendance: overstaff light penalty");
     }
 
+    // ---- 需要スロットごとの出勤人数（headcountBalance / overstaffLightPenalty で共有） ----
+    // ストリーム定義に同一の関数インスタンスを使うことで、結合・集計ノードが両制約で共有される。
+    private static final Predicate<DailyPatternAssignmentEntity> IS_ASSIGNED =
+            e -> e.getAssignedEmployee() != null && e.getDayIndex() != TimeKeys.NONE;
+    private static final BiJoiner<RegisterDemandSlot, DailyPatternAssignmentEntity> SAME_STORE =
+            Joiners.equal(RegisterDemandSlot::getStoreCode, DailyPatternAssignmentEntity::getStoreCode);
+    private static final BiJoiner<RegisterDemandSlot, DailyPatternAssignmentEntity> SAME_DAY =
+            Joiners.equal(RegisterDemandSlot::getDayIndex, DailyPatternAssignmentEntity::getDayIndex);
+    // スロット開始がパターンの [start, end) に含まれる
+    private static final BiJoiner<RegisterDemandSlot, DailyPatternAssignmentEntity> SLOT_NOT_BEFORE_START =
+            Joiners.greaterThanOrEqual(RegisterDemandSlot::getSlotIndex, DailyPatternAssignmentEntity::getStartMinute);
+    private static final BiJoiner<RegisterDemandSlot, DailyPatternAssignmentEntity> SLOT_BEFORE_END =
+            Joiners.lessThan(RegisterDemandSlot::getSlotIndex, DailyPatternAssignmentEntity::getEndMinute);
+    private static final BiFunction<RegisterDemandSlot, DailyPatternAssignmentEntity, RegisterDemandSlot> SLOT_OF =
+            (d, e) -> d;
+    private static final BiConstraintCollector<RegisterDemandSlot, DailyPatternAssignmentEntity, ?, Integer> HEADCOUNT =
+            ConstraintCollectors.countBi();
+
     /**
-     * 指定スロット時刻がパターンの時間帯に含まれるかを判定する。
-     *
-     * @param e パターン割当
-     * @param slot 需要スロット開始時刻
-     * @return パターン内なら true
+     * 需要スロットと出勤パターンを店舗・日・時間区間の索引で結合し、スロットごとの出勤人数を数える。
+     * パターン変更時は当該パターンの時間帯に含まれるスロットだけが再集計される。
+     * 出勤者がいないスロットは結果に現れない。
      */
-    private static boolean timeWithin(DailyPatternAssignmentEntity e, LocalTime slot) {
-        return (slot.equals(e.getPatternStart()) || slot.isAfter(e.getPatternStart()))
-                && slot.isBefore(e.getPatternEnd());
+    private static BiConstraintStream<RegisterDemandSlot, Integer> slotHeadcount(ConstraintFactory f) {
+        return f.forEach(RegisterDemandSlot.class)
+                .join(f.forEach(DailyPatternAssignmentEntity.class).filter(IS_ASSIGNED),
+                        SAME_STORE, SAME_DAY, SLOT_NOT_BEFORE_START, SLOT_BEFORE_END)
+                .groupBy(SLOT_OF, HEADCOUNT);
+    }
+
+    private static int requiredUnits(RegisterDemandSlot d) {
+        return d.getRequiredUnits() == null ? 0 : Math.max(0, d.getRequiredUnits());
     }
 
     private TriConstraintStream<AttendanceGroupInfo, LocalDate, java.util.Set<String>> onDutyMembersByConstraintAndDate(ConstraintFactory f) {
@@ -529,40 +542,24 @@ public class AttendanceConstraintProvider implements ConstraintProvider {
     }
 
     /**
-     * 7日連続出勤をハード制約として禁止する。
+     * 従業員ごとの連続勤務日数の上限（{@link ConsecutiveWorkLimit}）を超える連勤をハード制約として禁止する。
+     * 従業員単位で出勤日の連続区間を集計し、上限を超えた日数分だけ罰則を課す。
+     * ConstraintVerifier で単体検証するためパッケージ内に公開する。
      *
      * @param f 制約ファクトリ
-     * @return 7連勤のハード制約
+     * @return 連勤上限のハード制約
      */
-    private Constraint consecutiveSevenDaysHard(ConstraintFactory f) {
+    Constraint consecutiveWorkDaysHard(ConstraintFactory f) {
         return f.forEach(DailyPatternAssignmentEntity.class)
-                .filter(a -> a.getAssignedEmployee() != null)
-                // d-1
-                .ifExists(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(a -> a.getAssignedEmployee().getEmployeeCode(), b -> b.getAssignedEmployee() != null ? b.getAssignedEmployee().getEmployeeCode() : null),
-                        Joiners.filtering((a, b) -> b.getAssignedEmployee() != null && b.getDate().equals(a.getDate().minusDays(1))))
-                // d-2
-                .ifExists(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(a -> a.getAssignedEmployee().getEmployeeCode(), b -> b.getAssignedEmployee() != null ? b.getAssignedEmployee().getEmployeeCode() : null),
-                        Joiners.filtering((a, b) -> b.getAssignedEmployee() != null && b.getDate().equals(a.getDate().minusDays(2))))
-                // d-3
-                .ifExists(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(a -> a.getAssignedEmployee().getEmployeeCode(), b -> b.getAssignedEmployee() != null ? b.getAssignedEmployee().getEmployeeCode() : null),
-                        Joiners.filtering((a, b) -> b.getAssignedEmployee() != null && b.getDate().equals(a.getDate().minusDays(3))))
-                // d-4
-                .ifExists(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(a -> a.getAssignedEmployee().getEmployeeCode(), b -> b.getAssignedEmployee() != null ? b.getAssignedEmployee().getEmployeeCode() : null),
-                        Joiners.filtering((a, b) -> b.getAssignedEmployee() != null && b.getDate().equals(a.getDate().minusDays(4))))
-                // d-5
-                .ifExists(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(a -> a.getAssignedEmployee().getEmployeeCode(), b -> b.getAssignedEmployee() != null ? b.getAssignedEmployee().getEmployeeCode() : null),
-                        Joiners.filtering((a, b) -> b.getAssignedEmployee() != null && b.getDate().equals(a.getDate().minusDays(5))))
-                // d-6
-                .ifExists(DailyPatternAssignmentEntity.class,
-                        Joiners.equal(a -> a.getAssignedEmployee().getEmployeeCode(), b -> b.getAssignedEmployee() != null ? b.getAssignedEmployee().getEmployeeCode() : null),
-                        Joiners.filtering((a, b) -> b.getAssignedEmployee() != null && b.getDate().equals(a.getDate().minusDays(6))))
-                .penalize(HardSoftScore.ONE_HARD)
-                .asConstraint("Attendance: 7 consecutive days hard");
+                .filter(e -> e.getAssignedEmployee() != null && e.getDayIndex() != TimeKeys.NONE)
+                .groupBy(e -> e.getAssignedEmployee().getEmployeeCode(),
+                        ConsecutiveDays.collector(DailyPatternAssignmentEntity::getDayIndex))
+                .join(ConsecutiveWorkLimit.class,
+                        Joiners.equal((emp, runs) -> emp, ConsecutiveWorkLimit::getEmployeeCode))
+                .filter((emp, runs, limit) -> runs.longestRun() > limit.getMaxConsecutiveDays())
+                .penalize(HardSoftScore.ONE_HARD,
+                        (emp, runs, limit) -> runs.excessOver(limit.getMaxConsecutiveDays()))
+                .asConstraint("Attendance: consecutive work days hard");
     }
 
     /**
@@ -0,0 +1,159 @@
+package io.github.riemr.shift.optimization.constraint;
+
+import org.optaplanner.core.api.score.stream.uni.UniConstraintCollector;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 日インデックス（エポック日）の連続区間（連勤）を集計する制約コレクタの結果。
+ * 同一日に複数の割当があっても 1 日として数える。
+ * 連続区間の長さごとの件数（昇順）を保持する不変オブジェクト。
+ */
+final class ConsecutiveDays {
+
+    private final int[] lengths;
+    private final int[] counts;
+
+    private ConsecutiveDays(int[] lengths, int[] counts) {
+        this.lengths = lengths;
+        this.counts = counts;
+    }
+
+    /**
+     * 日インデックスを集計し、連続区間の長さ一覧を返すコレクタ。
+     * 追加/削除のたびに前後の区間との結合・分割だけを行い（O(log n)）、
+     * 結果取得時は区間長ごとの件数を写すだけで全日を走査しない。
+     */
+    static <A> UniConstraintCollector<A, Runs, ConsecutiveDays> collector(ToIntFunction<A> dayIndex) {
+        return new UniConstraintCollector<>() {
+            @Override
+            public Supplier<Runs> supplier() {
+                return Runs::new;
+            }
+
+            @Override
+            public BiFunction<Runs, A, Runnable> accumulator() {
+                return (runs, a) -> {
+                    int day = dayIndex.applyAsInt(a);
+                    runs.add(day);
+                    return () -> runs.remove(day);
+                };
+            }
+
+            @Override
+            public Function<Runs, ConsecutiveDays> finisher() {
+                return Runs::snapshot;
+            }
+        };
+    }
+
+    /** コレクタの内部状態。日ごとの件数・連続区間（開始日→終了日）・区間長ごとの件数を増分更新する */
+    static final class Runs {
+
+        private final TreeMap<Integer, Integer> dayCounts = new TreeMap<>();
+        private final TreeMap<Integer, Integer> runs = new TreeMap<>();
+        private final TreeMap<Integer, Integer> lengthCounts = new TreeMap<>();
+
+        void add(int day) {
+            if (dayCounts.merge(day, 1, Integer::sum) > 1) return;
+            int start = day;
+            int end = day;
+            Map.Entry<Integer, Integer> before = runs.lowerEntry(day);
+            if (before != null && before.getValue() == day - 1) {
+                start = before.getKey();
+                removeLength(before.getValue() - start + 1);
+            }
+            Integer afterEnd = runs.remove(day + 1);
+            if (afterEnd != null) {
+                end = afterEnd;
+                removeLength(afterEnd - day);
+            }
+            runs.put(start, end);
+            addLength(end - start + 1);
+        }
+
+        void remove(int day) {
+            Integer cnt = dayCounts.get(day);
+            if (cnt == null) return;
+            if (cnt > 1) {
+                dayCounts.put(day, cnt - 1);
+                return;
+            }
+            dayCounts.remove(day);
+            Map.Entry<Integer, Integer> run = runs.floorEntry(day);
+            int start = run.getKey();
+            int end = run.getValue();
+            runs.remove(start);
+            removeLength(end - start + 1);
+            if (start < day) {
+                runs.put(start, day - 1);
+                addLength(day - start);
+            }
+            if (day < end) {
+                runs.put(day + 1, end);
+                addLength(end - day);
+            }
+        }
+
+        private void addLength(int len) {
+            lengthCounts.merge(len, 1, Integer::sum);
+        }
+
+        private void removeLength(int len) {
+            lengthCounts.computeIfPresent(len, (k, c) -> c > 1 ? c - 1 : null);
+        }
+
+        ConsecutiveDays snapshot() {
+            int[] lengths = new int[lengthCounts.size()];
+            int[] counts = new int[lengths.length];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> e : lengthCounts.entrySet()) {
+                lengths[i] = e.getKey();
+                counts[i++] = e.getValue();
+            }
+            return new ConsecutiveDays(lengths, counts);
+        }
+    }
+
+    /** 最長の連続日数 */
+    int longestRun() {
+        return lengths.length == 0 ? 0 : lengths[lengths.length - 1];
+    }
+
+    /** 上限 limit を超えた日数の合計（各連続区間の超過分の和） */
+    int excessOver(int limit) {
+        int excess = 0;
+        for (int i = lengths.length - 1; i >= 0 && lengths[i] > limit; i--) {
+            excess += (lengths[i] - limit) * counts[i];
+        }
+        return excess;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ConsecutiveDays other)) return false;
+        return Arrays.equals(lengths, other.lengths) && Arrays.equals(counts, other.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(lengths) + Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ConsecutiveDays{");
+        for (int i = 0; i < lengths.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(lengths[i]).append('x').append(counts[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -5,6 +5,7 @@ import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeDepartmen
 import io.github.riemr.shift.infrastructure.persistence.entity.ShiftAssignment;
 import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
 import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.TimeKeys;
 import io.github.riemr.shift.optimization.entity.WorkDemandSlot;
 import io.github.riemr.shift.optimization.entity.WorkKind;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
@@ -13,9 +14,9 @@ import org.optaplanner.core.api.score.stream.ConstraintCollectors;
 import org.optaplanner.core.api.score.stream.ConstraintFactory;
 import org.optaplanner.core.api.score.stream.ConstraintProvider;
 import org.optaplanner.core.api.score.stream.Joiners;
+import org.optaplanner.core.api.score.stream.uni.UniConstraintStream;
 
 import java.util.Comparator;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -25,9 +26,15 @@ import java.util.List;
  * 制約の種類：
  * - ハード制約: 労働基準法、スキル要件、希望休日など（絶対に満たす必要がある条件）
  * - ソフト制約: 需要充足、負荷分散、効率性など（できるだけ満たしたい条件）
+ *
+ * 本プロバイダは ASSIGNMENT ステージ専用。ステージ外のエンティティは問題ロード時
+ * （ShiftScheduleService.loadProblem）に除外されるため、各制約ではステージを判定しない。
  */
 public class ShiftScheduleConstraintProvider implements ConstraintProvider {
 
+    private static final Comparator<ShiftAssignmentPlanningEntity> BY_START_MINUTE =
+            Comparator.comparingInt(ShiftAssignmentPlanningEntity::getStartMinute);
+
     /**
      * 全制約の定義メソッド
      * OptaPlannerが最適化時に評価する制約の配列を返す
@@ -74,43 +81,39 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
         return f.forEach(ShiftAssignmentPlanningEntity.class)
                 .filter(sa -> sa.getAssignedEmployee() != null)
                 .groupBy(ShiftAssignmentPlanningEntity::getAssignedEmployee,
-                        ShiftAssignmentPlanningEntity::getShiftDate,
+                        ShiftAssignmentPlanningEntity::getDayIndex,
                         ConstraintCollectors.toList())
                 .join(ShiftAssignment.class,
-                        Joiners.equal((emp, date, list) -> emp.getEmployeeCode(), ShiftAssignment::getEmployeeCode),
-                        Joiners.equal((emp, date, list) -> date,
-                                shift -> shift.getStartAt().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate()))
-                .filter((emp, date, assignments, shift) -> {
+                        Joiners.equal((emp, day, list) -> emp.getEmployeeCode(), ShiftAssignment::getEmployeeCode),
+                        Joiners.equal((emp, day, list) -> day, shift -> TimeKeys.dayIndex(shift.getStartAt())))
+                .filter((emp, day, assignments, shift) -> {
                     if (shift.getStartAt() == null || shift.getEndAt() == null) return false;
-                    long shiftMinutes = (shift.getEndAt().getTime() - shift.getStartAt().getTime()) / (1000 * 60);
-                    if (shiftMinutes < 360) return false; // 6時間未満は要求しない
-                    return !hasGapWithinWindow(assignments, shift.getStartAt(), shift.getEndAt(), 120, 60);
+                    int shiftStart = TimeKeys.epochMinute(shift.getStartAt());
+                    int shiftEnd = TimeKeys.epochMinute(shift.getEndAt());
+                    if (shiftEnd - shiftStart < 360) return false; // 6時間未満は要求しない
+                    return !hasGapWithinWindow(assignments, shiftStart, shiftEnd, 120, 60);
                 })
                 .penalize(HardSoftScore.ONE_HARD)
                 .asConstraint("Missing 60min break within 2h buffer when daily work >= 6h");
     }
 
     private static boolean hasGapWithinWindow(List<ShiftAssignmentPlanningEntity> assignments,
-                                              Date shiftStart,
-                                              Date shiftEnd,
+                                              int shiftStart,
+                                              int shiftEnd,
                                               int bufferMinutes,
                                               int gapMinutes) {
         if (assignments == null || assignments.size() <= 1) return false;
-        if (shiftStart == null || shiftEnd == null) return false;
-        long bufferMs = bufferMinutes * 60_000L;
-        Date minStart = new Date(shiftStart.getTime() + bufferMs);
-        Date maxEnd = new Date(shiftEnd.getTime() - bufferMs);
-        if (!minStart.before(maxEnd)) return false;
-        assignments.sort(Comparator.comparing(ShiftAssignmentPlanningEntity::getStartAt));
-        long gapMs = gapMinutes * 60_000L;
+        int minStart = shiftStart + bufferMinutes;
+        int maxEnd = shiftEnd - bufferMinutes;
+        if (minStart >= maxEnd) return false;
+        assignments.sort(BY_START_MINUTE);
         for (int i = 1; i < assignments.size(); i++) {
-            Date prevEnd = assignments.get(i - 1).getEndAt();
-            Date curStart = assignments.get(i).getStartAt();
-            if (prevEnd == null || curStart == null) continue;
-            if (curStart.getTime() - prevEnd.getTime() < gapMs) continue;
-            Date breakStart = prevEnd;
-            Date breakEnd = new Date(prevEnd.getTime() + gapMs);
-            if (!breakStart.before(minStart) && !breakEnd.after(maxEnd)) {
+            int prevEnd = assignments.get(i - 1).getEndMinute();
+            int curStart = assignments.get(i).getStartMinute();
+            if (prevEnd == TimeKeys.NONE || curStart == TimeKeys.NONE) continue;
+            if (curStart - prevEnd < gapMinutes) continue;
+            int breakEnd = prevEnd + gapMinutes;
+            if (prevEnd >= minStart && breakEnd <= maxEnd) {
                 return true;
             }
         }
@@ -128,8 +131,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
 
     private Constraint forbidDepartmentLowSkillForAssignment(ConstraintFactory f) {
         return f.forEach(ShiftAssignmentPlanningEntity.class)
-                .filter(sa -> sa.getAssignedEmployee() != null && sa.getWorkKind() == WorkKind.DEPARTMENT_TASK
-                        && (sa.getStage() == null || sa.getStage().startsWith("ASSIGNMENT")))
+                .filter(sa -> sa.getAssignedEmployee() != null && sa.getWorkKind() == WorkKind.DEPARTMENT_TASK)
                 .join(EmployeeDepartmentSkill.class,
                         Joiners.equal(sa -> sa.getAssignedEmployee().getEmployeeCode(), EmployeeDepartmentSkill::getEmployeeCode),
                         Joiners.equal(ShiftAssignmentPlanningEntity::getDepartmentCode, EmployeeDepartmentSkill::getDepartmentCode))
@@ -147,40 +149,42 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
      * @return 従業員重複配置禁止制約
      */
     private Constraint employeeNotDoubleBooked(ConstraintFactory f) {
-        return f.forEachUniquePair(ShiftAssignmentPlanningEntity.class,
-                Joiners.equal(ShiftAssignmentPlanningEntity::getShiftDate))
-                .filter((a, b) -> a.getAssignedEmployee() != null && b.getAssignedEmployee() != null)
-                .filter((a, b) -> a.getAssignedEmployee().getEmployeeCode().equals(b.getAssignedEmployee().getEmployeeCode()))
-                .filter((a, b) -> overlaps(a, b))
+        // 未割当を結合前に除外し、従業員+日で索引結合したうえで区間の重なりを int 分で比較する
+        return assignedEntities(f)
+                .join(assignedEntities(f),
+                        Joiners.equal(sa -> sa.getAssignedEmployee().getEmployeeCode()),
+                        Joiners.equal(ShiftAssignmentPlanningEntity::getDayIndex),
+                        Joiners.lessThan(ShiftAssignmentPlanningEntity::getShiftId),
+                        // [start, end) の重なり。境界が接している場合（9:00-9:15と9:15-9:30）は重複しない
+                        Joiners.overlapping(ShiftAssignmentPlanningEntity::getStartMinute,
+                                ShiftAssignmentPlanningEntity::getEndMinute))
+                .filter((a, b) -> hasTimeKeys(a) && hasTimeKeys(b))
                 .penalize(HardSoftScore.ONE_HARD)
                 .asConstraint("Employee overlapping assignments");
     }
 
+    private static UniConstraintStream<ShiftAssignmentPlanningEntity> assignedEntities(ConstraintFactory f) {
+        return f.forEach(ShiftAssignmentPlanningEntity.class)
+                .filter(sa -> sa.getAssignedEmployee() != null);
+    }
+
     /**
      * 同一従業員・同一スロットで複数のレジ割当が発生することを禁止する（ハード制約）。
      */
     private Constraint forbidMultipleRegistersSameSlot(ConstraintFactory f) {
         return f.forEach(ShiftAssignmentPlanningEntity.class)
                 .filter(sa -> sa.getAssignedEmployee() != null
-                        && sa.getWorkKind() == WorkKind.REGISTER_OP
-                        && (sa.getStage() == null || sa.getStage().startsWith("ASSIGNMENT")))
+                        && sa.getWorkKind() == WorkKind.REGISTER_OP)
                 .groupBy(sa -> sa.getAssignedEmployee().getEmployeeCode(),
-                        ShiftAssignmentPlanningEntity::getShiftDate,
-                        ShiftAssignmentPlanningEntity::getStartAt,
+                        ShiftAssignmentPlanningEntity::getStartMinute,
                         ConstraintCollectors.count())
-                .filter((emp, date, startAt, cnt) -> cnt != null && cnt > 1)
-                .penalize(HardSoftScore.ONE_HARD, (emp, date, startAt, cnt) -> cnt - 1)
+                .filter((emp, startMinute, cnt) -> cnt != null && cnt > 1)
+                .penalize(HardSoftScore.ONE_HARD, (emp, startMinute, cnt) -> cnt - 1)
                 .asConstraint("Forbid multiple registers in same slot");
     }
 
-    private static boolean overlaps(ShiftAssignmentPlanningEntity a, ShiftAssignmentPlanningEntity b) {
-        if (a.getStartAt() == null || a.getEndAt() == null || b.getStartAt() == null || b.getEndAt() == null) {
-            return false;
-        }
-        // 境界が接している場合は重複ではない（9:00-9:15と9:15-9:30は重複しない）
-        // 真の重複は時間が内部的に交わる場合のみ
-        return a.getStartAt().before(b.getEndAt()) && b.getStartAt().before(a.getEndAt()) 
-            && !a.getEndAt().equals(b.getStartAt()) && !b.getEndAt().equals(a.getStartAt());
+    private static boolean hasTimeKeys(ShiftAssignmentPlanningEntity sa) {
+        return sa.getStartMinute() != TimeKeys.NONE && sa.getEndMinute() != TimeKeys.NONE;
     }
 
     /**
@@ -193,8 +197,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
      */
     private Constraint preferDepartmentHigherSkillForAssignment(ConstraintFactory f) {
         return f.forEach(ShiftAssignmentPlanningEntity.class)
-                .filter(sa -> sa.getAssignedEmployee() != null && sa.getWorkKind() == WorkKind.DEPARTMENT_TASK
-                        && (sa.getStage() == null || sa.getStage().startsWith("ASSIGNMENT")))
+                .filter(sa -> sa.getAssignedEmployee() != null && sa.getWorkKind() == WorkKind.DEPARTMENT_TASK)
                 .join(EmployeeDepartmentSkill.class,
                         Joiners.equal(sa -> sa.getAssignedEmployee().getEmployeeCode(), EmployeeDepartmentSkill::getEmployeeCode),
                         Joiners.equal(ShiftAssignmentPlanningEntity::getDepartmentCode, EmployeeDepartmentSkill::getDepartmentCode))
@@ -217,16 +220,12 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
      */
     private Constraint registerDemandBalanceForAssignment(ConstraintFactory f) {
         return f.forEach(RegisterDemandSlot.class)
-                .join(ShiftAssignmentPlanningEntity.class,
-                        Joiners.equal(RegisterDemandSlot::getDemandDate, ShiftAssignmentPlanningEntity::getShiftDate),
+                .join(f.forEach(ShiftAssignmentPlanningEntity.class)
+                                .filter(sa -> sa.getAssignedEmployee() != null && sa.getWorkKind() == WorkKind.REGISTER_OP),
+                        Joiners.equal(RegisterDemandSlot::getDayIndex, ShiftAssignmentPlanningEntity::getDayIndex),
+                        Joiners.equal(RegisterDemandSlot::getSlotIndex, ShiftAssignmentPlanningEntity::getSlotIndex),
                         Joiners.equal(RegisterDemandSlot::getStoreCode, ShiftAssignmentPlanningEntity::getStoreCode),
-                        Joiners.equal(RegisterDemandSlot::getSlotTime,
-                                sa -> sa.getStartAt().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalTime()),
-                        Joiners.equal(RegisterDemandSlot::getRegisterNo, ShiftAssignmentPlanningEntity::getRegisterNo),
-                        Joiners.filtering((demand, sa) -> sa.getAssignedEmployee() != null
-                                && sa.getWorkKind() == WorkKind.REGISTER_OP
-                                && (sa.getStage() == null || sa.getStage().startsWith("ASSIGNMENT"))
-                        ))
+                        Joiners.equal(RegisterDemandSlot::getRegisterNo, ShiftAssignmentPlanningEntity::getRegisterNo))
                 .groupBy((demand, sa) -> demand, ConstraintCollectors.countBi())
                 // レジ需要を優先（不足: ×20、過多: ×1、基底重み 200）
                 .penalize(HardSoftScore.ofSoft(200),
@@ -248,15 +247,12 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
     private Constraint registerDemandShortageWhenNoneForAssignment(ConstraintFactory f) {
         return f.forEach(RegisterDemandSlot.class)
                 .ifNotExists(ShiftAssignmentPlanningEntity.class,
-                        Joiners.equal(RegisterDemandSlot::getDemandDate, ShiftAssignmentPlanningEntity::getShiftDate),
+                        Joiners.equal(RegisterDemandSlot::getDayIndex, ShiftAssignmentPlanningEntity::getDayIndex),
+                        Joiners.equal(RegisterDemandSlot::getSlotIndex, ShiftAssignmentPlanningEntity::getSlotIndex),
                         Joiners.equal(RegisterDemandSlot::getStoreCode, ShiftAssignmentPlanningEntity::getStoreCode),
-                        Joiners.equal(RegisterDemandSlot::getSlotTime,
-                                sa -> sa.getStartAt().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalTime()),
                         Joiners.equal(RegisterDemandSlot::getRegisterNo, ShiftAssignmentPlanningEntity::getRegisterNo),
                         Joiners.filtering((demand, sa) -> sa.getAssignedEmployee() != null
-                                && sa.getWorkKind() == WorkKind.REGISTER_OP
-                                && (sa.getStage() == null || sa.getStage().startsWith("ASSIGNMENT"))
-                        ))
+                                && sa.getWorkKind() == WorkKind.REGISTER_OP))
                 // 無配置（完全未割当）の場合はさらに強いペナルティ
                 .penalize(HardSoftScore.ofSoft(400), d -> d.getRequiredUnits() == null ? 0 : Math.max(0, d.getRequiredUnits()))
                 .asConstraint("Register demand shortage (no assignment)");
@@ -272,15 +268,12 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
      */
     private Constraint workDemandBalanceForAssignment(ConstraintFactory f) {
         return f.forEach(WorkDemandSlot.class)
-                .join(ShiftAssignmentPlanningEntity.class,
-                        Joiners.equal(WorkDemandSlot::getDemandDate, ShiftAssignmentPlanningEntity::getShiftDate),
+                .join(f.forEach(ShiftAssignmentPlanningEntity.class)
+                                .filter(sa -> sa.getAssignedEmployee() != null && sa.getWorkKind() == WorkKind.DEPARTMENT_TASK),
+                        Joiners.equal(WorkDemandSlot::getDayIndex, ShiftAssignmentPlanningEntity::getDayIndex),
+                        Joiners.equal(WorkDemandSlot::getSlotIndex, ShiftAssignmentPlanningEntity::getSlotIndex),
                         Joiners.equal(WorkDemandSlot::getStoreCode, ShiftAssignmentPlanningEntity::getStoreCode),
-                        Joiners.filtering((d, sa) -> sa.getAssignedEmployee() != null
-                                && sa.getWorkKind() == WorkKind.DEPARTMENT_TASK
-                                && (sa.getStage() == null || sa.getStage().startsWith("ASSIGNMENT"))
-                                && d.getDepartmentCode().equals(sa.getDepartmentCode())
-                                && d.getSlotTime().equals(sa.getStartAt().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalTime())
-                        ))
+                        Joiners.equal(WorkDemandSlot::getDepartmentCode, ShiftAssignmentPlanningEntity::getDepartmentCode))
                 .groupBy((d, sa) -> d, ConstraintCollectors.countBi())
                 // 部門作業はレジより優先度を下げる（不足: ×5、過多: ×1、基底重み 10）
                 .penalize(HardSoftScore.ofSoft(10), (d, assigned) -> {
@@ -300,11 +293,11 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
     private Constraint workDemandShortageWhenNoneForAssignment(ConstraintFactory f) {
         return f.forEach(WorkDemandSlot.class)
                 .ifNotExists(ShiftAssignmentPlanningEntity.class,
-                        Joiners.equal(WorkDemandSlot::getDemandDate, ShiftAssignmentPlanningEntity::getShiftDate),
+                        Joiners.equal(WorkDemandSlot::getDayIndex, ShiftAssignmentPlanningEntity::getDayIndex),
+                        Joiners.equal(WorkDemandSlot::getSlotIndex, ShiftAssignmentPlanningEntity::getSlotIndex),
+                        Joiners.equal(WorkDemandSlot::getDepartmentCode, ShiftAssignmentPlanningEntity::getDepartmentCode),
                         Joiners.filtering((d, sa) -> sa.getAssignedEmployee() != null
                                 && sa.getWorkKind() == WorkKind.DEPARTMENT_TASK
-                                && d.getDepartmentCode().equals(sa.getDepartmentCode())
-                                && d.getSlotTime().equals(sa.getStartAt().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalTime())
                         ))
                 .penalize(HardSoftScore.ofSoft(50), d -> d.getRequiredUnits() == null ? 0 : Math.max(0, d.getRequiredUnits()))
                 .asConstraint("Work demand shortage (no assignment)");
@@ -323,12 +316,12 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
     }
 
     /**
-     * レジ技能の高い従業員を優先（ASSIGNMENT専用）。
+     * レジ技能の高い従業員を優先（ASSIGNMENT専用。月次・日次の両方で評価する）。
+     * ConstraintVerifier で単体検証するためパッケージ内に公開する。
      */
-    private Constraint preferHigherSkillLevelForAssignment(ConstraintFactory f) {
+    Constraint preferHigherSkillLevelForAssignment(ConstraintFactory f) {
         return f.forEach(ShiftAssignmentPlanningEntity.class)
-                .filter(sa -> sa.getAssignedEmployee() != null
-                        && (sa.getStage() == null || "ASSIGNMENT".equals(sa.getStage())))
+                .filter(sa -> sa.getAssignedEmployee() != null)
                 .join(EmployeeRegisterSkill.class,
                         Joiners.equal(sa -> sa.getAssignedEmployee().getEmployeeCode(), EmployeeRegisterSkill::getEmployeeCode),
                         Joiners.equal(ShiftAssignmentPlanningEntity::getRegisterNo, EmployeeRegisterSkill::getRegisterNo))
@@ -382,7 +375,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
                         && sa.getWorkKind() == io.github.riemr.shift.optimization.entity.WorkKind.REGISTER_OP
                         && sa.getRegisterNo() != null)
                 .groupBy(ShiftAssignmentPlanningEntity::getAssignedEmployee, 
-                         ShiftAssignmentPlanningEntity::getShiftDate,
+                         ShiftAssignmentPlanningEntity::getDayIndex,
                          ConstraintCollectors.toList())
                 .penalize(HardSoftScore.ofSoft(50),
                           (emp, date, assignments) -> countRegisterSwitches(assignments))
@@ -404,7 +397,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
                         && sa.getWorkKind() == io.github.riemr.shift.optimization.entity.WorkKind.REGISTER_OP
                         && sa.getRegisterNo() != null)
                 .groupBy(ShiftAssignmentPlanningEntity::getAssignedEmployee,
-                         ShiftAssignmentPlanningEntity::getShiftDate,
+                         ShiftAssignmentPlanningEntity::getDayIndex,
                          ConstraintCollectors.toList())
                 .penalize(HardSoftScore.ofSoft(50),
                         (emp, date, assignments) -> {
@@ -430,7 +423,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
                         && sa.getWorkKind() == WorkKind.DEPARTMENT_TASK
                         && sa.getDepartmentCode() != null)
                 .groupBy(ShiftAssignmentPlanningEntity::getAssignedEmployee,
-                         ShiftAssignmentPlanningEntity::getShiftDate,
+                         ShiftAssignmentPlanningEntity::getDayIndex,
                          ConstraintCollectors.toList())
                 .penalize(HardSoftScore.ofSoft(30),
                         (emp, date, assignments) -> {
@@ -451,7 +444,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
     private static int countRegisterSwitches(List<ShiftAssignmentPlanningEntity> assignments) {
         if (assignments.size() <= 1) return 0;
         
-        assignments.sort(Comparator.comparing(ShiftAssignmentPlanningEntity::getStartAt));
+        assignments.sort(BY_START_MINUTE);
         int switches = 0;
         
         for (int i = 1; i < assignments.size(); i++) {
@@ -462,7 +455,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
             Integer curReg = current.getRegisterNo();
             Integer prevReg = previous.getRegisterNo();
             if (curReg != null && prevReg != null &&
-                current.getStartAt().equals(previous.getEndAt()) && 
+                current.getStartMinute() == previous.getEndMinute() && 
                 !curReg.equals(prevReg)) {
                 switches++;
             }
@@ -481,7 +474,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
     private static int countConsistentRegisterBlocks(List<ShiftAssignmentPlanningEntity> assignments) {
         if (assignments.isEmpty()) return 0;
         
-        assignments.sort(Comparator.comparing(ShiftAssignmentPlanningEntity::getStartAt));
+        assignments.sort(BY_START_MINUTE);
         int blocks = 0;
         Integer currentRegister = null;
         boolean inBlock = false;
@@ -496,7 +489,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
                 ShiftAssignmentPlanningEntity previous = assignments.get(i - 1);
                 
                 // 連続するタイムスロットかつ同じレジの場合
-                if (current.getStartAt().equals(previous.getEndAt()) && 
+                if (current.getStartMinute() == previous.getEndMinute() && 
                     current.getRegisterNo().equals(currentRegister)) {
                     // 現在のブロックを継続
                     inBlock = true;
@@ -528,7 +521,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
     private static int countConsistentDepartmentBlocks(List<ShiftAssignmentPlanningEntity> assignments) {
         if (assignments.isEmpty()) return 0;
 
-        assignments.sort(Comparator.comparing(ShiftAssignmentPlanningEntity::getStartAt));
+        assignments.sort(BY_START_MINUTE);
         int blocks = 0;
         String currentDepartment = null;
         boolean inBlock = false;
@@ -541,7 +534,7 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
                 inBlock = true;
             } else {
                 ShiftAssignmentPlanningEntity previous = assignments.get(i - 1);
-                if (current.getStartAt().equals(previous.getEndAt())
+                if (current.getStartMinute() == previous.getEndMinute()
                         && current.getDepartmentCode().equals(currentDepartment)) {
                     inBlock = true;
                 } else {
@@ -567,26 +560,24 @@ public class ShiftScheduleConstraintProvider implements ConstraintProvider {
      */
     private Constraint forbidAssignmentNearShiftBoundaries(ConstraintFactory f) {
         return f.forEach(ShiftAssignmentPlanningEntity.class)
-                .filter(sa -> sa.getAssignedEmployee() != null
-                        && (sa.getStage() == null || sa.getStage().startsWith("ASSIGNMENT")))
+                .filter(sa -> sa.getAssignedEmployee() != null)
                 .join(ShiftAssignment.class,
                         Joiners.equal(sa -> sa.getAssignedEmployee().getEmployeeCode(), ShiftAssignment::getEmployeeCode),
-                        Joiners.equal(ShiftAssignmentPlanningEntity::getShiftDate,
-                                shift -> shift.getStartAt().toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate()))
+                        Joiners.equal(ShiftAssignmentPlanningEntity::getDayIndex,
+                                shift -> TimeKeys.dayIndex(shift.getStartAt())))
                 .filter((sa, shift) -> {
-                    if (sa.getStartAt() == null || sa.getEndAt() == null
+                    if (sa.getStartMinute() == TimeKeys.NONE || sa.getEndMinute() == TimeKeys.NONE
                             || shift.getStartAt() == null || shift.getEndAt() == null) {
                         return false;
                     }
-                    int slotMinutes = sa.getWorkMinutes();
+                    int slotMinutes = sa.getEndMinute() - sa.getStartMinute();
                     if (slotMinutes <= 0) return false;
-                    long slotMs = slotMinutes * 60_000L;
-                    Date minStart = new Date(shift.getStartAt().getTime() + slotMs);
-                    Date maxEnd = new Date(shift.getEndAt().getTime() - slotMs);
-                    if (!minStart.before(maxEnd)) {
+                    int minStart = TimeKeys.epochMinute(shift.getStartAt()) + slotMinutes;
+                    int maxEnd = TimeKeys.epochMinute(shift.getEndAt()) - slotMinutes;
+                    if (minStart >= maxEnd) {
                         return true;
                     }
-                    return sa.getStartAt().before(minStart) || sa.getEndAt().after(maxEnd);
+                    return sa.getStartMinute() < minStart || sa.getEndMinute() > maxEnd;
                 })
                 .penalize(HardSoftScore.ONE_HARD)
                 .asConstraint("Forbid assignment within 1-slot buffer at shift edges");
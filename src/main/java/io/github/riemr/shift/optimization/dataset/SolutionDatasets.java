@@ -0,0 +1,46 @@
+package io.github.riemr.shift.optimization.dataset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * ソルバー問題（ShiftSchedule / AttendanceSolution）をファイルへ保存・復元するヘルパー。
+ * Java 直列化を使うため、計画変数が参照する Employee などのオブジェクト同一性がそのまま保たれる。
+ * ベンチマーク用データセットの作成・読み込みに使う（クラス構造を変えた場合は作り直しが必要）。
+ */
+public final class SolutionDatasets {
+
+    /** データセットファイルの拡張子 */
+    public static final String FILE_EXTENSION = "ser";
+
+    private SolutionDatasets() {
+    }
+
+    public static void write(Serializable solution, Path file) {
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeObject(solution);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write dataset " + file, e);
+        }
+    }
+
+    public static <T> T read(Path file, Class<T> type) {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return type.cast(in.readObject());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read dataset " + file, e);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IllegalStateException("Dataset " + file + " is not a " + type.getSimpleName(), e);
+        }
+    }
+}
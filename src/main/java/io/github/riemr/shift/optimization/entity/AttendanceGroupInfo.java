@@ -1,9 +1,13 @@
 package io.github.riemr.shift.optimization.entity;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.Set;
 
-public class AttendanceGroupInfo {
+public class AttendanceGroupInfo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private final Long constraintId;
     private final String storeCode;
     private final String departmentCode;
@@ -8,8 +8,9 @@ import org.optaplanner.core.api.domain.lookup.PlanningId;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 
+import java.io.Serializable;
 import java.time.LocalDate;
-import java.util.Date;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Collections;
 
@@ -20,7 +21,9 @@ import java.util.Collections;
 @PlanningEntity
 @Getter
 @Setter
-public class BreakAssignment {
+public class BreakAssignment implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @PlanningId
     private String id; // employeeCode + ":" + date
@@ -29,14 +32,15 @@ public class BreakAssignment {
     private LocalDate date;
 
     // 候補の開始時刻リスト（分解能に合わせて事前計算）
-    private List<Date> candidateStarts = Collections.emptyList();
+    // マルチスレッド解探索でムーブをスレッド間で受け渡すため、値は不変型（LocalDateTime）で持つ
+    private List<LocalDateTime> candidateStarts = Collections.emptyList();
 
     @PlanningVariable(valueRangeProviderRefs = {"breakStartRange"})
-    private Date breakStartAt; // 60分休憩の開始
+    private LocalDateTime breakStartAt; // 60分休憩の開始
 
     public BreakAssignment() {}
 
-    public BreakAssignment(String id, Employee employee, LocalDate date, List<Date> candidateStarts) {
+    public BreakAssignment(String id, Employee employee, LocalDate date, List<LocalDateTime> candidateStarts) {
         this.id = id;
         this.employee = employee;
         this.date = date;
@@ -44,7 +48,7 @@ public class BreakAssignment {
     }
 
     @ValueRangeProvider(id = "breakStartRange")
-    public List<Date> getBreakStartRange() {
+    public List<LocalDateTime> getBreakStartRange() {
         return candidateStarts == null ? List.of() : candidateStarts;
     }
 }
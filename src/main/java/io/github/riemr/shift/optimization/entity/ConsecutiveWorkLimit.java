@@ -0,0 +1,33 @@
+package io.github.riemr.shift.optimization.entity;
+
+import java.io.Serializable;
+
+/**
+ * 従業員ごとの連続勤務日数の上限（ATTENDANCE の問題事実）。
+ * constraint_setting（MAX_CONSEC_DAYS）を従業員 > 店舗 > 全体の優先順で解決した値を保持する。
+ */
+public class ConsecutiveWorkLimit implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String employeeCode;
+    private final int maxConsecutiveDays;
+
+    public ConsecutiveWorkLimit(String employeeCode, int maxConsecutiveDays) {
+        this.employeeCode = employeeCode;
+        this.maxConsecutiveDays = maxConsecutiveDays;
+    }
+
+    public String getEmployeeCode() {
+        return employeeCode;
+    }
+
+    public int getMaxConsecutiveDays() {
+        return maxConsecutiveDays;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsecutiveWorkLimit{" + employeeCode + "=" + maxConsecutiveDays + "}";
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.riemr.shift.optimization.entity;
 
 import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -10,6 +11,7 @@ import org.optaplanner.core.api.domain.variable.PlanningVariable;
 import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.domain.entity.PlanningPin;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
@@ -23,7 +25,9 @@ import java.util.Collections;
 @Getter
 @Setter
 @ToString
-public class DailyPatternAssignmentEntity {
+public class DailyPatternAssignmentEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @PlanningId
     private String id; // date + "|" + patternStart + "|" + patternEnd + "|" + unitIndex
@@ -36,6 +40,16 @@ public class DailyPatternAssignmentEntity {
     private LocalTime patternEnd;
     private int unitIndex;
 
+    /** 対象日のエポック日（{@link TimeKeys#dayIndex(LocalDate)}）。date 設定時に算出 */
+    @Setter(AccessLevel.NONE)
+    private int dayIndex = TimeKeys.NONE;
+    /** パターン開始の当日内分（{@link TimeKeys#slotIndex(LocalTime)}）。patternStart 設定時に算出 */
+    @Setter(AccessLevel.NONE)
+    private int startMinute = TimeKeys.NONE;
+    /** パターン終了の当日内分。patternEnd 設定時に算出 */
+    @Setter(AccessLevel.NONE)
+    private int endMinute = TimeKeys.NONE;
+
     // 当該パターン窓に適合する従業員候補（事前計算）
     private List<Employee> candidateEmployees = Collections.emptyList();
 
@@ -63,9 +77,24 @@ public class DailyPatternAssignmentEntity {
         this.id = id;
         this.storeCode = storeCode;
         this.departmentCode = departmentCode;
+        setDate(date);
+        setPatternStart(patternStart);
+        setPatternEnd(patternEnd);
+        this.unitIndex = unitIndex;
+    }
+
+    public void setDate(LocalDate date) {
         this.date = date;
+        this.dayIndex = TimeKeys.dayIndex(date);
+    }
+
+    public void setPatternStart(LocalTime patternStart) {
         this.patternStart = patternStart;
+        this.startMinute = TimeKeys.slotIndex(patternStart);
+    }
+
+    public void setPatternEnd(LocalTime patternEnd) {
         this.patternEnd = patternEnd;
-        this.unitIndex = unitIndex;
+        this.endMinute = TimeKeys.slotIndex(patternEnd);
     }
 }
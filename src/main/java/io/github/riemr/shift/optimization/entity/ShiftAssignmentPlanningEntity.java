@@ -2,6 +2,7 @@ package io.github.riemr.shift.optimization.entity;
 
 import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
 import io.github.riemr.shift.infrastructure.persistence.entity.RegisterAssignment;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -10,6 +11,7 @@ import org.optaplanner.core.api.domain.lookup.PlanningId;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
@@ -20,7 +22,9 @@ import java.util.Collections;
 @Getter
 @Setter
 @ToString
-public class ShiftAssignmentPlanningEntity {
+public class ShiftAssignmentPlanningEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     @PlanningId
     private Long shiftId;
@@ -32,8 +36,8 @@ public class ShiftAssignmentPlanningEntity {
     private WorkKind workKind;     // REGISTER_OP or DEPARTMENT_TASK
     private String taskCode;       // used when workKind == DEPARTMENT_TASK
 
-    // Optimization stage hint: ATTENDANCE or ASSIGNMENT
-    private String stage;
+    // Optimization stage: ATTENDANCE or ASSIGNMENT
+    private SolveStage stage;
 
     @PlanningVariable(valueRangeProviderRefs = {"availableEmployees"}, nullable = false)
     private Employee assignedEmployee;
@@ -41,18 +45,44 @@ public class ShiftAssignmentPlanningEntity {
     // エンティティ毎に可用な従業員候補（ATTENDANCE/ASSIGNMENTでフィルタリング）
     private List<Employee> candidateEmployees = Collections.emptyList();
 
+    // 制約結合用の時間キー（origin 設定時に一度だけ算出。ムーブ評価中のタイムゾーン変換を避ける）
+    @Setter(AccessLevel.NONE)
+    private LocalDate shiftDate;
+    /** 勤務日のエポック日 */
+    @Setter(AccessLevel.NONE)
+    private int dayIndex = TimeKeys.NONE;
+    /** 開始時刻の当日内分（需要スロットの slotIndex と一致） */
+    @Setter(AccessLevel.NONE)
+    private int slotIndex = TimeKeys.NONE;
+    /** 開始/終了のエポック分 */
+    @Setter(AccessLevel.NONE)
+    private int startMinute = TimeKeys.NONE;
+    @Setter(AccessLevel.NONE)
+    private int endMinute = TimeKeys.NONE;
+
     public ShiftAssignmentPlanningEntity() {
     }
 
     public ShiftAssignmentPlanningEntity(RegisterAssignment origin) {
-        this.origin = origin;
         this.assignedEmployee = null;
         this.workKind = WorkKind.REGISTER_OP;
+        setOrigin(origin);
     }
 
-    public LocalDate getShiftDate() {
-        return origin.getStartAt() == null ? null :
-                origin.getStartAt().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    /**
+     * origin を設定し、時間キーを算出し直す。
+     * 時間キーは設定時点の startAt/endAt で固定されるため、以降に origin の時刻を
+     * 書き換えた場合（永続化時のブロック結合など）は制約評価には反映されない。
+     */
+    public void setOrigin(RegisterAssignment origin) {
+        this.origin = origin;
+        Date startAt = origin == null ? null : origin.getStartAt();
+        Date endAt = origin == null ? null : origin.getEndAt();
+        this.shiftDate = startAt == null ? null : startAt.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        this.dayIndex = TimeKeys.dayIndex(shiftDate);
+        this.slotIndex = TimeKeys.slotIndex(startAt);
+        this.startMinute = TimeKeys.epochMinute(startAt);
+        this.endMinute = TimeKeys.epochMinute(endAt);
     }
 
     public Integer getRegisterNo() {
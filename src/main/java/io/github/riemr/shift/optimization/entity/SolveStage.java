@@ -0,0 +1,25 @@
+package io.github.riemr.shift.optimization.entity;
+
+/**
+ * 最適化ステージ。
+ * ATTENDANCE: 出勤パターン（誰がいつ出勤するか）、ASSIGNMENT: 出勤者への作業（レジ/部門タスク）割当。
+ */
+public enum SolveStage {
+    ATTENDANCE,
+    ASSIGNMENT;
+
+    /**
+     * 文字列表現（設定値・画面パラメータ）から変換する。大文字小文字は区別しない。
+     * 旧形式の "ASSIGNMENT@yyyy-MM-dd" も受け付ける。未知の値は null。
+     */
+    public static SolveStage fromCode(String code) {
+        if (code == null || code.isBlank()) return null;
+        String normalized = code.trim().toUpperCase();
+        int at = normalized.indexOf('@');
+        if (at >= 0) normalized = normalized.substring(0, at);
+        for (SolveStage s : values()) {
+            if (s.name().equals(normalized)) return s;
+        }
+        return null;
+    }
+}
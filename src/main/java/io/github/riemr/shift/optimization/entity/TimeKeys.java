@@ -0,0 +1,52 @@
+package io.github.riemr.shift.optimization.entity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * 制約の結合キーに使うプリミティブな時間キーの算出ヘルパー。
+ * タイムゾーン変換はエンティティ/需要スロットの生成時に一度だけ行い、
+ * ムーブ評価中は int 比較のみで済むようにする。
+ *
+ * <ul>
+ *   <li>dayIndex: エポック日（{@link LocalDate#toEpochDay()}）</li>
+ *   <li>slotIndex: 当日 0:00 からの分（0〜1439）。分解能（10/15分）に依存しないスロットキー</li>
+ *   <li>epochMinute: エポックからの分（タイムゾーン非依存）</li>
+ * </ul>
+ */
+public final class TimeKeys {
+
+    /** キーを算出できない（日時が null）場合の値。実在の日/分とは一致しない。 */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private TimeKeys() {
+    }
+
+    public static int dayIndex(LocalDate date) {
+        return date == null ? NONE : (int) date.toEpochDay();
+    }
+
+    public static int dayIndex(Date date) {
+        return date == null ? NONE : dayIndex(toLocalDate(date));
+    }
+
+    public static int slotIndex(LocalTime time) {
+        return time == null ? NONE : time.getHour() * 60 + time.getMinute();
+    }
+
+    public static int slotIndex(Date date) {
+        return date == null ? NONE : slotIndex(date.toInstant().atZone(ZoneId.systemDefault()).toLocalTime());
+    }
+
+    public static int epochMinute(Date date) {
+        return date == null ? NONE : (int) Math.floorDiv(date.getTime(), 60_000L);
+    }
+
+    public static LocalDate toLocalDate(Date date) {
+        if (date == null) return null;
+        if (date instanceof java.sql.Date sqlDate) return sqlDate.toLocalDate();
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
@@ -1,8 +1,10 @@
 package io.github.riemr.shift.optimization.entity;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -10,12 +12,32 @@ import lombok.ToString;
 @Getter
 @Setter
 @ToString
-public class WorkDemandSlot {
+public class WorkDemandSlot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
     private String storeCode;
     private String departmentCode;
     private LocalDate demandDate;
     private LocalTime slotTime;
     private String taskCode;
     private Integer requiredUnits;
+
+    /** 需要日のエポック日（{@link TimeKeys#dayIndex(LocalDate)}）。demandDate 設定時に算出 */
+    @Setter(AccessLevel.NONE)
+    private int dayIndex = TimeKeys.NONE;
+    /** スロット開始の当日内分（{@link TimeKeys#slotIndex(LocalTime)}）。slotTime 設定時に算出 */
+    @Setter(AccessLevel.NONE)
+    private int slotIndex = TimeKeys.NONE;
+
+    public void setDemandDate(LocalDate demandDate) {
+        this.demandDate = demandDate;
+        this.dayIndex = TimeKeys.dayIndex(demandDate);
+    }
+
+    public void setSlotTime(LocalTime slotTime) {
+        this.slotTime = slotTime;
+        this.slotIndex = TimeKeys.slotIndex(slotTime);
+    }
 }
 
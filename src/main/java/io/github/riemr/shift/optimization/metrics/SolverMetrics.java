@@ -0,0 +1,138 @@
+package io.github.riemr.shift.optimization.metrics;
+
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * ソルバー周辺（問題ロード・候補準備・ソルブ・保存・ジョブ数）のメトリクス。
+ * <p>
+ * すべて store / stage タグ付きで、/actuator/prometheus から取得できる。
+ * 店舗未指定（全店）は store=all、ステージ不明は stage=NONE とする。
+ * スコア計算回数・ソルブ時間の合計は OptaPlanner 標準のメトリクス（optaplanner_solver_*、タグ solver_id）を併用する。
+ */
+@Component
+@RequiredArgsConstructor
+public class SolverMetrics {
+
+    /** ジョブ数ゲージの状態タグ */
+    public static final String JOBS_ACTIVE = "active";
+    public static final String JOBS_QUEUED = "queued";
+
+    /** ソルブのフェーズタグ（初期解: カスタム初期解＋CH で全エンティティが初期化されるまで / ローカルサーチ: それ以降） */
+    public static final String PHASE_INITIALIZATION = "initialization";
+    public static final String PHASE_LOCAL_SEARCH = "local_search";
+
+    private final MeterRegistry registry;
+    private final Set<String> jobGauges = ConcurrentHashMap.newKeySet();
+
+    /** 問題ロードのクエリ群 1 つ分を計測する */
+    public <T> T timeLoad(String storeCode, SolveStage stage, String query, Supplier<T> loader) {
+        return Timer.builder("shift.problem.load")
+                .description("Problem load time per query group")
+                .tags("store", store(storeCode), "stage", stage(stage), "query", query)
+                .register(registry)
+                .record(loader);
+    }
+
+    /** 候補従業員（パターン枠・スロット）の準備を計測する */
+    public <T> T timeCandidates(String storeCode, SolveStage stage, Supplier<T> preparation) {
+        return Timer.builder("shift.candidates.prepare")
+                .description("Candidate employee preparation time")
+                .tags("store", store(storeCode), "stage", stage(stage))
+                .register(registry)
+                .record(preparation);
+    }
+
+    public void timeCandidates(String storeCode, SolveStage stage, Runnable preparation) {
+        timeCandidates(storeCode, stage, () -> {
+            preparation.run();
+            return null;
+        });
+    }
+
+    public void recordPhase(String storeCode, SolveStage stage, String phase, Duration duration) {
+        Timer.builder("shift.solver.phase")
+                .description("Solve time per phase")
+                .tags("store", store(storeCode), "stage", stage(stage), "phase", phase)
+                .register(registry)
+                .record(duration);
+    }
+
+    public void recordSolve(String storeCode, SolveStage stage, Duration duration) {
+        Timer.builder("shift.solver.solve")
+                .description("Total solve time from start to final best solution")
+                .tags("store", store(storeCode), "stage", stage(stage))
+                .register(registry)
+                .record(duration);
+    }
+
+    /** ベストスコアが改善された回数（ハード・ソフトどちらの改善も 1 回） */
+    public void bestScoreImproved(String storeCode, SolveStage stage) {
+        Counter.builder("shift.solver.best.score.improvements")
+                .description("Number of best score improvements")
+                .tags("store", store(storeCode), "stage", stage(stage))
+                .register(registry)
+                .increment();
+    }
+
+    public <T> T timePersist(String storeCode, SolveStage stage, Supplier<T> persist) {
+        return Timer.builder("shift.persist")
+                .description("Time to persist the final best solution")
+                .tags("store", store(storeCode), "stage", stage(stage))
+                .register(registry)
+                .record(persist);
+    }
+
+    public void timePersist(String storeCode, SolveStage stage, Runnable persist) {
+        timePersist(storeCode, stage, () -> {
+            persist.run();
+            return null;
+        });
+    }
+
+    /** 保存で書き込んだ行数（table は shift_assignment / register_assignment / department_task_assignment など） */
+    public void recordPersistedRows(String storeCode, SolveStage stage, String table, long rows) {
+        if (rows <= 0) return;
+        Counter.builder("shift.persist.rows")
+                .description("Rows written when persisting solver results")
+                .tags("store", store(storeCode), "stage", stage(stage), "table", table)
+                .register(registry)
+                .increment(rows);
+    }
+
+    /**
+     * 店舗・ステージごとの実行中 / 待機中ジョブ数のゲージを登録する（同じ組み合わせは一度だけ）。
+     *
+     * @param countByState 状態タグ（{@link #JOBS_ACTIVE} / {@link #JOBS_QUEUED}）から、この店舗・ステージの件数を返す関数
+     */
+    public void registerJobGauges(String storeCode, SolveStage stage, ToLongFunction<String> countByState) {
+        String store = store(storeCode);
+        String stageTag = stage(stage);
+        if (!jobGauges.add(store + "|" + stageTag)) return;
+        for (String state : new String[]{JOBS_ACTIVE, JOBS_QUEUED}) {
+            Gauge.builder("shift.solver.jobs", () -> countByState.applyAsLong(state))
+                    .description("Number of solver jobs by state")
+                    .tags("store", store, "stage", stageTag, "state", state)
+                    .register(registry);
+        }
+    }
+
+    private static String store(String storeCode) {
+        return storeCode == null || storeCode.isBlank() ? "all" : storeCode;
+    }
+
+    private static String stage(SolveStage stage) {
+        return stage == null ? "NONE" : stage.name();
+    }
+}
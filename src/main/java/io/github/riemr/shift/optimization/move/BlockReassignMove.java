@@ -0,0 +1,114 @@
+package io.github.riemr.shift.optimization.move;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.move.AbstractMove;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 複数スロット（連続ブロック）の担当従業員を 1 ムーブでまとめて書き換える。
+ * ブロックの付け替え（全スロットを別従業員へ）と、時刻を揃えた 2 ブロックの入れ替えの両方を表す。
+ */
+public class BlockReassignMove extends AbstractMove<ShiftSchedule> {
+
+    private static final String VARIABLE = "assignedEmployee";
+
+    private final List<ShiftAssignmentPlanningEntity> entities;
+    private final List<Employee> toEmployees;
+
+    /**
+     * @param entities    対象スロット
+     * @param toEmployees entities と同じ並びの新しい担当従業員
+     */
+    public BlockReassignMove(List<ShiftAssignmentPlanningEntity> entities, List<Employee> toEmployees) {
+        if (entities.size() != toEmployees.size()) {
+            throw new IllegalArgumentException("entities and toEmployees must have the same size");
+        }
+        this.entities = entities;
+        this.toEmployees = toEmployees;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<ShiftSchedule> scoreDirector) {
+        if (entities.isEmpty()) return false;
+        for (int i = 0; i < entities.size(); i++) {
+            if (toEmployees.get(i) == null) return false;
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            if (!Objects.equals(entities.get(i).getAssignedEmployee(), toEmployees.get(i))) return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected BlockReassignMove createUndoMove(ScoreDirector<ShiftSchedule> scoreDirector) {
+        List<Employee> current = new ArrayList<>(entities.size());
+        for (var e : entities) {
+            current.add(e.getAssignedEmployee());
+        }
+        return new BlockReassignMove(entities, current);
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<ShiftSchedule> scoreDirector) {
+        for (int i = 0; i < entities.size(); i++) {
+            var e = entities.get(i);
+            scoreDirector.beforeVariableChanged(e, VARIABLE);
+            e.setAssignedEmployee(toEmployees.get(i));
+            scoreDirector.afterVariableChanged(e, VARIABLE);
+        }
+    }
+
+    @Override
+    public BlockReassignMove rebase(ScoreDirector<ShiftSchedule> destinationScoreDirector) {
+        return new BlockReassignMove(rebaseList(entities, destinationScoreDirector),
+                rebaseList(toEmployees, destinationScoreDirector));
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningEntities() {
+        return entities;
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningValues() {
+        return new LinkedHashSet<>(toEmployees);
+    }
+
+    @Override
+    public String getSimpleMoveTypeDescription() {
+        return "BlockReassignMove(" + ShiftAssignmentPlanningEntity.class.getSimpleName() + "." + VARIABLE + ")";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BlockReassignMove that = (BlockReassignMove) o;
+        return entities.equals(that.entities) && toEmployees.equals(that.toEmployees);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entities, toEmployees);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("BlockReassign{");
+        for (int i = 0; i < entities.size(); i++) {
+            if (i > 0) sb.append(", ");
+            var e = entities.get(i);
+            var to = toEmployees.get(i);
+            sb.append(e.getShiftId()).append(" -> ").append(to == null ? null : to.getEmployeeCode());
+        }
+        return sb.append('}').toString();
+    }
+}
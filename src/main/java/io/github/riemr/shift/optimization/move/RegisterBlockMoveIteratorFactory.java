@@ -0,0 +1,284 @@
+package io.github.riemr.shift.optimization.move;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.infrastructure.persistence.entity.Register;
+import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.TimeKeys;
+import io.github.riemr.shift.optimization.entity.WorkKind;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * 同一レジ・同一従業員の連続スロット（ブロック）を 1 ムーブで動かす ASSIGNMENT 用のムーブ生成器。
+ * <ul>
+ *   <li>付け替え: ブロック全体を、全スロットで候補に入っている別従業員へ割り当てる</li>
+ *   <li>入れ替え: 同日の別レジで同じ時刻帯を担当する従業員とブロックごと交換する</li>
+ * </ul>
+ * ブロック長はレジの max_allowance（時間、未設定は 1 時間）を上限とする。
+ * 単一スロットのムーブでは山を越えられないレジ切替・分断の解消を狙う。
+ * 順次選択では全レジ・全スロット起点のブロックについて適用可能なムーブを列挙する。
+ */
+public class RegisterBlockMoveIteratorFactory implements MoveIteratorFactory<ShiftSchedule, BlockReassignMove> {
+
+    private static final int DEFAULT_MAX_ALLOWANCE_MINUTES = 60;
+    // ランダム選択で適用できる候補を探す試行回数（見つからなければ hasNext=false）
+    private static final int MAX_ATTEMPTS = 100;
+
+    /** 日×レジごとの開始時刻順スロット列（フェーズ開始時に構築） */
+    private List<Lane> lanes = List.of();
+    private Map<Integer, List<Lane>> lanesByDay = Map.of();
+    private long size;
+
+    @Override
+    public void phaseStarted(ScoreDirector<ShiftSchedule> scoreDirector) {
+        ShiftSchedule solution = scoreDirector.getWorkingSolution();
+        Map<String, Integer> maxMinutesByStoreReg = new HashMap<>();
+        for (Register r : Optional.ofNullable(solution.getRegisterList()).orElse(List.of())) {
+            int minutes = r.getMaxAllowance() == null ? DEFAULT_MAX_ALLOWANCE_MINUTES : r.getMaxAllowance() * 60;
+            maxMinutesByStoreReg.put(r.getStoreCode() + "|" + r.getRegisterNo(), minutes);
+        }
+
+        Map<String, List<ShiftAssignmentPlanningEntity>> byLane = new HashMap<>();
+        for (var a : Optional.ofNullable(solution.getAssignmentList()).orElse(List.of())) {
+            if (a.getWorkKind() != WorkKind.REGISTER_OP || a.getRegisterNo() == null) continue;
+            if (a.getDayIndex() == TimeKeys.NONE || a.getStartMinute() == TimeKeys.NONE) continue;
+            byLane.computeIfAbsent(a.getDayIndex() + "|" + a.getStoreCode() + "|" + a.getRegisterNo(),
+                    k -> new ArrayList<>()).add(a);
+        }
+
+        List<Lane> built = new ArrayList<>();
+        Map<Integer, List<Lane>> byDay = new HashMap<>();
+        long count = 0;
+        for (var slots : byLane.values()) {
+            slots.sort(Comparator.comparingInt(ShiftAssignmentPlanningEntity::getStartMinute));
+            var first = slots.get(0);
+            int maxMinutes = Math.max(1, maxMinutesByStoreReg.getOrDefault(
+                    first.getStoreCode() + "|" + first.getRegisterNo(), DEFAULT_MAX_ALLOWANCE_MINUTES));
+            Lane lane = new Lane(first.getDayIndex(), slots, maxMinutes);
+            built.add(lane);
+            byDay.computeIfAbsent(lane.dayIndex, k -> new ArrayList<>()).add(lane);
+            count += slots.size();
+        }
+        this.lanes = built;
+        this.lanesByDay = byDay;
+        this.size = count;
+    }
+
+    @Override
+    public void phaseEnded(ScoreDirector<ShiftSchedule> scoreDirector) {
+        this.lanes = List.of();
+        this.lanesByDay = Map.of();
+        this.size = 0;
+    }
+
+    @Override
+    public long getSize(ScoreDirector<ShiftSchedule> scoreDirector) {
+        return size;
+    }
+
+    /**
+     * レジ・スロット起点の順に、各ブロックの付け替え（候補従業員順）と同日の別レジとの入れ替えを列挙する。
+     * ブロックは現在の割当から求めるため、起点ごとに取り出す時点で組み立てる。
+     */
+    @Override
+    public Iterator<BlockReassignMove> createOriginalMoveIterator(ScoreDirector<ShiftSchedule> scoreDirector) {
+        return new Iterator<>() {
+            private int laneIndex;
+            private int pos;
+            private final List<BlockReassignMove> pending = new ArrayList<>();
+            private int pendingIndex;
+
+            @Override
+            public boolean hasNext() {
+                while (pendingIndex >= pending.size()) {
+                    if (laneIndex >= lanes.size()) return false;
+                    pending.clear();
+                    pendingIndex = 0;
+                    Lane lane = lanes.get(laneIndex);
+                    List<ShiftAssignmentPlanningEntity> block = lane.blockAround(pos);
+                    for (Employee to : block.get(0).getAvailableEmployees()) {
+                        BlockReassignMove move = blockChange(block, to);
+                        if (move != null) pending.add(move);
+                    }
+                    for (Lane other : lanesByDay.getOrDefault(lane.dayIndex, List.of())) {
+                        if (other == lane) continue;
+                        BlockReassignMove move = blockSwap(block, other);
+                        if (move != null) pending.add(move);
+                    }
+                    if (++pos >= lane.slots.size()) {
+                        laneIndex++;
+                        pos = 0;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public BlockReassignMove next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return pending.get(pendingIndex++);
+            }
+        };
+    }
+
+    /**
+     * 付け替え・入れ替えを無作為に試し、適用可能なムーブを 1 件ずつ返す。
+     * MAX_ATTEMPTS 回続けて見つからなければ hasNext=false とし、そのステップでは以降選ばれない。
+     */
+    @Override
+    public Iterator<BlockReassignMove> createRandomMoveIterator(ScoreDirector<ShiftSchedule> scoreDirector, Random random) {
+        return new Iterator<>() {
+            private BlockReassignMove upcoming;
+
+            @Override
+            public boolean hasNext() {
+                if (upcoming != null) return true;
+                if (lanes.isEmpty()) return false;
+                for (int attempt = 0; attempt < MAX_ATTEMPTS && upcoming == null; attempt++) {
+                    upcoming = random.nextBoolean() ? randomBlockChange(random) : randomBlockSwap(random);
+                }
+                return upcoming != null;
+            }
+
+            @Override
+            public BlockReassignMove next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                BlockReassignMove move = upcoming;
+                upcoming = null;
+                return move;
+            }
+        };
+    }
+
+    private BlockReassignMove randomBlockChange(Random random) {
+        Lane lane = lanes.get(random.nextInt(lanes.size()));
+        List<ShiftAssignmentPlanningEntity> block = lane.blockAround(random.nextInt(lane.slots.size()));
+        List<Employee> candidates = block.get(0).getAvailableEmployees();
+        if (candidates.isEmpty()) return null;
+        return blockChange(block, candidates.get(random.nextInt(candidates.size())));
+    }
+
+    private BlockReassignMove randomBlockSwap(Random random) {
+        Lane lane = lanes.get(random.nextInt(lanes.size()));
+        List<Lane> sameDay = lanesByDay.getOrDefault(lane.dayIndex, List.of());
+        if (sameDay.size() < 2) return null;
+        Lane other = sameDay.get(random.nextInt(sameDay.size()));
+        if (other == lane) return null;
+        return blockSwap(lane.blockAround(random.nextInt(lane.slots.size())), other);
+    }
+
+    /** ブロック全体を to へ付け替える（現担当と同じ・全スロットの候補でない場合は null） */
+    private static BlockReassignMove blockChange(List<ShiftAssignmentPlanningEntity> block, Employee to) {
+        Employee current = block.get(0).getAssignedEmployee();
+        if (to == current || !eligibleForAll(to, block)) return null;
+        List<Employee> toEmployees = new ArrayList<>(block.size());
+        for (int i = 0; i < block.size(); i++) toEmployees.add(to);
+        return new BlockReassignMove(block, toEmployees);
+    }
+
+    /** ブロックと、other レジで同じ時刻帯を 1 人で担当しているスロット列を交換する（成立しなければ null） */
+    private static BlockReassignMove blockSwap(List<ShiftAssignmentPlanningEntity> block, Lane other) {
+        Employee left = block.get(0).getAssignedEmployee();
+        List<ShiftAssignmentPlanningEntity> counterpart = new ArrayList<>(block.size());
+        Employee right = null;
+        for (var a : block) {
+            var b = other.slotAt(a.getStartMinute());
+            if (b == null) return null;
+            if (right == null) right = b.getAssignedEmployee();
+            // 相手側も同じ時刻帯を 1 人で担当している場合のみ交換する
+            if (b.getAssignedEmployee() != right) return null;
+            counterpart.add(b);
+        }
+        if (right == null || right == left) return null;
+        if (!eligibleForAll(right, block) || !eligibleForAll(left, counterpart)) return null;
+
+        List<ShiftAssignmentPlanningEntity> entities = new ArrayList<>(block.size() * 2);
+        List<Employee> toEmployees = new ArrayList<>(block.size() * 2);
+        for (var a : block) {
+            entities.add(a);
+            toEmployees.add(right);
+        }
+        for (var b : counterpart) {
+            entities.add(b);
+            toEmployees.add(left);
+        }
+        return new BlockReassignMove(entities, toEmployees);
+    }
+
+    private static boolean eligibleForAll(Employee e, List<ShiftAssignmentPlanningEntity> slots) {
+        if (e == null) return false;
+        for (var s : slots) {
+            if (!s.getAvailableEmployees().contains(e)) return false;
+        }
+        return true;
+    }
+
+    /** 1 日 1 レジ分のスロット列 */
+    private static final class Lane {
+        final int dayIndex;
+        final List<ShiftAssignmentPlanningEntity> slots;
+        final int maxBlockMinutes;
+        final Map<Integer, ShiftAssignmentPlanningEntity> byStartMinute = new HashMap<>();
+
+        Lane(int dayIndex, List<ShiftAssignmentPlanningEntity> slots, int maxBlockMinutes) {
+            this.dayIndex = dayIndex;
+            this.slots = slots;
+            this.maxBlockMinutes = maxBlockMinutes;
+            for (var s : slots) byStartMinute.putIfAbsent(s.getStartMinute(), s);
+        }
+
+        ShiftAssignmentPlanningEntity slotAt(int startMinute) {
+            return byStartMinute.get(startMinute);
+        }
+
+        /**
+         * pos を含み、隙間なく連続し同じ従業員が担当するスロット列を前後に広げて返す。
+         * 合計分数が maxBlockMinutes を超えない範囲に限る（最低 1 スロット）。
+         */
+        List<ShiftAssignmentPlanningEntity> blockAround(int pos) {
+            var origin = slots.get(pos);
+            Employee emp = origin.getAssignedEmployee();
+            int minutes = minutesOf(origin);
+            int from = pos;
+            int to = pos;
+            boolean grown = true;
+            while (grown) {
+                grown = false;
+                if (to + 1 < slots.size()) {
+                    var next = slots.get(to + 1);
+                    if (next.getAssignedEmployee() == emp && next.getStartMinute() == slots.get(to).getEndMinute()
+                            && minutes + minutesOf(next) <= maxBlockMinutes) {
+                        minutes += minutesOf(next);
+                        to++;
+                        grown = true;
+                    }
+                }
+                if (from > 0) {
+                    var prev = slots.get(from - 1);
+                    if (prev.getAssignedEmployee() == emp && prev.getEndMinute() == slots.get(from).getStartMinute()
+                            && minutes + minutesOf(prev) <= maxBlockMinutes) {
+                        minutes += minutesOf(prev);
+                        from--;
+                        grown = true;
+                    }
+                }
+            }
+            return List.copyOf(slots.subList(from, to + 1));
+        }
+
+        private static int minutesOf(ShiftAssignmentPlanningEntity s) {
+            return Math.max(0, s.getEndMinute() - s.getStartMinute());
+        }
+    }
+}
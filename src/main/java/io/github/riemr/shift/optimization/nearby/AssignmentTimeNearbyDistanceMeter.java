@@ -1,24 +1,26 @@
 package io.github.riemr.shift.optimization.nearby;
 
 import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.TimeKeys;
 import io.github.riemr.shift.optimization.entity.WorkKind;
 import org.optaplanner.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
 
-import java.time.Duration;
-import java.time.LocalDate;
-
+/**
+ * ASSIGNMENT のスワップムーブ用の近傍距離。
+ * 同一日・同一レジ（または同一部門作業）で開始時刻が近いスロットほど近いとみなす。
+ * OptaPlannerConfig の日次 ASSIGNMENT 用近傍スワップ（shift.assignment.daily.nearby-swap.enabled）で使用する。
+ */
 public class AssignmentTimeNearbyDistanceMeter implements NearbyDistanceMeter<ShiftAssignmentPlanningEntity, ShiftAssignmentPlanningEntity> {
 
     @Override
     public double getNearbyDistance(ShiftAssignmentPlanningEntity origin, ShiftAssignmentPlanningEntity destination) {
-        if (origin == null || destination == null || origin.getStartAt() == null || destination.getStartAt() == null) {
+        if (origin == null || destination == null
+                || origin.getStartMinute() == TimeKeys.NONE || destination.getStartMinute() == TimeKeys.NONE) {
             return Double.MAX_VALUE;
         }
 
         // 同一日付のみを近傍とみなす
-        LocalDate oDate = origin.getShiftDate();
-        LocalDate dDate = destination.getShiftDate();
-        if (oDate == null || dDate == null || !oDate.equals(dDate)) {
+        if (origin.getDayIndex() == TimeKeys.NONE || origin.getDayIndex() != destination.getDayIndex()) {
             return Double.MAX_VALUE;
         }
 
@@ -32,9 +34,7 @@ public class AssignmentTimeNearbyDistanceMeter implements NearbyDistanceMeter<Sh
                 && safeEq(origin.getDepartmentCode(), destination.getDepartmentCode())
                 && safeEq(origin.getTaskCode(), destination.getTaskCode());
 
-        long minutes = Math.abs(Duration.between(
-                origin.getStartAt().toInstant(),
-                destination.getStartAt().toInstant()).toMinutes());
+        long minutes = Math.abs((long) origin.getStartMinute() - destination.getStartMinute());
 
         if (sameRegister || sameDeptTask) {
             return minutes; // 近いほど小さい
@@ -5,6 +5,7 @@ import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeDepartmen
 import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeRegisterSkill;
 import io.github.riemr.shift.infrastructure.persistence.entity.Register;
 import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.SolveStage;
 import io.github.riemr.shift.optimization.entity.WorkKind;
 import io.github.riemr.shift.optimization.solution.ShiftSchedule;
 import org.optaplanner.core.api.score.director.ScoreDirector;
@@ -36,7 +37,7 @@ public class AssignmentInitialSolutionBuilder implements CustomPhaseCommand<Shif
         }
         // ASSIGNMENT フェーズ以外では何もしない
         // stage は各エンティティに設定済み想定
-        boolean isAssignment = sol.getAssignmentList().stream().anyMatch(a -> "ASSIGNMENT".equals(a.getStage()));
+        boolean isAssignment = sol.getAssignmentList().stream().anyMatch(a -> a.getStage() == SolveStage.ASSIGNMENT);
         if (!isAssignment) {
             return;
         }
@@ -32,7 +32,14 @@ import java.util.stream.Collectors;
 public class AttendanceInitialSolutionBuilder implements CustomPhaseCommand<AttendanceSolution> {
     
     private static final Logger log = LoggerFactory.getLogger(AttendanceInitialSolutionBuilder.class);
-    private final Random random = new Random();
+    private Random random = new Random();
+
+    /**
+     * 再現モード用の乱数シード。CustomPhaseConfig の customProperties（randomSeed）から設定される。
+     */
+    public void setRandomSeed(long randomSeed) {
+        this.random = new Random(randomSeed);
+    }
     
     @Override
     public void changeWorkingSolution(ScoreDirector<AttendanceSolution> scoreDirector) {
@@ -0,0 +1,106 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.infrastructure.mapper.RegisterAssignmentMapper;
+import io.github.riemr.shift.infrastructure.mapper.ShiftAssignmentMapper;
+import io.github.riemr.shift.infrastructure.persistence.entity.RegisterAssignment;
+import io.github.riemr.shift.infrastructure.persistence.entity.ShiftAssignment;
+import io.github.riemr.shift.util.BulkWrites;
+import io.github.riemr.shift.util.RowDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * ソルバー結果（出勤 / レジ割当）を店舗×期間単位で書き戻す。
+ * <p>
+ * 既定（DELTA）では保存済みの行と突き合わせ、変化した行だけを INSERT / UPDATE / DELETE する。
+ * REPLACE は従来どおり期間を全削除してから全件 INSERT する（切り戻し用）。
+ * どちらも呼び出し側のトランザクション内で実行すること。
+ */
+@Component
+@Slf4j
+class AssignmentResultWriter {
+
+    enum Mode { DELTA, REPLACE }
+
+    private final ShiftAssignmentMapper shiftAssignmentMapper;
+    private final RegisterAssignmentMapper registerAssignmentMapper;
+    private final Mode mode;
+
+    /**
+     * @param persistMode 結果の保存方式（DELTA: 差分のみ反映 / REPLACE: 期間を削除して再挿入）。起動時に一度だけ解釈する
+     */
+    AssignmentResultWriter(ShiftAssignmentMapper shiftAssignmentMapper,
+                           RegisterAssignmentMapper registerAssignmentMapper,
+                           @Value("${shift.persist.mode:DELTA}") String persistMode) {
+        this.shiftAssignmentMapper = shiftAssignmentMapper;
+        this.registerAssignmentMapper = registerAssignmentMapper;
+        this.mode = parseMode(persistMode);
+    }
+
+    /**
+     * 店舗・期間 [from, to) の shift_assignment を rows の内容にする。
+     * 自然キーは（従業員, 開始時刻）で、終了時刻と作成者の違いは UPDATE で反映する。
+     */
+    RowDelta.Counts writeShiftAssignments(String storeCode, LocalDate from, LocalDate to, List<ShiftAssignment> rows) {
+        if (mode == Mode.REPLACE) {
+            int deleted = shiftAssignmentMapper.deleteByMonthAndStore(from, to, storeCode);
+            int inserted = BulkWrites.inChunks(rows, shiftAssignmentMapper::insertAll);
+            return new RowDelta.Counts(inserted, 0, deleted, 0);
+        }
+        RowDelta<ShiftAssignment> delta = RowDelta.of(
+                shiftAssignmentMapper.selectByStoreAndRange(storeCode, from, to),
+                rows,
+                s -> s.getEmployeeCode() + "|" + millis(s.getStartAt()),
+                (old, now) -> millis(old.getEndAt()) == millis(now.getEndAt())
+                        && Objects.equals(old.getCreatedBy(), now.getCreatedBy()),
+                (old, now) -> now.setShiftId(old.getShiftId()));
+        return delta.apply(
+                chunk -> shiftAssignmentMapper.deleteByIds(chunk.stream().map(ShiftAssignment::getShiftId).toList()),
+                shiftAssignmentMapper::updateByPrimaryKey,
+                shiftAssignmentMapper::insertAll);
+    }
+
+    /**
+     * 店舗・期間 [from, to) の register_assignment を rows の内容にする。
+     * 自然キーは（従業員, 開始時刻）で、レジ番号・終了時刻・作成者の違いは UPDATE で反映する。
+     */
+    RowDelta.Counts writeRegisterAssignments(String storeCode, LocalDate from, LocalDate to, List<RegisterAssignment> rows) {
+        if (mode == Mode.REPLACE) {
+            int deleted = registerAssignmentMapper.deleteByMonthAndStore(from, to, storeCode);
+            int inserted = BulkWrites.inChunks(rows, registerAssignmentMapper::insertAll);
+            return new RowDelta.Counts(inserted, 0, deleted, 0);
+        }
+        RowDelta<RegisterAssignment> delta = RowDelta.of(
+                registerAssignmentMapper.selectByStoreAndRange(storeCode, from, to),
+                rows,
+                r -> r.getEmployeeCode() + "|" + millis(r.getStartAt()),
+                (old, now) -> millis(old.getEndAt()) == millis(now.getEndAt())
+                        && Objects.equals(old.getRegisterNo(), now.getRegisterNo())
+                        && Objects.equals(old.getCreatedBy(), now.getCreatedBy()),
+                (old, now) -> now.setAssignmentId(old.getAssignmentId()));
+        return delta.apply(
+                chunk -> registerAssignmentMapper.deleteByIds(chunk.stream().map(RegisterAssignment::getAssignmentId).toList()),
+                registerAssignmentMapper::updateByPrimaryKey,
+                registerAssignmentMapper::insertAll);
+    }
+
+    private static Mode parseMode(String persistMode) {
+        if (persistMode == null || persistMode.isBlank()) return Mode.DELTA;
+        try {
+            return Mode.valueOf(persistMode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid shift.persist.mode '{}'; falling back to DELTA", persistMode);
+            return Mode.DELTA;
+        }
+    }
+
+    private static long millis(Date d) {
+        return d == null ? Long.MIN_VALUE : d.getTime();
+    }
+}
@@ -5,6 +5,8 @@ import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
 import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeShiftPattern;
 import io.github.riemr.shift.infrastructure.persistence.entity.ShiftAssignment;
 import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import io.github.riemr.shift.optimization.metrics.SolverMetrics;
 import io.github.riemr.shift.optimization.solution.ShiftSchedule;
 import io.github.riemr.shift.infrastructure.mapper.ShiftAssignmentMapper;
 import io.github.riemr.shift.optimization.entity.WorkKind;
@@ -26,10 +28,40 @@ import java.util.stream.Collectors;
 public class AssignmentService {
 
     private final ShiftAssignmentMapper shiftAssignmentMapper;
+    private final ConsecutiveWorkLimitService consecutiveWorkLimitService;
+    private final SolverMetrics solverMetrics;
 
     public void prepareCandidateEmployeesForAssignment(ShiftSchedule schedule, LocalDate cycleStart) {
+        LocalDate cycleEnd = cycleStart.plusMonths(1);
+        List<ShiftAssignment> attendance = solverMetrics.timeLoad(schedule.getStoreCode(), SolveStage.ASSIGNMENT, "attendance",
+                () -> schedule.getStoreCode() == null
+                        ? shiftAssignmentMapper.selectByMonth(cycleStart, cycleEnd)
+                        : shiftAssignmentMapper.selectByStoreAndRange(schedule.getStoreCode(), cycleStart, cycleEnd));
+        prepareCandidateEmployeesForAssignment(schedule, attendance);
+    }
+
+    /**
+     * 読み込み済みの出勤（当該店舗・サイクル分）を使って候補従業員を計算する。
+     * 日次一括実行では月次スナップショットの出勤を全日で共有し、日ごとの再取得を避ける。
+     */
+    public void prepareCandidateEmployeesForAssignment(ShiftSchedule schedule, List<ShiftAssignment> attendance) {
+        if (schedule.getAssignmentList() == null || schedule.getEmployeeList() == null) return;
+        solverMetrics.timeCandidates(schedule.getStoreCode(), SolveStage.ASSIGNMENT, () -> {
+            Map<String, Integer> maxConsecutiveDaysByEmp = consecutiveWorkLimitService.resolveByEmployee(
+                    schedule.getStoreCode(), schedule.getEmployeeList(), schedule.getMonth());
+            prepareCandidates(schedule, attendance, maxConsecutiveDaysByEmp);
+        });
+    }
+
+    /**
+     * 解決済みの連勤上限を使って候補従業員を計算し、候補のないスロットを除外する（DB アクセスなし）。
+     * テストの合成問題生成（SyntheticProblemGenerator）からも同じ手順を使う。
+     */
+    static void prepareCandidates(ShiftSchedule schedule, List<ShiftAssignment> attendance,
+                                  Map<String, Integer> maxConsecutiveDaysByEmp) {
         final var employees = schedule.getEmployeeList();
         if (schedule.getAssignmentList() == null || employees == null) return;
+        if (attendance == null) attendance = List.of();
         final var requests = Optional.ofNullable(schedule.getEmployeeRequestList()).orElse(List.of());
         final var weekly = Optional.ofNullable(schedule.getEmployeeWeeklyPreferenceList()).orElse(List.of());
 
@@ -49,17 +81,19 @@ public class AssignmentService {
                 weeklyOffByEmp.computeIfAbsent(p.getEmployeeCode(), k -> new java.util.HashSet<>()).add(p.getDayOfWeek().intValue());
         }
 
-        LocalDate cycleEnd = cycleStart.plusMonths(1);
-        List<ShiftAssignment> attendance = shiftAssignmentMapper.selectByMonth(cycleStart, cycleEnd);
-        if (schedule.getStoreCode() != null) {
-            attendance = attendance.stream().filter(sa -> schedule.getStoreCode().equals(sa.getStoreCode())).toList();
-        }
-        final int maxConsecutiveDays = 6;
         Map<String, Set<LocalDate>> attendanceDaysByEmp = new HashMap<>();
+        // スロット日付で出勤を引けるようにインデックス化（日跨ぎの出勤は終了日側にも登録）
+        Map<LocalDate, List<ShiftAssignment>> attendanceByDate = new HashMap<>();
         for (var sa : attendance) {
             if (sa.getEmployeeCode() == null || sa.getStartAt() == null) continue;
             LocalDate d = sa.getStartAt().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
             attendanceDaysByEmp.computeIfAbsent(sa.getEmployeeCode(), k -> new java.util.HashSet<>()).add(d);
+            if (sa.getEndAt() == null) continue;
+            attendanceByDate.computeIfAbsent(d, k -> new ArrayList<>()).add(sa);
+            LocalDate endDate = sa.getEndAt().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            if (!endDate.equals(d)) {
+                attendanceByDate.computeIfAbsent(endDate, k -> new ArrayList<>()).add(sa);
+            }
         }
 
         Map<String, List<EmployeeShiftPattern>> patternByEmp =
@@ -91,8 +125,7 @@ public class AssignmentService {
             List<Employee> cands;
 
             Set<String> onDuty = new HashSet<>();
-            for (var sa : attendance) {
-                if (sa.getStartAt() == null || sa.getEndAt() == null) continue;
+            for (var sa : attendanceByDate.getOrDefault(date, List.of())) {
                 // 出勤時間内かつ開始直後/終了直前1セルを除外
                 if (isWithinShiftWithBuffer(a, sa)) {
                     onDuty.add(sa.getEmployeeCode());
@@ -125,7 +158,9 @@ public class AssignmentService {
                             }
                             return true;
                         })
-                        .filter(e -> !wouldExceedConsecutiveCap(attendanceDaysByEmp.getOrDefault(e.getEmployeeCode(), Set.of()), date, maxConsecutiveDays))
+                        .filter(e -> !wouldExceedConsecutiveCap(attendanceDaysByEmp.getOrDefault(e.getEmployeeCode(), Set.of()), date,
+                                maxConsecutiveDaysByEmp.getOrDefault(e.getEmployeeCode(),
+                                        ConsecutiveWorkLimitService.DEFAULT_MAX_CONSECUTIVE_DAYS)))
                         .toList();
             } else {
                 // フォールバック処理では出勤時間が設定されていない場合のみ実行
@@ -158,8 +193,8 @@ public class AssignmentService {
         }
     }
 
-    private boolean matchesAnyPattern(List<EmployeeShiftPattern> list,
-                                      LocalDate date, LocalTime slotStart, LocalTime slotEnd) {
+    private static boolean matchesAnyPattern(List<EmployeeShiftPattern> list,
+                                             LocalDate date, LocalTime slotStart, LocalTime slotEnd) {
         if (list == null || list.isEmpty()) return true;
         for (var p : list) {
             if (Boolean.FALSE.equals(p.getActive())) continue;
@@ -172,8 +207,8 @@ public class AssignmentService {
         return false;
     }
 
-    private boolean withinWeeklyBase(Map<Integer, EmployeeWeeklyPreference> prefByDow,
-                                     LocalDate date, LocalTime slotStart, LocalTime slotEnd) {
+    private static boolean withinWeeklyBase(Map<Integer, EmployeeWeeklyPreference> prefByDow,
+                                            LocalDate date, LocalTime slotStart, LocalTime slotEnd) {
         if (prefByDow == null) return true;
         var pref = prefByDow.get(date.getDayOfWeek().getValue());
         if (pref == null) return true;
@@ -184,7 +219,7 @@ public class AssignmentService {
         return (slotStart.equals(bs) || slotStart.isAfter(bs)) && (slotEnd.isBefore(be) || slotEnd.equals(be));
     }
 
-    private boolean isWithinShiftWithBuffer(ShiftAssignmentPlanningEntity slot, ShiftAssignment shift) {
+    private static boolean isWithinShiftWithBuffer(ShiftAssignmentPlanningEntity slot, ShiftAssignment shift) {
         if (slot == null || shift == null) return false;
         if (slot.getStartAt() == null || slot.getEndAt() == null
                 || shift.getStartAt() == null || shift.getEndAt() == null) {
@@ -202,7 +237,7 @@ public class AssignmentService {
         return slot.getStartAt().getTime() >= minStartMs && slot.getEndAt().getTime() <= maxEndMs;
     }
 
-    private boolean wouldExceedConsecutiveCap(Set<LocalDate> attendanceDays, LocalDate date, int cap) {
+    private static boolean wouldExceedConsecutiveCap(Set<LocalDate> attendanceDays, LocalDate date, int cap) {
         if (attendanceDays == null || attendanceDays.isEmpty()) return false;
         for (int i = 1; i <= cap; i++) {
             LocalDate d = date.minusDays(i);
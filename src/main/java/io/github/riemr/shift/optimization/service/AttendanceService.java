@@ -16,6 +16,9 @@ import io.github.riemr.shift.optimization.entity.DailyPatternAssignmentEntity;
 import io.github.riemr.shift.optimization.entity.WorkDemandSlot;
 import io.github.riemr.shift.optimization.entity.AttendanceGroupInfo;
 import io.github.riemr.shift.optimization.entity.AttendanceGroupRuleType;
+import io.github.riemr.shift.optimization.entity.ConsecutiveWorkLimit;
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import io.github.riemr.shift.optimization.metrics.SolverMetrics;
 import io.github.riemr.shift.optimization.solution.AttendanceSolution;
 import io.github.riemr.shift.optimization.solution.ShiftSchedule;
 import io.github.riemr.shift.util.EmployeeRequestKinds;
@@ -40,11 +43,15 @@ public class AttendanceService {
     private final ShiftAssignmentMapper shiftAssignmentMapper;
     private final AttendanceGroupConstraintMapper attendanceGroupConstraintMapper;
     private final AttendanceGroupMemberMapper attendanceGroupMemberMapper;
+    private final ConsecutiveWorkLimitService consecutiveWorkLimitService;
+    private final AssignmentResultWriter assignmentResultWriter;
+    private final SolverMetrics solverMetrics;
 
     public AttendanceSolution loadAttendanceProblem(ProblemKey key) {
         log.info("Starting attendance problem load: key={}", key);
         LocalDate cycleStart = key.getCycleStart();
-        ShiftSchedule base = repository.fetchShiftSchedule(cycleStart, key.getStoreCode(), key.getDepartmentCode());
+        String store = key.getStoreCode();
+        ShiftSchedule base = repository.fetchShiftSchedule(cycleStart, store, key.getDepartmentCode(), SolveStage.ATTENDANCE);
         AttendanceSolution sol = new AttendanceSolution();
         sol.setProblemId(toProblemId(cycleStart));
         sol.setMonth(cycleStart);
@@ -57,9 +64,12 @@ public class AttendanceService {
         sol.setEmployeeMonthlySettingList(base.getEmployeeMonthlySettingList());
         sol.setDemandList(aggregateRegisterDemand(base.getDemandList()));
         sol.setWorkDemandList(base.getWorkDemandList());
-        sol.setAttendanceGroupInfos(loadAttendanceGroupInfos(key.getStoreCode(), key.getDepartmentCode()));
+        sol.setAttendanceGroupInfos(solverMetrics.timeLoad(store, SolveStage.ATTENDANCE, "attendance_groups",
+                () -> loadAttendanceGroupInfos(store, key.getDepartmentCode())));
         sol.setActiveDates(buildActiveDates(sol.getDemandList(), sol.getWorkDemandList()));
-        var patterns = buildPatternAssignmentsFromDemand(sol);
+        sol.setConsecutiveWorkLimitList(solverMetrics.timeLoad(store, SolveStage.ATTENDANCE, "consecutive_limits",
+                () -> consecutiveWorkLimitService.resolve(store, sol.getEmployeeList(), cycleStart)));
+        var patterns = solverMetrics.timeCandidates(store, SolveStage.ATTENDANCE, () -> buildPatternAssignmentsFromDemand(sol));
         sol.setPatternAssignments(patterns);
 
         long assignedCount = patterns.stream().filter(p -> p.getAssignedEmployee() != null).count();
@@ -80,8 +90,8 @@ public class AttendanceService {
         return sol;
     }
 
-    private List<LocalDate> buildActiveDates(List<RegisterDemandSlot> registerDemands,
-                                             List<WorkDemandSlot> workDemands) {
+    static List<LocalDate> buildActiveDates(List<RegisterDemandSlot> registerDemands,
+                                            List<WorkDemandSlot> workDemands) {
         Set<LocalDate> active = new TreeSet<>();
         if (registerDemands != null) {
             for (var d : registerDemands) {
@@ -151,7 +161,7 @@ public class AttendanceService {
         return infos;
     }
 
-    private List<RegisterDemandSlot> aggregateRegisterDemand(List<RegisterDemandSlot> demandList) {
+    static List<RegisterDemandSlot> aggregateRegisterDemand(List<RegisterDemandSlot> demandList) {
         if (demandList == null || demandList.isEmpty()) return List.of();
         Map<String, RegisterDemandSlot> agg = new HashMap<>();
         for (var d : demandList) {
@@ -189,11 +199,8 @@ public class AttendanceService {
         LocalDate to = from.plusMonths(1);
         String store = best.getStoreCode();
         if (store == null || store.isBlank()) throw new IllegalStateException("storeCode must not be null for attendance persist");
-        int del = shiftAssignmentMapper.deleteByMonthAndStore(from, to, store);
-        log.info("[attendance] Cleared shift_assignment rows: {} for store={}, from={}, to={}", del, store, from, to);
-
         ZoneId zone = ZoneId.systemDefault();
-        int ins = 0;
+        List<ShiftAssignment> rows = new ArrayList<>();
         Set<String> dedup = new HashSet<>();
         for (var e : best.getPatternAssignments()) {
             if (e.getAssignedEmployee() == null) continue;
@@ -207,15 +214,34 @@ public class AttendanceService {
             sa.setCreatedBy("auto");
             String k = store + "|" + sa.getEmployeeCode() + "|" + sa.getStartAt().getTime();
             if (dedup.add(k)) {
-                shiftAssignmentMapper.upsert(sa);
-                ins++;
+                rows.add(sa);
             }
         }
-        log.info("[attendance] Persisted rows: {} (from {} assigned patterns)", ins, assignedPatterns);
+        // 保存済みの出勤と突き合わせ、変化した行だけを反映する
+        var counts = assignmentResultWriter.writeShiftAssignments(store, from, to, rows);
+        solverMetrics.recordPersistedRows(store, SolveStage.ATTENDANCE, "shift_assignment", counts.written());
+        log.info("[attendance] Persisted rows: {} ({}) for store={}, from={}, to={} (from {} assigned patterns)",
+                rows.size(), counts, store, from, to, assignedPatterns);
     }
 
     // ===== ATTENDANCE pattern/candidate building =====
     private List<DailyPatternAssignmentEntity> buildPatternAssignmentsFromDemand(AttendanceSolution sol) {
+        // 既存ロスター（当月）の出勤日から連勤上限を超える候補を抑止する
+        LocalDate cycleStart = sol.getMonth();
+        LocalDate cycleEnd = cycleStart.plusMonths(1);
+        List<ShiftAssignment> attendance = sol.getStoreCode() == null
+                ? shiftAssignmentMapper.selectByMonth(cycleStart, cycleEnd)
+                : shiftAssignmentMapper.selectByStoreAndRange(sol.getStoreCode(), cycleStart, cycleEnd);
+        return buildPatternAssignments(sol, attendance);
+    }
+
+    /**
+     * 需要とシフトパターンから日次パターン枠と候補従業員を構築する（DB アクセスなし）。
+     * テストの合成問題生成（SyntheticProblemGenerator）からも同じ構築手順を使う。
+     *
+     * @param attendance 当該サイクルの既存出勤（連勤上限の判定用）
+     */
+    static List<DailyPatternAssignmentEntity> buildPatternAssignments(AttendanceSolution sol, List<ShiftAssignment> attendance) {
         List<DailyPatternAssignmentEntity> result = new ArrayList<>();
         var patterns = Optional.ofNullable(sol.getEmployeeShiftPatternList()).orElse(List.of());
         var demand = Optional.ofNullable(sol.getDemandList()).orElse(List.of());
@@ -282,14 +308,10 @@ public class AttendanceService {
             log.warn("Demand slots exist but none fall within cycle [{},{}): total={}, inCycle=0, minDate={}, maxDate={}, store={}, dept={}",
                     cycleStart, cycleEnd, demand.size(), min.orElse(null), max.orElse(null), sol.getStoreCode(), sol.getDepartmentCode());
         }
-        // 既存ロスター（当月）の出勤日集合を取得し、7連勤抑止
+        // 既存ロスター（当月）の出勤日集合を作り、連勤上限を超える候補を抑止
         Map<String, Set<LocalDate>> attendanceDaysByEmp = new HashMap<>();
-        final int maxConsecutiveDays = 6;
-        List<ShiftAssignment> attendance = shiftAssignmentMapper.selectByMonth(cycleStart, cycleEnd);
-        if (sol.getStoreCode() != null) {
-            attendance = attendance.stream().filter(sa -> sol.getStoreCode().equals(sa.getStoreCode())).toList();
-        }
-        for (var sa : attendance) {
+        Map<String, Integer> maxConsecutiveDaysByEmp = toLimitMap(sol.getConsecutiveWorkLimitList());
+        for (var sa : attendance == null ? List.<ShiftAssignment>of() : attendance) {
             if (sa.getEmployeeCode() == null || sa.getStartAt() == null) continue;
             LocalDate d = sa.getStartAt().toInstant().atZone(zone).toLocalDate();
             attendanceDaysByEmp.computeIfAbsent(sa.getEmployeeCode(), k -> new HashSet<>()).add(d);
@@ -314,7 +336,7 @@ public class AttendanceService {
                     String id = sol.getStoreCode() + "|" + sol.getDepartmentCode() + "|" + date + "|" + ps + "|" + pe + "|" + i;
                     var ent = new DailyPatternAssignmentEntity(id, sol.getStoreCode(), sol.getDepartmentCode(), date, ps, pe, i);
                     var candidates = computeEligibleEmployeesForWindow(employees, patterns, weeklyPrefs, requests,
-                            attendanceDaysByEmp, maxConsecutiveDays, date, ps, pe);
+                            attendanceDaysByEmp, maxConsecutiveDaysByEmp, date, ps, pe);
                     ent.setCandidateEmployees(candidates);
                     result.add(ent);
                 }
@@ -323,13 +345,13 @@ public class AttendanceService {
         return result;
     }
 
-    private List<Employee> computeEligibleEmployeesForWindow(
+    private static List<Employee> computeEligibleEmployeesForWindow(
             List<Employee> employees,
             List<EmployeeShiftPattern> patterns,
             List<EmployeeWeeklyPreference> weeklyPrefs,
             List<EmployeeRequest> requests,
             Map<String, Set<LocalDate>> attendanceDaysByEmp,
-            int maxConsecutiveDays,
+            Map<String, Integer> maxConsecutiveDaysByEmp,
             LocalDate date,
             LocalTime ps,
             LocalTime pe) {
@@ -377,7 +399,8 @@ public class AttendanceService {
             if (!weeklyOk) continue;
             if (!hasPreferred) {
                 var attDays = attendanceDaysByEmp.getOrDefault(code, Set.of());
-                if (wouldExceedConsecutiveCap(attDays, date, maxConsecutiveDays)) continue;
+                int cap = maxConsecutiveDaysByEmp.getOrDefault(code, ConsecutiveWorkLimitService.DEFAULT_MAX_CONSECUTIVE_DAYS);
+                if (wouldExceedConsecutiveCap(attDays, date, cap)) continue;
             }
             list.add(e);
         }
@@ -409,11 +432,11 @@ public class AttendanceService {
         }
 
         LocalDate cycleEnd = cycleStart.plusMonths(1);
-        List<ShiftAssignment> attendance = shiftAssignmentMapper.selectByMonth(cycleStart, cycleEnd);
-        if (schedule.getStoreCode() != null) {
-            attendance = attendance.stream().filter(sa -> schedule.getStoreCode().equals(sa.getStoreCode())).toList();
-        }
-        final int maxConsecutiveDays = 6;
+        List<ShiftAssignment> attendance = schedule.getStoreCode() == null
+                ? shiftAssignmentMapper.selectByMonth(cycleStart, cycleEnd)
+                : shiftAssignmentMapper.selectByStoreAndRange(schedule.getStoreCode(), cycleStart, cycleEnd);
+        Map<String, Integer> maxConsecutiveDaysByEmp = consecutiveWorkLimitService.resolveByEmployee(
+                schedule.getStoreCode(), employees, cycleStart);
         Map<String, Set<LocalDate>> attendanceDaysByEmp = new HashMap<>();
         for (var sa : attendance) {
             if (sa.getEmployeeCode() == null || sa.getStartAt() == null) continue;
@@ -448,7 +471,9 @@ public class AttendanceService {
                         a.getEndAt().toInstant().atZone(ZoneId.systemDefault()).toLocalTime())) return false;
                 if (!hasPreferred) {
                     var attDays = attendanceDaysByEmp.getOrDefault(e.getEmployeeCode(), Set.of());
-                    if (wouldExceedConsecutiveCap(attDays, date, maxConsecutiveDays)) return false;
+                    int cap = maxConsecutiveDaysByEmp.getOrDefault(e.getEmployeeCode(),
+                            ConsecutiveWorkLimitService.DEFAULT_MAX_CONSECUTIVE_DAYS);
+                    if (wouldExceedConsecutiveCap(attDays, date, cap)) return false;
                 }
                 return true;
             }).toList();
@@ -482,7 +507,16 @@ public class AttendanceService {
         return (slotStart.equals(bs) || slotStart.isAfter(bs)) && (slotEnd.isBefore(be) || slotEnd.equals(be));
     }
 
-    private boolean wouldExceedConsecutiveCap(Set<LocalDate> attendanceDays, LocalDate date, int cap) {
+    private static Map<String, Integer> toLimitMap(List<ConsecutiveWorkLimit> limits) {
+        Map<String, Integer> byEmp = new HashMap<>();
+        if (limits == null) return byEmp;
+        for (var l : limits) {
+            byEmp.put(l.getEmployeeCode(), l.getMaxConsecutiveDays());
+        }
+        return byEmp;
+    }
+
+    private static boolean wouldExceedConsecutiveCap(Set<LocalDate> attendanceDays, LocalDate date, int cap) {
         if (attendanceDays == null || attendanceDays.isEmpty()) return false;
         for (int i = 1; i <= cap; i++) {
             LocalDate d = date.minusDays(i);
@@ -493,9 +527,9 @@ public class AttendanceService {
         return true;
     }
 
-    private Map<LocalDate, Map<String, Integer>> buildPreferOnCounts(List<EmployeeRequest> requests,
-                                                                     Set<String> windowKeys,
-                                                                     List<LocalTime[]> windows) {
+    private static Map<LocalDate, Map<String, Integer>> buildPreferOnCounts(List<EmployeeRequest> requests,
+                                                                            Set<String> windowKeys,
+                                                                            List<LocalTime[]> windows) {
         Map<LocalDate, Map<String, Integer>> byDateWindow = new HashMap<>();
         for (var r : requests) {
             if (!isPreferOnRequest(r)) continue;
@@ -512,7 +546,7 @@ public class AttendanceService {
         return byDateWindow;
     }
 
-    private Map<String, Map<LocalDate, Set<String>>> buildPreferOnByEmpDate(List<EmployeeRequest> requests) {
+    private static Map<String, Map<LocalDate, Set<String>>> buildPreferOnByEmpDate(List<EmployeeRequest> requests) {
         Map<String, Map<LocalDate, Set<String>>> result = new HashMap<>();
         for (var r : requests) {
             if (!isPreferOnRequest(r)) continue;
@@ -529,19 +563,19 @@ public class AttendanceService {
         return result;
     }
 
-    private LocalDate toLocalDateSafe(Date date) {
+    private static LocalDate toLocalDateSafe(Date date) {
         if (date == null) return null;
         if (date instanceof java.sql.Date) return ((java.sql.Date) date).toLocalDate();
         return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
-    private LocalTime toLocalTimeSafe(Date date) {
+    private static LocalTime toLocalTimeSafe(Date date) {
         if (date == null) return null;
         if (date instanceof java.sql.Time) return ((java.sql.Time) date).toLocalTime();
         return date.toInstant().atZone(ZoneId.systemDefault()).toLocalTime();
     }
 
-    private boolean isPreferOnRequest(EmployeeRequest request) {
+    private static boolean isPreferOnRequest(EmployeeRequest request) {
         if (request == null || request.getRequestKind() == null) return false;
         return EmployeeRequestKinds.PREFER_ON.equalsIgnoreCase(request.getRequestKind().trim());
     }
@@ -0,0 +1,107 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.infrastructure.mapper.ConstraintSettingMapper;
+import io.github.riemr.shift.infrastructure.persistence.entity.ConstraintSetting;
+import io.github.riemr.shift.infrastructure.persistence.entity.ConstraintSettingExample;
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.optimization.entity.ConsecutiveWorkLimit;
+import io.github.riemr.shift.optimization.entity.TimeKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 連続勤務日数の上限（constraint_setting: MAX_CONSEC_DAYS）を従業員ごとに解決する。
+ * 優先順位は EMPLOYEE > STORE > GLOBAL、いずれも無ければ既定値（6 日）。
+ * 同じスコープ・対象に有効期間の重なる設定が複数ある場合は、適用開始日（effective_from）が新しいものを優先し、
+ * 同日なら setting_id の大きい（後から登録された）ものを優先する。取得順には依存しない。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConsecutiveWorkLimitService {
+
+    static final String CONSTRAINT_CODE = "MAX_CONSEC_DAYS";
+    public static final int DEFAULT_MAX_CONSECUTIVE_DAYS = 6;
+
+    /** 優先度の低い順（後に適用したものが上書きする）。適用開始日なし・ID なしは最も古い扱い */
+    private static final Comparator<ConstraintSetting> APPLY_ORDER =
+            Comparator.comparing(ConstraintSetting::getEffectiveFrom, Comparator.nullsFirst(Comparator.<Date>naturalOrder()))
+                    .thenComparing(ConstraintSetting::getSettingId, Comparator.nullsFirst(Comparator.<Long>naturalOrder()));
+
+    private final ConstraintSettingMapper constraintSettingMapper;
+
+    /**
+     * 対象サイクルに有効な設定から、従業員コード→上限日数を解決する。
+     *
+     * @param storeCode  対象店舗（null の場合は従業員の所属店舗の設定を使用）
+     * @param employees  対象従業員
+     * @param cycleStart サイクル開始日（1 か月間に有効な設定のみ採用）
+     * @return 従業員コード→上限日数（全従業員分、employees の順）
+     */
+    public Map<String, Integer> resolveByEmployee(String storeCode, List<Employee> employees, LocalDate cycleStart) {
+        ConstraintSettingExample ex = new ConstraintSettingExample();
+        ex.createCriteria().andConstraintCodeEqualTo(CONSTRAINT_CODE);
+        List<ConstraintSetting> settings = new ArrayList<>(constraintSettingMapper.selectByExample(ex));
+        settings.sort(APPLY_ORDER);
+
+        Integer global = null;
+        Map<String, Integer> byStore = new HashMap<>();
+        Map<String, Integer> byEmployee = new HashMap<>();
+        LocalDate cycleEnd = cycleStart == null ? null : cycleStart.plusMonths(1);
+        for (var s : settings) {
+            if (!effectiveWithin(s, cycleStart, cycleEnd)) continue;
+            if (s.getNumericValue() == null || s.getNumericValue().intValue() < 1) {
+                log.warn("Ignoring invalid MAX_CONSEC_DAYS setting: id={}, value={}", s.getSettingId(), s.getNumericValue());
+                continue;
+            }
+            int days = s.getNumericValue().intValue();
+            String scope = s.getScopeType() == null ? "" : s.getScopeType().toUpperCase();
+            switch (scope) {
+                case "GLOBAL" -> global = days;
+                case "STORE" -> byStore.put(s.getScopeId(), days);
+                case "EMPLOYEE" -> byEmployee.put(s.getScopeId(), days);
+                default -> log.warn("Ignoring MAX_CONSEC_DAYS setting with unknown scope: id={}, scope={}",
+                        s.getSettingId(), s.getScopeType());
+            }
+        }
+
+        int fallback = global != null ? global : DEFAULT_MAX_CONSECUTIVE_DAYS;
+        Map<String, Integer> result = new LinkedHashMap<>();
+        if (employees == null) return result;
+        for (var e : employees) {
+            String code = e.getEmployeeCode();
+            if (code == null) continue;
+            String store = storeCode != null ? storeCode : e.getStoreCode();
+            Integer days = byEmployee.get(code);
+            if (days == null && store != null) days = byStore.get(store);
+            result.put(code, days != null ? days : fallback);
+        }
+        return result;
+    }
+
+    /** 制約ストリーム用の問題事実に変換する。 */
+    public List<ConsecutiveWorkLimit> resolve(String storeCode, List<Employee> employees, LocalDate cycleStart) {
+        List<ConsecutiveWorkLimit> limits = new ArrayList<>();
+        resolveByEmployee(storeCode, employees, cycleStart)
+                .forEach((code, days) -> limits.add(new ConsecutiveWorkLimit(code, days)));
+        return limits;
+    }
+
+    private static boolean effectiveWithin(ConstraintSetting s, LocalDate from, LocalDate to) {
+        if (from == null) return true;
+        LocalDate effFrom = TimeKeys.toLocalDate(s.getEffectiveFrom());
+        LocalDate effTo = TimeKeys.toLocalDate(s.getEffectiveTo());
+        if (effFrom != null && !effFrom.isBefore(to)) return false;
+        return effTo == null || !effTo.isBefore(from);
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.optimization.config.OptaPlannerConfig;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * 日次 ASSIGNMENT（1 日分に切り出した問題）を解く SolverManager。
+ * <p>
+ * 日次専用の設定（{@link OptaPlannerConfig#dailyAssignmentSolverConfig()}）が有効な場合のみ専用の SolverManager を作り、
+ * そうでなければ月次と共有の SolverManager をそのまま返す。
+ */
+@Component
+class DailyAssignmentSolverManager implements DisposableBean {
+
+    private final SolverManager<ShiftSchedule, ProblemKey> manager;
+    private final boolean dedicated;
+
+    DailyAssignmentSolverManager(OptaPlannerConfig optaPlannerConfig,
+                                 SolverManager<ShiftSchedule, ProblemKey> solverManager) {
+        this.dedicated = optaPlannerConfig.hasDailyAssignmentVariant();
+        this.manager = dedicated
+                ? SolverManager.create(SolverFactory.<ShiftSchedule>create(optaPlannerConfig.dailyAssignmentSolverConfig()))
+                : solverManager;
+    }
+
+    SolverManager<ShiftSchedule, ProblemKey> get() {
+        return manager;
+    }
+
+    /** 月次と別の SolverManager か（状態照会で両方を見る必要があるか） */
+    boolean isDedicated() {
+        return dedicated;
+    }
+
+    @Override
+    public void destroy() {
+        if (dedicated) manager.close();
+    }
+}
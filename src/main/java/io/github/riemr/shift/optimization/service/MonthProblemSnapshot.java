@@ -0,0 +1,115 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.RegisterAssignment;
+import io.github.riemr.shift.infrastructure.persistence.entity.ShiftAssignment;
+import io.github.riemr.shift.optimization.entity.BreakAssignment;
+import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
+import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import io.github.riemr.shift.optimization.entity.WorkDemandSlot;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 日次ASSIGNMENT一括実行用の月次問題スナップショット。
+ * サイクル全体の問題データを一度だけ読み込み、日付ごとの部分問題へ切り出す。
+ * 参照専用の問題事実は全日で共有し、計画エンティティは日ごとに複製するため
+ * 並列に solve しても互いの状態を書き換えない。
+ */
+final class MonthProblemSnapshot {
+
+    private final ShiftSchedule month;
+    private final Map<LocalDate, List<ShiftAssignmentPlanningEntity>> assignmentsByDate;
+    private final Map<LocalDate, List<RegisterDemandSlot>> demandByDate;
+    private final Map<LocalDate, List<WorkDemandSlot>> workDemandByDate;
+    private final Map<LocalDate, List<BreakAssignment>> breaksByDate;
+
+    MonthProblemSnapshot(ShiftSchedule month) {
+        this.month = month;
+        this.assignmentsByDate = groupByDate(month.getAssignmentList(), ShiftAssignmentPlanningEntity::getShiftDate);
+        this.demandByDate = groupByDate(month.getDemandList(), RegisterDemandSlot::getDemandDate);
+        this.workDemandByDate = groupByDate(month.getWorkDemandList(), WorkDemandSlot::getDemandDate);
+        this.breaksByDate = groupByDate(month.getBreakList(), BreakAssignment::getDate);
+    }
+
+    /** 月全体の出勤（shift_assignment）。候補計算で全日共有する。 */
+    List<ShiftAssignment> getAttendance() {
+        return month.getShiftAssignmentList() == null ? List.of() : month.getShiftAssignmentList();
+    }
+
+    /**
+     * 指定日の部分問題を構築する。問題事実は共有（変更不可）、エンティティは複製。
+     * 候補従業員は未設定のため、呼び出し側で日ごとに準備すること。
+     */
+    ShiftSchedule sliceForDate(LocalDate date) {
+        List<ShiftAssignmentPlanningEntity> entities = new ArrayList<>();
+        for (var a : assignmentsByDate.getOrDefault(date, List.of())) {
+            entities.add(copyForDay(a));
+        }
+        return new ShiftSchedule(
+                month.getProblemId(),
+                month.getMonth(),
+                month.getStoreCode(),
+                month.getDepartmentCode(),
+                readOnly(month.getEmployeeList()),
+                readOnly(month.getRegisterList()),
+                readOnly(demandByDate.getOrDefault(date, List.of())),
+                readOnly(workDemandByDate.getOrDefault(date, List.of())),
+                readOnly(month.getEmployeeRequestList()),
+                readOnly(month.getConstraintMasterList()),
+                readOnly(month.getPreviousAssignmentList()),
+                readOnly(month.getEmployeeRegisterSkillList()),
+                readOnly(month.getEmployeeDepartmentSkillList()),
+                readOnly(month.getEmployeeWeeklyPreferenceList()),
+                readOnly(month.getEmployeeMonthlySettingList()),
+                readOnly(month.getEmployeeShiftPatternList()),
+                readOnly(month.getShiftAssignmentList()),
+                entities,
+                readOnly(breaksByDate.getOrDefault(date, List.of())));
+    }
+
+    private static ShiftAssignmentPlanningEntity copyForDay(ShiftAssignmentPlanningEntity src) {
+        // 永続化時に origin の endAt を書き換えるため、origin も日ごとに複製する
+        RegisterAssignment o = src.getOrigin();
+        RegisterAssignment origin = new RegisterAssignment();
+        origin.setAssignmentId(o.getAssignmentId());
+        origin.setStoreCode(o.getStoreCode());
+        origin.setEmployeeCode(o.getEmployeeCode());
+        origin.setRegisterNo(o.getRegisterNo());
+        origin.setStartAt(o.getStartAt());
+        origin.setEndAt(o.getEndAt());
+        origin.setCreatedBy(o.getCreatedBy());
+
+        ShiftAssignmentPlanningEntity copy = new ShiftAssignmentPlanningEntity(origin);
+        copy.setShiftId(src.getShiftId());
+        copy.setDepartmentCode(src.getDepartmentCode());
+        copy.setWorkKind(src.getWorkKind());
+        copy.setTaskCode(src.getTaskCode());
+        copy.setAssignedEmployee(src.getAssignedEmployee());
+        // ステージはASSIGNMENT固定
+        copy.setStage(SolveStage.ASSIGNMENT);
+        return copy;
+    }
+
+    private static <T> Map<LocalDate, List<T>> groupByDate(List<T> list, Function<T, LocalDate> dateOf) {
+        Map<LocalDate, List<T>> byDate = new HashMap<>();
+        if (list == null) return byDate;
+        for (T t : list) {
+            LocalDate d = dateOf.apply(t);
+            if (d == null) continue;
+            byDate.computeIfAbsent(d, k -> new ArrayList<>()).add(t);
+        }
+        return byDate;
+    }
+
+    private static <T> List<T> readOnly(List<T> list) {
+        return list == null ? List.of() : Collections.unmodifiableList(list);
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.optimization.dataset.SolutionDatasets;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 読み込んだ問題をベンチマーク用データセットとして書き出す。
+ * shift.solver.dataset-dump-dir が空（既定）の場合は何もしない。
+ * 書き出しに失敗しても最適化は続行する。
+ */
+@Component
+@Slf4j
+class ProblemDatasetWriter {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // データセットの出力先ディレクトリ（空の場合は書き出さない）
+    @Value("${shift.solver.dataset-dump-dir:}")
+    private String dumpDir;
+
+    /**
+     * 問題を {stage}/{store}-{dept}-{yyyyMM または yyyyMMdd}.ser として書き出す。
+     * 同じ問題を再度解いた場合は上書きする。
+     */
+    <T extends Serializable> T dump(ProblemKey key, T problem) {
+        if (dumpDir == null || dumpDir.isBlank() || key == null || problem == null) return problem;
+        Path file = Path.of(dumpDir.trim(), stageDir(key), fileName(key));
+        try {
+            SolutionDatasets.write(problem, file);
+            log.info("Dumped {} problem dataset to {}", key, file);
+        } catch (RuntimeException e) {
+            log.warn("Failed to dump problem dataset {}: {}", file, e.getMessage());
+        }
+        return problem;
+    }
+
+    private static String stageDir(ProblemKey key) {
+        return key.getStage() == null ? "assignment" : key.getStage().name().toLowerCase();
+    }
+
+    private static String fileName(ProblemKey key) {
+        String period = key.getDate() != null
+                ? key.getDate().format(DAY)
+                : (key.getCycleStart() != null ? key.getCycleStart().format(MONTH) : key.getMonth().atDay(1).format(MONTH));
+        return (key.getStoreCode() == null ? "all" : key.getStoreCode())
+                + "-" + (key.getDepartmentCode() == null ? "all" : key.getDepartmentCode())
+                + "-" + period + "." + SolutionDatasets.FILE_EXTENSION;
+    }
+}
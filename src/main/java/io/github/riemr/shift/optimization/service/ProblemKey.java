@@ -1,73 +1,72 @@
 package io.github.riemr.shift.optimization.service;
 
+import io.github.riemr.shift.optimization.entity.SolveStage;
+
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.Objects;
 
 /**
  * Solver の問題識別子。月(YearMonth)と店舗コード、部門コードで一意。
- * サイクル開始日も保持する。
+ * サイクル開始日も保持する。日次実行では対象日（date）も識別子に含める。
  */
 public final class ProblemKey {
     private final YearMonth month;
     private final String storeCode;
     private final String departmentCode;
     private final LocalDate cycleStart; // サイクル開始日を追加
-    private final String stage; // ATTENDANCE or ASSIGNMENT
+    private final SolveStage stage; // ATTENDANCE or ASSIGNMENT
+    private final LocalDate date; // 日次ASSIGNMENTの対象日（月次実行では null）
 
     public ProblemKey(YearMonth month, String storeCode) {
-        this.month = month;
-        this.storeCode = storeCode;
-        this.departmentCode = null;
-        this.cycleStart = null; // 後方互換性のため
-        this.stage = null;
+        this(month, storeCode, null, null, null, null);
     }
-    
+
     public ProblemKey(YearMonth month, String storeCode, LocalDate cycleStart) {
-        this.month = month;
-        this.storeCode = storeCode;
-        this.departmentCode = null;
-        this.cycleStart = cycleStart;
-        this.stage = null;
+        this(month, storeCode, null, cycleStart, null, null);
     }
 
     public ProblemKey(YearMonth month, String storeCode, String departmentCode, LocalDate cycleStart) {
-        this.month = month;
-        this.storeCode = storeCode;
-        this.departmentCode = departmentCode;
-        this.cycleStart = cycleStart;
-        this.stage = null;
+        this(month, storeCode, departmentCode, cycleStart, null, null);
+    }
+
+    public ProblemKey(YearMonth month, String storeCode, String departmentCode, LocalDate cycleStart, SolveStage stage) {
+        this(month, storeCode, departmentCode, cycleStart, stage, null);
     }
 
-    public ProblemKey(YearMonth month, String storeCode, String departmentCode, LocalDate cycleStart, String stage) {
+    public ProblemKey(YearMonth month, String storeCode, String departmentCode, LocalDate cycleStart,
+                      SolveStage stage, LocalDate date) {
         this.month = month;
         this.storeCode = storeCode;
         this.departmentCode = departmentCode;
         this.cycleStart = cycleStart;
         this.stage = stage;
+        this.date = date;
     }
 
     public YearMonth getMonth() { return month; }
     public String getStoreCode() { return storeCode; }
     public String getDepartmentCode() { return departmentCode; }
     public LocalDate getCycleStart() { return cycleStart; }
-    public String getStage() { return stage; }
+    public SolveStage getStage() { return stage; }
+    public LocalDate getDate() { return date; }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ProblemKey that = (ProblemKey) o;
-        return Objects.equals(month, that.month) && 
+        return Objects.equals(month, that.month) &&
                Objects.equals(storeCode, that.storeCode) &&
                Objects.equals(departmentCode, that.departmentCode) &&
                Objects.equals(cycleStart, that.cycleStart) &&
-               Objects.equals(stage, that.stage);
+               stage == that.stage &&
+               Objects.equals(date, that.date);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(month, storeCode, departmentCode, cycleStart, stage);
+        return Objects.hash(month, storeCode, departmentCode, cycleStart, stage, date);
     }
 
     @Override
@@ -75,6 +74,7 @@ public final class ProblemKey {
         return month + ":" + storeCode +
                (departmentCode != null ? ":" + departmentCode : "") +
                (cycleStart != null ? ":" + cycleStart : "") +
-               (stage != null ? ":" + stage : "");
+               (stage != null ? ":" + stage : "") +
+               (date != null ? "@" + date : "");
     }
 }
@@ -0,0 +1,49 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.optimization.config.OptaPlannerConfig;
+import io.github.riemr.shift.optimization.solution.AttendanceSolution;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import lombok.RequiredArgsConstructor;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 再現モード（{@link SolveMode}）のソルブ用 SolverManager を作る。
+ * <p>
+ * シードは SolverConfig に焼き込まれるため、ジョブごとに専用の SolverManager を作り、
+ * 呼び出し側がジョブ終了後に close する。通常モードは共有の SolverManager をそのまま使う。
+ */
+@Component
+@RequiredArgsConstructor
+class ReproducibleSolverManagers {
+
+    // リクエストで指定がないときに再現モードで解くか
+    @Value("${shift.solver.reproducible.enabled:false}")
+    private boolean enabledByDefault;
+    // リクエストでシード指定がないときのシード
+    @Value("${shift.solver.reproducible.seed:0}")
+    private long defaultSeed;
+
+    private final OptaPlannerConfig optaPlannerConfig;
+
+    /**
+     * リクエスト指定とプロパティからモードを決める。シードだけ指定された場合も再現モードとみなす。
+     */
+    SolveMode resolve(Boolean reproducible, Long seed) {
+        boolean enabled = reproducible != null ? reproducible : (seed != null || enabledByDefault);
+        if (!enabled) return SolveMode.NON_REPRODUCIBLE;
+        return SolveMode.reproducible(seed != null ? seed : defaultSeed);
+    }
+
+    SolverManager<ShiftSchedule, ProblemKey> assignment(SolveMode mode) {
+        SolverFactory<ShiftSchedule> factory = SolverFactory.create(optaPlannerConfig.reproducibleAssignmentSolverConfig(mode.seed()));
+        return SolverManager.create(factory);
+    }
+
+    SolverManager<AttendanceSolution, ProblemKey> attendance(SolveMode mode) {
+        SolverFactory<AttendanceSolution> factory = SolverFactory.create(optaPlannerConfig.reproducibleAttendanceSolverConfig(mode.seed()));
+        return SolverManager.create(factory);
+    }
+}
@@ -18,15 +18,12 @@ import java.util.Set;
 import java.util.Map;
 import java.util.UUID;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.HashSet;
 import java.lang.reflect.Method;
 
 import io.github.riemr.shift.infrastructure.mapper.EmployeeMapper;
-import io.github.riemr.shift.infrastructure.mapper.EmployeeRegisterSkillMapper;
 import org.optaplanner.core.api.solver.SolverJob;
 import org.optaplanner.core.api.solver.SolverManager;
 import org.optaplanner.core.api.score.ScoreManager;
@@ -53,6 +50,8 @@ import io.github.riemr.shift.infrastructure.mapper.ShiftAssignmentMapper;
 import io.github.riemr.shift.infrastructure.mapper.DepartmentTaskAssignmentMapper;
 import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
 import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import io.github.riemr.shift.optimization.metrics.SolverMetrics;
 import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeWeeklyPreference;
 import io.github.riemr.shift.optimization.solution.ShiftSchedule;
 import io.github.riemr.shift.optimization.solution.AttendanceSolution;
@@ -60,23 +59,27 @@ import io.github.riemr.shift.application.repository.ShiftScheduleRepository;
 import io.github.riemr.shift.application.service.AppSettingService;
 import io.github.riemr.shift.application.service.TaskPlanService;
 import io.github.riemr.shift.application.dto.ScorePoint;
+import io.github.riemr.shift.application.dto.SolverRegistryFootprint;
 import io.github.riemr.shift.optimization.entity.WorkKind;
 import io.github.riemr.shift.optimization.entity.BreakAssignment;
 import io.github.riemr.shift.infrastructure.persistence.entity.DepartmentTaskAssignment;
 import io.github.riemr.shift.util.OffRequestKinds;
 import io.github.riemr.shift.util.EmployeeRequestKinds;
+import io.github.riemr.shift.util.BulkWrites;
+import io.github.riemr.shift.util.RowDelta;
 import io.github.riemr.shift.infrastructure.mapper.EmployeeRequestMapper;
 import io.github.riemr.shift.infrastructure.mapper.EmployeeDepartmentMapper;
 import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeRequest;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * OptaPlanner による月次シフト計算を制御するサービス。
  * <ul>
  *   <li>月 (yyyy‑MM) をキーに非同期ジョブを起動</li>
- *   <li>進捗状況をポーリング API 経由で公開</li>
+ *   <li>進捗状況をポーリング API / SSE ストリーム経由で公開</li>
  *   <li>計算終了後、最善解を DTO に変換して返却</li>
  * </ul>
  */
@@ -95,13 +98,21 @@ public class ShiftScheduleService {
     private final DepartmentTaskAssignmentMapper departmentTaskAssignmentMapper;
     private final EmployeeRequestMapper employeeRequestMapper;
     private final EmployeeDepartmentMapper employeeDepartmentMapper;
-    private final EmployeeRegisterSkillMapper employeeRegisterSkillMapper;
     private final EmployeeMapper employeeMapper;
     private final AppSettingService appSettingService;
     private final TaskPlanService taskPlanService;
     private final PlatformTransactionManager transactionManager;
     private final AttendanceService attendanceService;
     private final AssignmentService assignmentCandidateService;
+    private final AssignmentResultWriter assignmentResultWriter;
+    private final SolveProgressHub progressHub;
+    private final ProblemDatasetWriter datasetWriter;
+    private final ReproducibleSolverManagers reproducibleSolvers;
+    private final DailyAssignmentSolverManager dailySolvers;
+    private final SolverMetrics solverMetrics;
+    /* === Runtime State === */
+    // 開始時刻・ジョブ・フェーズ・スコア推移・チケットの対応（完了後は TTL / 件数上限で破棄）
+    private final SolveJobRegistry jobRegistry;
     private final ScoreManager<ShiftSchedule, HardSoftScore> shiftScoreManager;
     @Value("${shift.solver.mode:ASSIGNMENT}")
     private String defaultStage;
@@ -121,19 +132,6 @@ public class ShiftScheduleService {
     private String assignmentDailyUnimprovedLimitProp;
     // 終了条件（未改善時間）は OptaPlanner の TerminationConfig で設定
 
-    /* === Runtime State === */
-    private final Map<ProblemKey, Instant> startMap = new ConcurrentHashMap<>();
-    private final Map<ProblemKey, Object> jobMap = new ConcurrentHashMap<>();
-    private final Map<ProblemKey, String> currentPhaseMap = new ConcurrentHashMap<>(); // 現在のフェーズ
-    // 開発者向け: スコア推移の時系列
-    private final Map<ProblemKey, List<ScorePoint>> scoreSeriesMap = new ConcurrentHashMap<>();
-    private final Map<ProblemKey, Long> lastImprovementMap = new ConcurrentHashMap<>();
-    // 進行状況可視化用のスコア系列のみ保持
-    // UUIDチケット -> ProblemKey の対応
-    private final Map<String, ProblemKey> ticketKeyMap = new ConcurrentHashMap<>();
-    // ProblemKey -> 代表チケットID（同一キーの再実行は同一ticketIdを返す）
-    private final Map<ProblemKey, String> keyTicketMap = new ConcurrentHashMap<>();
-
     /* ===================================================================== */
     /* Public API                                                            */
     /* ===================================================================== */
@@ -184,8 +182,24 @@ public class ShiftScheduleService {
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = false)
     public SolveTicket startSolveMonth(LocalDate month, String storeCode, String departmentCode) {
-        String stage = (defaultStage == null || defaultStage.isBlank()) ? "ASSIGNMENT" : defaultStage.trim().toUpperCase();
-        return startSolveInternal(month, storeCode, departmentCode, stage);
+        SolveStage stage = SolveStage.fromCode(defaultStage);
+        return startSolveInternal(month, storeCode, departmentCode, stage == null ? SolveStage.ASSIGNMENT : stage,
+                reproducibleSolvers.resolve(null, null));
+    }
+
+    /**
+     * 実行モードを指定して月次シフト計算を開始する。
+     *
+     * @param reproducible 再現モードで解くか（null の場合は shift.solver.reproducible.enabled。seed 指定時は再現モード）
+     * @param seed 再現モードの乱数シード（null の場合は shift.solver.reproducible.seed）
+     * @see SolveMode
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = false)
+    public SolveTicket startSolveMonth(LocalDate month, String storeCode, String departmentCode,
+                                       Boolean reproducible, Long seed) {
+        SolveStage stage = SolveStage.fromCode(defaultStage);
+        return startSolveInternal(month, storeCode, departmentCode, stage == null ? SolveStage.ASSIGNMENT : stage,
+                reproducibleSolvers.resolve(reproducible, seed));
     }
 
     /**
@@ -203,7 +217,22 @@ public class ShiftScheduleService {
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = false)
     public SolveTicket startSolveAttendanceMonth(LocalDate month, String storeCode, String departmentCode) {
-        return startSolveInternal(month, storeCode, departmentCode, "ATTENDANCE");
+        return startSolveInternal(month, storeCode, departmentCode, SolveStage.ATTENDANCE,
+                reproducibleSolvers.resolve(null, null));
+    }
+
+    /**
+     * 実行モードを指定して出勤パターン最適化を開始する。
+     *
+     * @param reproducible 再現モードで解くか（null の場合は shift.solver.reproducible.enabled。seed 指定時は再現モード）
+     * @param seed 再現モードの乱数シード（null の場合は shift.solver.reproducible.seed）
+     * @see SolveMode
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = false)
+    public SolveTicket startSolveAttendanceMonth(LocalDate month, String storeCode, String departmentCode,
+                                                 Boolean reproducible, Long seed) {
+        return startSolveInternal(month, storeCode, departmentCode, SolveStage.ATTENDANCE,
+                reproducibleSolvers.resolve(reproducible, seed));
     }
 
     /**
@@ -212,10 +241,12 @@ public class ShiftScheduleService {
      * @param month 対象月
      * @param storeCode 店舗コード
      * @param departmentCode 部門コード 
-     * @param stage 最適化ステージ（"ASSIGNMENT" または "ATTENDANCE"）
+     * @param stage 最適化ステージ（ASSIGNMENT または ATTENDANCE）
+     * @param mode 実行モード（再現モードではジョブ専用の SolverManager を使い、終了後に閉じる）
      * @return 最適化ジョブの制御チケット
      */
-    private SolveTicket startSolveInternal(LocalDate month, String storeCode, String departmentCode, String stage) {
+    private SolveTicket startSolveInternal(LocalDate month, String storeCode, String departmentCode, SolveStage stage,
+                                           SolveMode mode) {
         String ticketId = UUID.randomUUID().toString();
         ProblemKey key = new ProblemKey(YearMonth.from(month), storeCode, departmentCode, month, stage);
 
@@ -226,26 +257,19 @@ public class ShiftScheduleService {
                 LocalDate cycleEnd = month.plusMonths(1);
                 
                 log.info("Executing task plan materialization for store: {}, dept: {}", storeCode, departmentCode);
-                System.out.println("DEBUG: ShiftScheduleService executing task plan materialization for store: " + storeCode + ", dept: " + departmentCode);
-                
                 if (departmentCode != null && !departmentCode.isBlank()) {
-                    System.out.println("DEBUG: Processing specific department: " + departmentCode);
                     // 部門タスク割当（従業員未割当の枠）も物質化しておく
                     try {
                         int createdDeptAssign = taskPlanService.materializeDepartmentAssignments(storeCode, departmentCode, cycleStart, cycleEnd, "optimization_prep");
                         log.info("✅ Materialized {} department task assignments for dept: {}", createdDeptAssign, departmentCode);
-                        System.out.println("DEBUG: Materialized " + createdDeptAssign + " department task assignments for dept: " + departmentCode);
                     } catch (Exception ex) {
                         log.warn("Department task assignment materialization failed for dept {}: {}", departmentCode, ex.getMessage());
                     }
                     int createdWorkDemands = taskPlanService.materializeWorkDemands(storeCode, departmentCode, cycleStart, cycleEnd);
                     log.info("✅ Created {} work demand intervals for dept: {}", createdWorkDemands, departmentCode);
-                    System.out.println("DEBUG: Created " + createdWorkDemands + " work demand intervals for dept: " + departmentCode);
                 } else {
-                    System.out.println("DEBUG: Processing ALL departments (departmentCode is null or blank)");
                     int createdWorkDemands = taskPlanService.materializeWorkDemandsForAllDepartments(storeCode, cycleStart, cycleEnd);
                     log.info("✅ Created {} work demand intervals for all departments", createdWorkDemands);
-                    System.out.println("DEBUG: Created " + createdWorkDemands + " work demand intervals for all departments");
                 }
             } catch (Exception e) {
                 log.error("❌ Task plan materialization failed", e);
@@ -257,41 +281,48 @@ public class ShiftScheduleService {
 
         // 既存ジョブがある場合の扱い：
         // 実行中なら再利用、停止済み（NOT_SOLVING）ならエントリをクリアして再起動する
-        if (jobMap.containsKey(key)) {
-            SolverStatus st = solverManager.getSolverStatus(key);
+        SolveJobRegistry.JobState running = jobRegistry.get(key);
+        if (running != null && running.job != null) {
+            SolverStatus st = jobStatus(running.job);
             if (st != null && st != SolverStatus.NOT_SOLVING) {
-                Instant started = startMap.get(key);
+                Instant started = running.startedAt;
                 if (started == null) {
                     started = Instant.now();
-                    startMap.put(key, started);
+                    running.startedAt = started;
                 }
                 // 既存ジョブが走っている場合は既存のticketIdを返す（なければ今のticketIdで登録）
-                String existing = keyTicketMap.computeIfAbsent(key, k -> {
-                    ticketKeyMap.put(ticketId, k);
-                    return ticketId;
-                });
+                String existing = running.ticketId;
+                if (existing == null) {
+                    existing = ticketId;
+                    running.ticketId = ticketId;
+                    jobRegistry.bindTicket(ticketId, key);
+                }
                 return new SolveTicket(existing,
                         started.toEpochMilli(),
                         started.plus(spentLimit).toEpochMilli());
-            } else {
-                // 前回の終了状態をクリアして再起動
-                jobMap.remove(key);
-                startMap.remove(key);
-                currentPhaseMap.remove(key);
             }
         }
 
-        // 進捗メタ情報（レース防止のため先に開始時刻を記録）
+        // 前回の終了状態をクリアして起動（進捗メタ情報はレース防止のため先に開始時刻を記録）
+        SolveJobRegistry.JobState state = jobRegistry.reset(key);
         Instant start = Instant.now();
-        startMap.put(key, start);
+        state.startedAt = start;
+        state.mode = mode;
+        solverMetrics.registerJobGauges(storeCode, stage, s -> jobRegistry.count(storeCode, stage,
+                SolverMetrics.JOBS_ACTIVE.equals(s) ? SolverStatus.SOLVING_ACTIVE : SolverStatus.SOLVING_SCHEDULED));
 
         // Solver 起動 (listen)
-        currentPhaseMap.put(key, "初期解生成中");
-        if ("ATTENDANCE".equals(stage)) {
-            log.info("Starting ATTENDANCE optimization: key={}", key);
-            SolverJob<AttendanceSolution, ProblemKey> job = attendanceSolverManager.solveAndListen(
+        progressHub.open(key);
+        state.phase = "初期解生成中";
+        progressHub.publish(key, SolveProgressHub.EVENT_PHASE, Map.of("phase", "初期解生成中"));
+        if (stage == SolveStage.ATTENDANCE) {
+            log.info("Starting ATTENDANCE optimization: key={}, mode={}", key, mode.describe());
+            SolverManager<AttendanceSolution, ProblemKey> manager = mode.reproducible()
+                    ? reproducibleSolvers.attendance(mode)
+                    : attendanceSolverManager;
+            SolverJob<AttendanceSolution, ProblemKey> job = manager.solveAndListen(
                     key,
-                    attendanceService::loadAttendanceProblem,
+                    k -> datasetWriter.dump(k, attendanceService.loadAttendanceProblem(k)),
                     best -> {
                         // 進捗更新・スコア記録（表示用）
                         if (best != null && best.getScore() != null) {
@@ -307,17 +338,19 @@ public class ShiftScheduleService {
                         // 中間ベストは保存しない（最終ベストのみ保存）
                     },
                     this::onError);
-            jobMap.put(key, job);
+            state.job = job;
             // 未改善による早期終了は TerminationConfig に委譲
 
             // 最終ベストのみ保存
             new Thread(() -> {
                 try {
                     var finalBest = job.getFinalBestSolution();
-                    log.info("ATTENDANCE final solution received: score={}, patterns={}", 
+                    log.info("ATTENDANCE final solution received: score={}, patterns={}, mode={}", 
                             finalBest != null ? finalBest.getScore() : "null",
-                            finalBest != null && finalBest.getPatternAssignments() != null ? finalBest.getPatternAssignments().size() : 0);
+                            finalBest != null && finalBest.getPatternAssignments() != null ? finalBest.getPatternAssignments().size() : 0,
+                            mode.describe());
                     
+                    recordSolveTimings(key);
                     // 最終スコアも強制記録（画面表示用）
                     if (finalBest != null && finalBest.getScore() != null) {
                         recordScorePointGeneric(key, finalBest.getScore());
@@ -346,15 +379,26 @@ public class ShiftScheduleService {
                     
                     TransactionTemplate tt = new TransactionTemplate(transactionManager);
                     tt.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
-                    tt.execute(s -> { attendanceService.persistAttendanceResult(finalBest, key); return null; });
+                    tt.execute(s -> {
+                        solverMetrics.timePersist(storeCode, stage, () -> attendanceService.persistAttendanceResult(finalBest, key));
+                        return null;
+                    });
+                    finishJob(key);
                 } catch (Exception e) {
                     log.error("Persist(final attendance) failed: {}", e.getMessage(), e);
+                    failJob(key, e);
+                } finally {
+                    if (manager != attendanceSolverManager) manager.close();
                 }
             }, "attendance-persist-" + key.hashCode()).start();
         } else {
-            SolverJob<ShiftSchedule, ProblemKey> job = solverManager.solveAndListen(
+            log.info("Starting ASSIGNMENT optimization: key={}, mode={}", key, mode.describe());
+            SolverManager<ShiftSchedule, ProblemKey> manager = mode.reproducible()
+                    ? reproducibleSolvers.assignment(mode)
+                    : solverManager;
+            SolverJob<ShiftSchedule, ProblemKey> job = manager.solveAndListen(
                     key,
-                    this::loadProblem,
+                    k -> datasetWriter.dump(k, loadProblem(k)),
                     bestSolution -> {
                         // フェーズ・スコアの更新（表示用）
                         updatePhase(key, bestSolution);
@@ -362,27 +406,37 @@ public class ShiftScheduleService {
                         // 中間ベストは保存しない（最終ベストのみ保存）
                     },
                     this::onError);
-            jobMap.put(key, job);
+            state.job = job;
             // 未改善による早期終了は TerminationConfig に委譲
 
             // 最終ベストのみ保存
             new Thread(() -> {
                 try {
                     var finalBest = job.getFinalBestSolution();
+                    log.info("ASSIGNMENT final solution received: score={}, mode={}",
+                            finalBest != null ? finalBest.getScore() : "null", mode.describe());
+                    recordSolveTimings(key);
                     TransactionTemplate tt = new TransactionTemplate(transactionManager);
                     tt.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
-                    tt.execute(s -> { persistResult(finalBest, key); return null; });
+                    tt.execute(s -> {
+                        solverMetrics.timePersist(storeCode, stage, () -> persistResult(finalBest, key));
+                        return null;
+                    });
+                    finishJob(key);
                 } catch (Exception e) {
                     log.error("Persist(final assign) failed: {}", e.getMessage(), e);
+                    failJob(key, e);
+                } finally {
+                    if (manager != solverManager) manager.close();
                 }
             }, "assign-persist-" + key.hashCode()).start();
         }
 
         // チケットとキーの対応を登録
-        ticketKeyMap.put(ticketId, key);
-        keyTicketMap.put(key, ticketId);
+        jobRegistry.bindTicket(ticketId, key);
+        state.ticketId = ticketId;
         // フェーズ毎の上限時間を用いて表示用の終了予定時刻を計算
-        Duration uiLimit = "ATTENDANCE".equals(stage) ? getAttendanceLimit() : spentLimit;
+        Duration uiLimit = stage == SolveStage.ATTENDANCE ? getAttendanceLimit() : spentLimit;
         return new SolveTicket(ticketId,
                 start.toEpochMilli(),
                 start.plus(uiLimit).toEpochMilli());
@@ -401,7 +455,7 @@ public class ShiftScheduleService {
      * @see #getStatus(Long, String, String, String) ステージ指定版
      */
     public SolveStatusDto getStatus(String ticketId, String storeCode, String departmentCode) {
-        ProblemKey key = ticketKeyMap.get(ticketId);
+        ProblemKey key = jobRegistry.keyOf(ticketId);
         if (key != null) return internalStatus(key);
         return new SolveStatusDto("UNKNOWN", 0, 0, "未開始");
     }
@@ -420,18 +474,27 @@ public class ShiftScheduleService {
      * @see #getStatus(Long, String, String) ステージ指定なし版
      */
     public SolveStatusDto getStatus(String ticketId, String storeCode, String departmentCode, String stage) {
-        ProblemKey key = ticketKeyMap.get(ticketId);
+        ProblemKey key = jobRegistry.keyOf(ticketId);
         if (key != null) return internalStatus(key);
         return new SolveStatusDto("UNKNOWN", 0, 0, "未開始");
     }
 
     private SolveStatusDto internalStatus(ProblemKey key) {
-        SolverStatus status = solverManager.getSolverStatus(key);
-        if (status == null || status == SolverStatus.NOT_SOLVING) {
-            SolverStatus alt = attendanceSolverManager.getSolverStatus(key);
-            if (alt != null) status = alt;
+        SolveJobRegistry.JobState state = jobRegistry.get(key);
+        // 再現モードのジョブは専用の SolverManager で動くため、ジョブ自身の状態を優先する
+        SolverStatus status = state == null ? null : jobStatus(state.job);
+        if (status == null) {
+            status = solverManager.getSolverStatus(key);
+            if (dailySolvers.isDedicated() && key.getDate() != null
+                    && (status == null || status == SolverStatus.NOT_SOLVING)) {
+                status = dailySolvers.get().getSolverStatus(key);
+            }
+            if (status == null || status == SolverStatus.NOT_SOLVING) {
+                SolverStatus alt = attendanceSolverManager.getSolverStatus(key);
+                if (alt != null) status = alt;
+            }
         }
-        Instant started = startMap.get(key);
+        Instant started = state == null ? null : state.startedAt;
         if (started == null) {
             // ジョブ開始時刻が消えている（完了後の参照やレース）場合でもNPEにせず安全な既定値で扱う
             started = Instant.now();
@@ -442,30 +505,33 @@ public class ShiftScheduleService {
         int pct = (int) Math.min(100, Math.max(0,
                 Math.round((System.currentTimeMillis() - start) * 100.0 / Math.max(1, finish - start))))
                 ;
-        String currentPhase = currentPhaseMap.get(key);
+        String currentPhase = state == null ? null : state.phase;
         if (status == SolverStatus.SOLVING_ACTIVE) {
             // ユーザー体感改善: 一定時間経過後は「最適化中」に移行とみなす
             if (currentPhase == null || "初期化中".equals(currentPhase) || "初期解生成中".equals(currentPhase)) {
                 if (System.currentTimeMillis() - start > 2000) {
                     currentPhase = "最適化中";
-                    currentPhaseMap.put(key, currentPhase);
+                    if (state != null) state.phase = currentPhase;
                 } else if (currentPhase == null) {
                     currentPhase = "初期解生成中";
                 }
             }
         } else if (status == SolverStatus.NOT_SOLVING) {
             if (currentPhase == null) currentPhase = "完了";
-            // 完了したのでクリーンアップ
-            startMap.remove(key);
-            currentPhaseMap.remove(key);
+            // 完了したのでフェーズ表示をクリア（状態自体はレジストリが期限後に破棄する）
+            if (state != null) state.phase = null;
         }
 
-        return new SolveStatusDto(status == null ? "UNKNOWN" : status.name(), pct, finish, currentPhase == null ? "完了" : currentPhase);
+        return new SolveStatusDto(status == null ? "UNKNOWN" : status.name(), pct, finish, currentPhase == null ? "完了" : currentPhase)
+                .withSolveMode(state == null ? null : state.mode.describe());
+    }
+
+    private static SolverStatus jobStatus(Object job) {
+        return job instanceof SolverJob<?, ?> j ? j.getSolverStatus() : null;
     }
 
     private Duration resolveLimitFor(ProblemKey key) {
-        String st = (key == null) ? null : key.getStage();
-        if (st != null && st.startsWith("ATTENDANCE")) return getAttendanceLimit();
+        if (key != null && key.getStage() == SolveStage.ATTENDANCE) return getAttendanceLimit();
         return spentLimit;
     }
 
@@ -513,15 +579,15 @@ public class ShiftScheduleService {
         int hard = s.hardScore();
         int soft = s.softScore();
         long now = System.currentTimeMillis();
-        scoreSeriesMap.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>())
-                .add(new ScorePoint(now, init, hard, soft));
+        // 固定長リングに追加（古い点は上書き）
+        var series = jobRegistry.state(key).scores;
+        ScorePoint previous = series.last();
+        ScorePoint point = new ScorePoint(now, init, hard, soft);
+        series.add(point);
+        publishScore(key, point, previous);
+        recordBestSolutionMetrics(key, point, previous);
         // 改善検出は OptaPlanner の終了条件に委譲（記録のみ）
-        // keep last 1000 points to bound memory
-        var list = scoreSeriesMap.get(key);
-        if (list.size() > 1000) {
-            list.subList(0, list.size() - 1000).clear();
-        }
-        lastImprovementMap.put(key, System.currentTimeMillis());
+        touchImprovement(key);
     }
 
     // ATTENDANCE 用（スコアのみからポイントを作成）
@@ -531,16 +597,62 @@ public class ShiftScheduleService {
         int hard = s.hardScore();
         int soft = s.softScore();
         long now = System.currentTimeMillis();
-        scoreSeriesMap.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>())
-                .add(new ScorePoint(now, init, hard, soft));
+        var series = jobRegistry.state(key).scores;
+        ScorePoint previous = series.last();
+        ScorePoint point = new ScorePoint(now, init, hard, soft);
+        series.add(point);
+        publishScore(key, point, previous);
+        recordBestSolutionMetrics(key, point, previous);
         log.debug("SCORE RECORDED: key={}, score={}hard/{}soft, points_count={}", 
-                key, hard, soft, scoreSeriesMap.get(key).size());
+                key, hard, soft, series.size());
         // 改善検出は OptaPlanner の終了条件に委譲（記録のみ）
-        var list = scoreSeriesMap.get(key);
-        if (list.size() > 1000) {
-            list.subList(0, list.size() - 1000).clear();
+        touchImprovement(key);
+    }
+
+    /**
+     * ベスト解コールバックからフェーズ境界とスコア改善を記録する。
+     * SolverManager 経由ではフェーズの開始・終了を受け取れないため、
+     * 初期化スコアが 0 になった最初のベスト解を初期解フェーズの終わりとみなす。
+     */
+    private void recordBestSolutionMetrics(ProblemKey key, ScorePoint point, ScorePoint previous) {
+        SolveJobRegistry.JobState state = jobRegistry.state(key);
+        Instant now = Instant.ofEpochMilli(point.getTimeMillis());
+        if (point.getInitScore() == 0 && state.initializedAt == null) state.initializedAt = now;
+        state.lastBestAt = now;
+        if (previous == null || isBetter(point, previous)) {
+            solverMetrics.bestScoreImproved(key.getStoreCode(), key.getStage());
         }
-        lastImprovementMap.put(key, System.currentTimeMillis());
+    }
+
+    private static boolean isBetter(ScorePoint a, ScorePoint b) {
+        if (a.getInitScore() != b.getInitScore()) return a.getInitScore() > b.getInitScore();
+        if (a.getHardScore() != b.getHardScore()) return a.getHardScore() > b.getHardScore();
+        return a.getSoftScore() > b.getSoftScore();
+    }
+
+    /** 最終ベスト解の受け取り時に、フェーズごとの時間と全体のソルブ時間を記録する */
+    private void recordSolveTimings(ProblemKey key) {
+        SolveJobRegistry.JobState state = jobRegistry.get(key);
+        if (state == null || state.startedAt == null) return;
+        Instant end = Instant.now();
+        Instant initialized = state.initializedAt;
+        if (initialized != null) {
+            solverMetrics.recordPhase(key.getStoreCode(), key.getStage(), SolverMetrics.PHASE_INITIALIZATION,
+                    Duration.between(state.startedAt, initialized));
+            Instant lastBest = state.lastBestAt == null ? initialized : state.lastBestAt;
+            solverMetrics.recordPhase(key.getStoreCode(), key.getStage(), SolverMetrics.PHASE_LOCAL_SEARCH,
+                    Duration.between(initialized, lastBest.isBefore(initialized) ? initialized : lastBest));
+        }
+        solverMetrics.recordSolve(key.getStoreCode(), key.getStage(), Duration.between(state.startedAt, end));
+    }
+
+    private void touchImprovement(ProblemKey key) {
+        jobRegistry.state(key).lastImprovementMillis = System.currentTimeMillis();
+    }
+
+    private long lastImprovementMillis(ProblemKey key) {
+        SolveJobRegistry.JobState state = jobRegistry.get(key);
+        return (state == null || state.lastImprovementMillis == 0) ? System.currentTimeMillis() : state.lastImprovementMillis;
     }
 
     // 早期終了（未改善）は OptaPlanner の TerminationConfig.withUnimprovedScoreSpentLimit に委譲
@@ -559,16 +671,63 @@ public class ShiftScheduleService {
      * @return スコア推移のリスト（時系列順）
      */
     public List<ScorePoint> getScoreSeries(String ticketId, String storeCode, String departmentCode) {
-        ProblemKey key = ticketKeyMap.get(ticketId);
+        ProblemKey key = jobRegistry.keyOf(ticketId);
         if (key == null) {
             log.debug("SCORE SERIES: ticketId {} not found", ticketId);
             return List.of();
         }
-        var scores = scoreSeriesMap.getOrDefault(key, List.of());
+        SolveJobRegistry.JobState state = jobRegistry.get(key);
+        List<ScorePoint> scores = state == null ? List.of() : state.scores.snapshot();
         log.debug("SCORE SERIES: ticketId={}, key={}, points_count={}", ticketId, key, scores.size());
         return scores;
     }
 
+    /**
+     * 最適化ジョブの進捗を SSE で購読する（ポーリングの代替）。
+     *
+     * <p>ベスト解コールバックから phase（フェーズ変化）/ score（スコアと前回からの差分）を送り、
+     * 結果の保存後に done、失敗時に failed を送って終了する。</p>
+     *
+     * @param ticketId 開始時に返したチケット ID
+     * @param lastEventId 受信済みの最後のイベント ID（再接続時。null なら保持分をすべて送る）
+     */
+    public SseEmitter streamProgress(String ticketId, Long lastEventId) {
+        return progressHub.subscribe(jobRegistry.keyOf(ticketId), lastEventId);
+    }
+
+    private void publishScore(ProblemKey key, ScorePoint point, ScorePoint previous) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("timeMillis", point.getTimeMillis());
+        data.put("initScore", point.getInitScore());
+        data.put("hardScore", point.getHardScore());
+        data.put("softScore", point.getSoftScore());
+        data.put("hardDelta", previous == null ? 0 : point.getHardScore() - previous.getHardScore());
+        data.put("softDelta", previous == null ? 0 : point.getSoftScore() - previous.getSoftScore());
+        progressHub.publish(key, SolveProgressHub.EVENT_SCORE, data);
+    }
+
+    /**
+     * 開発者向け: ジョブ状態・進捗配信が保持している件数とメモリ使用量の概算。
+     */
+    public SolverRegistryFootprint getSolverFootprint() {
+        return jobRegistry.footprint();
+    }
+
+    /** 結果の保存まで終わったジョブを完了扱いにし、進捗購読者へ通知する */
+    private void finishJob(ProblemKey key) {
+        jobRegistry.markFinished(key);
+        SolveJobRegistry.JobState state = jobRegistry.get(key);
+        String mode = (state == null ? SolveMode.NON_REPRODUCIBLE : state.mode).describe();
+        progressHub.finish(key, SolveProgressHub.EVENT_DONE,
+                Map.of("status", SolverStatus.NOT_SOLVING.name(), "phase", "完了", "solveMode", mode));
+    }
+
+    private void failJob(ProblemKey key, Throwable t) {
+        jobRegistry.markFinished(key);
+        String message = t.getMessage() == null ? t.getClass().getSimpleName() : t.getMessage();
+        progressHub.finish(key, SolveProgressHub.EVENT_FAILED, Map.of("status", "FAILED", "errorMessage", message));
+    }
+
     /**
      * 最適化計算終了後の最終解をフロントエンド用DTOに変換して返す。
      * 
@@ -582,7 +741,7 @@ public class ShiftScheduleService {
      * @see #fetchResult(Long, String, String, String) ステージ指定版
      */
     public List<ShiftAssignmentView> fetchResult(String ticketId, String storeCode, String departmentCode) {
-        ProblemKey k = ticketKeyMap.get(ticketId);
+        ProblemKey k = jobRegistry.keyOf(ticketId);
         if (k != null) return internalFetchResult(k);
         return List.of();
     }
@@ -601,13 +760,14 @@ public class ShiftScheduleService {
      * @see #fetchResult(Long, String, String) ステージ指定なし版
      */
     public List<ShiftAssignmentView> fetchResult(String ticketId, String storeCode, String departmentCode, String stage) {
-        ProblemKey k = ticketKeyMap.get(ticketId);
+        ProblemKey k = jobRegistry.keyOf(ticketId);
         if (k != null) return internalFetchResult(k);
         return List.of();
     }
 
     private List<ShiftAssignmentView> internalFetchResult(ProblemKey key) {
-        Object anyJob = jobMap.get(key);
+        SolveJobRegistry.JobState state = jobRegistry.get(key);
+        Object anyJob = state == null ? null : state.job;
         if (anyJob == null) return List.of();
         if (!(anyJob instanceof SolverJob)) return List.of();
         @SuppressWarnings("unchecked")
@@ -678,10 +838,9 @@ public class ShiftScheduleService {
                     .toList();
         } else {
             // Register assignments monthly
-            List<RegisterAssignment> assignments = registerAssignmentMapper.selectByMonth(from, to)
-                    .stream()
-                    .filter(a -> (storeCode == null || storeCode.equals(a.getStoreCode())))
-                    .toList();
+            List<RegisterAssignment> assignments = storeCode == null
+                    ? registerAssignmentMapper.selectByMonth(from, to)
+                    : registerAssignmentMapper.selectByStoreAndRange(storeCode, from, to);
             return assignments.stream()
                     .map(a -> new ShiftAssignmentMonthlyView(
                             toLocalDateTime(a.getStartAt()),
@@ -723,10 +882,9 @@ public class ShiftScheduleService {
         LocalDate from = computeCycleStart(anyDayInMonth);
         LocalDate to   = from.plusMonths(1);  // 半開区間
 
-        List<ShiftAssignment> shifts = shiftAssignmentMapper.selectByMonth(from, to)
-                .stream()
-                .filter(s -> (storeCode == null || storeCode.equals(s.getStoreCode())))
-                .toList();
+        List<ShiftAssignment> shifts = storeCode == null
+                ? shiftAssignmentMapper.selectByMonth(from, to)
+                : shiftAssignmentMapper.selectByStoreAndRange(storeCode, from, to);
 
         Map<String, String> nameMap = (storeCode != null ? employeeMapper.selectByStoreCode(storeCode) : employeeMapper.selectAll())
                 .stream().collect(Collectors.toMap(e -> e.getEmployeeCode(), e -> e.getEmployeeName(), (a,b)->a));
@@ -843,10 +1001,9 @@ public class ShiftScheduleService {
         }
 
         // Register assignments (and department tasks for register department)
-        List<RegisterAssignment> assignments = registerAssignmentMapper.selectByDate(date, date.plusDays(1))
-                .stream()
-                .filter(a -> (storeCode == null || storeCode.equals(a.getStoreCode())))
-                .toList();
+        List<RegisterAssignment> assignments = storeCode == null
+                ? registerAssignmentMapper.selectByDate(date, date.plusDays(1))
+                : registerAssignmentMapper.selectByStoreAndRange(storeCode, date, date.plusDays(1));
         List<ShiftAssignmentView> results = new ArrayList<>();
         assignments.forEach(a -> results.add(new ShiftAssignmentView(
                 Optional.ofNullable(a.getStartAt())
@@ -1130,27 +1287,37 @@ public class ShiftScheduleService {
      * @return 構築されたShiftScheduleソリューション
      */
     private ShiftSchedule loadProblem(ProblemKey key) {
+        return loadProblem(key, true);
+    }
+
+    /**
+     * @param prepareCandidates false の場合、候補従業員の事前計算とスロット単位の診断を省略する
+     *                          （日次一括実行で日ごとに行うため）
+     */
+    private ShiftSchedule loadProblem(ProblemKey key, boolean prepareCandidates) {
         // ProblemKeyからサイクル開始日を取得、なければ従来の方法
         LocalDate cycleStart = key.getCycleStart() != null 
             ? key.getCycleStart() 
             : LocalDate.of(key.getMonth().getYear(), key.getMonth().getMonthValue(), 1);
-        ShiftSchedule unsolved = repository.fetchShiftSchedule(cycleStart, key.getStoreCode(), key.getDepartmentCode());
-        unsolved.setEmployeeRegisterSkillList(employeeRegisterSkillMapper.selectByExample(null));
+        ShiftSchedule unsolved = repository.fetchShiftSchedule(cycleStart, key.getStoreCode(), key.getDepartmentCode(), key.getStage());
         // Repository 側で必要なフィールドをセット済みだが、問題 ID だけはここで上書きしておく
         unsolved.setProblemId(toProblemId(cycleStart));
         if (unsolved.getAssignmentList() == null) unsolved.setAssignmentList(new ArrayList<>());
         if (unsolved.getBreakList() == null) unsolved.setBreakList(new ArrayList<>());
 
-        // ステージをエンティティへ伝搬
-        if (unsolved.getAssignmentList() != null) {
-            for (var a : unsolved.getAssignmentList()) {
-                a.setStage(key.getStage());
-            }
+        // ステージをエンティティへ伝搬。別ステージ向けに作られたエンティティは
+        // 制約ネットワークに入れないようここで除外する（制約側ではステージを判定しない）
+        SolveStage stage = key.getStage() == null ? SolveStage.ASSIGNMENT : key.getStage();
+        List<ShiftAssignmentPlanningEntity> stageEntities = new ArrayList<>();
+        for (var a : unsolved.getAssignmentList()) {
+            if (a.getStage() != null && a.getStage() != stage) continue;
+            a.setStage(stage);
+            stageEntities.add(a);
         }
+        unsolved.setAssignmentList(stageEntities);
 
         // フォールバック: エンティティが空の場合、ATTENDANCE用に需要から最小限の枠を合成
-        if ((unsolved.getAssignmentList() == null || unsolved.getAssignmentList().isEmpty())
-                && "ATTENDANCE".equalsIgnoreCase(key.getStage())) {
+        if (unsolved.getAssignmentList().isEmpty() && stage == SolveStage.ATTENDANCE) {
             int synthesized = synthesizeAttendanceSlotsFromDemand(unsolved);
             log.warn("Assignment list was empty. Synthesized {} attendance slots from demand for store={}, dept={}.",
                     synthesized, unsolved.getStoreCode(), unsolved.getDepartmentCode());
@@ -1158,31 +1325,34 @@ public class ShiftScheduleService {
 
         // 休憩候補（BreakAssignment）を生成
         try {
-            prepareBreakAssignments(unsolved, key.getStage(), cycleStart);
+            prepareBreakAssignments(unsolved, stage, cycleStart);
         } catch (Exception ex) {
             log.warn("Failed to prepare break assignments: {}", ex.getMessage());
         }
 
         // ステージごとの可用従業員候補を事前計算（ピン留め相当のフィルタリング）
-        try {
-            String stage = key.getStage();
-            if (stage != null && stage.startsWith("ASSIGNMENT")) {
-                assignmentCandidateService.prepareCandidateEmployeesForAssignment(unsolved, cycleStart);
-            } else if ("ATTENDANCE".equals(stage)) {
-                attendanceService.prepareCandidateEmployeesForAttendance(unsolved, cycleStart);
+        if (prepareCandidates) {
+            try {
+                if (stage == SolveStage.ASSIGNMENT) {
+                    assignmentCandidateService.prepareCandidateEmployeesForAssignment(unsolved, cycleStart);
+                } else if (stage == SolveStage.ATTENDANCE) {
+                    attendanceService.prepareCandidateEmployeesForAttendance(unsolved, cycleStart);
+                }
+            } catch (Exception ex) {
+                log.warn("Failed to prepare candidate employees: {}", ex.getMessage());
             }
-        } catch (Exception ex) {
-            log.warn("Failed to prepare candidate employees: {}", ex.getMessage());
         }
 
         // 実行可能性チェック：全員希望休の日があるかチェック
         validateProblemFeasibility(unsolved);
 
         // 追加診断: スロットごとの候補従業員数を集計し、極端にゼロが多い場合に警告
-        try {
-            diagnoseFeasibility(unsolved);
-        } catch (Exception diagEx) {
-            log.debug("Feasibility diagnostics skipped: {}", diagEx.getMessage());
+        if (prepareCandidates) {
+            try {
+                diagnoseFeasibility(unsolved);
+            } catch (Exception diagEx) {
+                log.debug("Feasibility diagnostics skipped: {}", diagEx.getMessage());
+            }
         }
         
         log.info("Loaded unsolved problem for {} store {} ({} assignments)", cycleStart, unsolved.getStoreCode(), unsolved.getAssignmentList().size());
@@ -1220,7 +1390,7 @@ public class ShiftScheduleService {
                 origin.setEndAt(endAt);
                 // registerNo は未使用（ATTENDANCEでは人数のみ評価）
                 ShiftAssignmentPlanningEntity e = new ShiftAssignmentPlanningEntity(origin);
-                e.setStage("ATTENDANCE");
+                e.setStage(SolveStage.ATTENDANCE);
                 e.setDepartmentCode(schedule.getDepartmentCode());
                 e.setWorkKind(WorkKind.REGISTER_OP);
                 list.add(e);
@@ -1230,7 +1400,15 @@ public class ShiftScheduleService {
         return list.size();
     }
 
-    private void prepareBreakAssignments(ShiftSchedule schedule, String stage, LocalDate cycleStart) {
+    private void prepareBreakAssignments(ShiftSchedule schedule, SolveStage stage, LocalDate cycleStart) {
+        buildBreakAssignments(schedule, appSettingService.getTimeResolutionMinutes());
+    }
+
+    /**
+     * 出勤日×従業員ごとの休憩枠を、曜日別の基本勤務時間から生成する（DB アクセスなし）。
+     * テストの合成問題生成（SyntheticProblemGenerator）からも同じ手順を使う。
+     */
+    static void buildBreakAssignments(ShiftSchedule schedule, int slotMinutes) {
         var assignments = Optional.ofNullable(schedule.getAssignmentList()).orElse(List.of());
         var employees = Optional.ofNullable(schedule.getEmployeeList()).orElse(List.of());
         var weekly = Optional.ofNullable(schedule.getEmployeeWeeklyPreferenceList()).orElse(List.of());
@@ -1246,7 +1424,6 @@ public class ShiftScheduleService {
                     .put(p.getDayOfWeek().intValue(), p);
         }
 
-        int slotMinutes = appSettingService.getTimeResolutionMinutes();
         List<BreakAssignment> breakList = new ArrayList<>();
         for (var e : employees) {
             for (var d : dates) {
@@ -1258,10 +1435,9 @@ public class ShiftScheduleService {
         schedule.setBreakList(breakList);
     }
 
-    private List<Date> buildBreakCandidates(Map<Integer, EmployeeWeeklyPreference> prefByDow,
-                                                                LocalDate date, int slotMinutes) {
-        List<Date> result = new ArrayList<>();
-        ZoneId zone = ZoneId.systemDefault();
+    private static List<LocalDateTime> buildBreakCandidates(Map<Integer, EmployeeWeeklyPreference> prefByDow,
+                                                            LocalDate date, int slotMinutes) {
+        List<LocalDateTime> result = new ArrayList<>();
         if (prefByDow == null) return result;
         var pref = prefByDow.get(date.getDayOfWeek().getValue());
         if (pref == null || "OFF".equalsIgnoreCase(pref.getWorkStyle())) return result;
@@ -1273,8 +1449,7 @@ public class ShiftScheduleService {
         if (!latestStart.isAfter(start)) return result;
         LocalTime t = start;
         while (!t.isAfter(latestStart)) {
-            var dt = LocalDateTime.of(date, t);
-            result.add(Date.from(dt.atZone(zone).toInstant()));
+            result.add(LocalDateTime.of(date, t));
             t = t.plusMinutes(slotMinutes);
         }
         return result;
@@ -1542,24 +1717,15 @@ public class ShiftScheduleService {
             log.error("❌ No assignment list data to persist! AssignmentList is empty.");
             return;
         }
-        // 既存データをクリア（サイクル開始日〜+1ヶ月の範囲で消す）
+        // 保存範囲はサイクル開始日〜+1ヶ月。店舗指定時は AssignmentResultWriter が
+        // 保存済みの行との差分だけを反映する（ATTENDANCE: 出勤 / ASSIGNMENT: レジ割当）
         LocalDate cycleStart = best.getMonth();
         LocalDate from = cycleStart;           // サイクル開始日
         LocalDate to   = cycleStart.plusMonths(1); // 半開区間
         String store = best.getStoreCode();
-        if (store != null) {
-            if ("ATTENDANCE".equals(key.getStage())) {
-                // ATTENDANCE フェーズのみ出勤テーブルを更新（上書き）
-                shiftAssignmentMapper.deleteByMonthAndStore(from, to, store);
-            } else {
-                // ASSIGNMENT フェーズでは出勤時間は固定（変更しない）
-                // レジ割当／部門タスクのみ再生成
-                registerAssignmentMapper.deleteByMonthAndStore(from, to, store);
-                // shift_assignment の削除は行わない
-            }
-        } else {
+        if (store == null) {
             // 後方互換: storeCode が無い場合は従来の削除（非推奨）
-            if ("ATTENDANCE".equals(key.getStage())) {
+            if (key.getStage() == SolveStage.ATTENDANCE) {
                 shiftAssignmentMapper.deleteByProblemId(best.getProblemId());
             } else {
                 // ASSIGNMENT フェーズでは出勤は変更しない
@@ -1593,10 +1759,16 @@ public class ShiftScheduleService {
             shiftAssignments.add(shiftAssignment);
         }
 
-        if ("ATTENDANCE".equals(key.getStage())) {
+        if (key.getStage() == SolveStage.ATTENDANCE) {
             // 出勤のみ保存
-            shiftAssignments.forEach(shiftAssignmentMapper::insert);
-            log.info("Persisted attendance solution – shifts={}, score={}", shiftAssignments.size(), best.getScore());
+            if (store != null) {
+                var counts = assignmentResultWriter.writeShiftAssignments(store, from, to, shiftAssignments);
+                solverMetrics.recordPersistedRows(store, key.getStage(), "shift_assignment", counts.written());
+                log.info("Persisted attendance solution – shifts={} ({}), score={}", shiftAssignments.size(), counts, best.getScore());
+            } else {
+                BulkWrites.inChunks(shiftAssignments, shiftAssignmentMapper::insertAll);
+                log.info("Persisted attendance solution – shifts={}, score={}", shiftAssignments.size(), best.getScore());
+            }
             return;
         }
 
@@ -1707,19 +1879,25 @@ public class ShiftScheduleService {
         }
 
         // -- DB に保存 --
-        // ASSIGNMENT フェーズでは出勤テーブルは編集しない
-        if ("ATTENDANCE".equals(key.getStage())) {
-            shiftAssignments.forEach(shiftAssignmentMapper::insert);
+        // ASSIGNMENT フェーズでは出勤テーブルは編集しない（ATTENDANCE は上で保存済み）
+        RowDelta.Counts registerCounts = null;
+        if (store != null) {
+            registerCounts = assignmentResultWriter.writeRegisterAssignments(store, from, to, mergedRegisterAssignments);
+            solverMetrics.recordPersistedRows(store, key.getStage(), "register_assignment", registerCounts.written());
+        } else {
+            BulkWrites.inChunks(mergedRegisterAssignments, registerAssignmentMapper::insertAll);
+            solverMetrics.recordPersistedRows(store, key.getStage(), "register_assignment", mergedRegisterAssignments.size());
         }
-        mergedRegisterAssignments.forEach(registerAssignmentMapper::insert);
         if (best.getDepartmentCode() != null) {
             departmentTaskAssignmentMapper.deleteByMonthStoreAndDepartment(from, to, store, best.getDepartmentCode());
-            deptTaskAssignments.forEach(departmentTaskAssignmentMapper::insert);
+            BulkWrites.inChunks(deptTaskAssignments, departmentTaskAssignmentMapper::insertAll);
+            solverMetrics.recordPersistedRows(store, key.getStage(), "department_task_assignment", deptTaskAssignments.size());
         }
         persistBreakAssignments(best, shiftAssignments);
 
-        log.info("Persisted best solution – stage={}, shifts={}, registers={}, deptTasks={} (score={})",
-                key.getStage(), shiftAssignments.size(), mergedRegisterAssignments.size(), deptTaskAssignments.size(), best.getScore());
+        log.info("Persisted best solution – stage={}, shifts={}, registers={} ({}), deptTasks={} (score={})",
+                key.getStage(), shiftAssignments.size(), mergedRegisterAssignments.size(),
+                registerCounts == null ? "replaced" : registerCounts, deptTaskAssignments.size(), best.getScore());
     }
 
     private static LocalDateTime toLocalDateTime(Date date) {
@@ -1748,7 +1926,12 @@ public class ShiftScheduleService {
                 phase = "最適化中";
             }
             
-            currentPhaseMap.put(key, phase);
+            SolveJobRegistry.JobState state = jobRegistry.state(key);
+            String previous = state.phase;
+            state.phase = phase;
+            if (!phase.equals(previous)) {
+                progressHub.publish(key, SolveProgressHub.EVENT_PHASE, Map.of("phase", phase));
+            }
             log.debug("Phase update for {}: {} - Score: {}", key, phase, score);
         }
     }
@@ -1757,7 +1940,12 @@ public class ShiftScheduleService {
     private void updatePhaseScore(ProblemKey key, HardSoftScore score) {
         if (score == null) return;
         String phase = (score.initScore() < 0) ? "初期解生成中" : "最適化中";
-        currentPhaseMap.put(key, phase);
+        SolveJobRegistry.JobState state = jobRegistry.state(key);
+        String previous = state.phase;
+        state.phase = phase;
+        if (!phase.equals(previous)) {
+            progressHub.publish(key, SolveProgressHub.EVENT_PHASE, Map.of("phase", phase));
+        }
         log.debug("Phase update(score) for {}: {} - Score: {}", key, phase, score);
     }
 
@@ -1766,7 +1954,9 @@ public class ShiftScheduleService {
      */
     private void onError(ProblemKey key, Throwable throwable) {
         log.error("Solver failed for problem {}", key, throwable);
-        currentPhaseMap.remove(key);
+        SolveJobRegistry.JobState state = jobRegistry.get(key);
+        if (state != null) state.phase = null;
+        failJob(key, throwable);
     }
 
     /* ===================================================================== */
@@ -1783,6 +1973,18 @@ public class ShiftScheduleService {
         LocalDate start = computeCycleStart(cycleStart);
         LocalDate end = start.plusMonths(1);
 
+        // 月次データは一度だけ読み込み、各日はスナップショットから切り出す
+        ProblemKey monthKey = new ProblemKey(YearMonth.from(start), storeCode, departmentCode, start, SolveStage.ASSIGNMENT);
+        final MonthProblemSnapshot snapshot;
+        try {
+            snapshot = loadMonthSnapshot(monthKey);
+        } catch (Exception ex) {
+            log.error("Daily assignment snapshot load failed for {} store={} dept={}: {}",
+                    start, storeCode, departmentCode, ex.getMessage(), ex);
+            return 0;
+        }
+
+        SolverManager<ShiftSchedule, ProblemKey> dailySolver = dailySolvers.get();
         int parallelism = Math.max(1, dailyParallelism);
         java.util.concurrent.ExecutorService pool = java.util.concurrent.Executors.newFixedThreadPool(parallelism);
         List<java.util.concurrent.Future<Boolean>> futures = new ArrayList<>();
@@ -1790,14 +1992,13 @@ public class ShiftScheduleService {
         for (LocalDate d = start; d.isBefore(end); d = d.plusDays(1)) {
             final LocalDate day = d;
             futures.add(pool.submit(() -> {
-                // 日付ごとに一意なキーを使って衝突を避ける（stageに日付を含める）
-                String stageTag = "ASSIGNMENT@" + day.toString();
-                ProblemKey key = new ProblemKey(java.time.YearMonth.from(start), storeCode, departmentCode, start, stageTag);
+                // 日付ごとに一意なキーを使って衝突を避ける（対象日をキーに含める）
+                ProblemKey key = new ProblemKey(YearMonth.from(start), storeCode, departmentCode, start, SolveStage.ASSIGNMENT, day);
                 try {
                     // 問題構築（当日スロットに限定）
-                    ShiftSchedule daily = loadProblemForDate(key, day);
+                    ShiftSchedule daily = datasetWriter.dump(key, prepareDailyProblem(snapshot, day));
                     // solveAndListenで最終解を取得
-                    SolverJob<ShiftSchedule, ProblemKey> job = solverManager.solveAndListen(
+                    SolverJob<ShiftSchedule, ProblemKey> job = dailySolver.solveAndListen(
                             key,
                             k -> daily,
                             best -> {
@@ -1807,16 +2008,16 @@ public class ShiftScheduleService {
                     // 1分（設定可能）で早期終了させるタイマーを設定
                     java.util.concurrent.ScheduledExecutorService killer = java.util.concurrent.Executors.newSingleThreadScheduledExecutor();
                     killer.schedule(() -> {
-                        try { solverManager.terminateEarly(key); } catch (Exception ignore) {}
+                        try { dailySolver.terminateEarly(key); } catch (Exception ignore) {}
                     }, Math.max(1, getAssignmentDailyLimit().toSeconds()), java.util.concurrent.TimeUnit.SECONDS);
                     // 未改善終了（デフォルト10秒）モニタ
-                    lastImprovementMap.put(key, System.currentTimeMillis());
+                    touchImprovement(key);
                     java.util.concurrent.ScheduledExecutorService unimprovedMonitor = java.util.concurrent.Executors.newSingleThreadScheduledExecutor();
                     unimprovedMonitor.scheduleAtFixedRate(() -> {
                         try {
-                            long last = lastImprovementMap.getOrDefault(key, System.currentTimeMillis());
+                            long last = lastImprovementMillis(key);
                             if (System.currentTimeMillis() - last >= getAssignmentDailyUnimprovedLimit().toMillis()) {
-                                solverManager.terminateEarly(key);
+                                dailySolver.terminateEarly(key);
                             }
                         } catch (Exception ignore) {}
                     }, 5, 1, java.util.concurrent.TimeUnit.SECONDS);
@@ -1831,6 +2032,8 @@ public class ShiftScheduleService {
                 } catch (Exception ex) {
                     log.error("Daily assignment failed for {}: {}", day, ex.getMessage(), ex);
                     return false;
+                } finally {
+                    jobRegistry.markFinished(key);
                 }
             }));
         }
@@ -1865,14 +2068,14 @@ public class ShiftScheduleService {
     public boolean startSolveAssignmentForDate(LocalDate date, String storeCode, String departmentCode) {
         // dateからサイクル開始日を導出
         LocalDate cycleStart = computeCycleStart(date);
-        String stageTag = "ASSIGNMENT@" + date.toString();
-        ProblemKey key = new ProblemKey(YearMonth.from(cycleStart), storeCode, departmentCode, cycleStart, stageTag);
+        ProblemKey key = new ProblemKey(YearMonth.from(cycleStart), storeCode, departmentCode, cycleStart, SolveStage.ASSIGNMENT, date);
+        SolverManager<ShiftSchedule, ProblemKey> dailySolver = dailySolvers.get();
         try {
-            ShiftSchedule daily = loadProblemForDate(key, date);
+            ShiftSchedule daily = datasetWriter.dump(key, loadProblemForDate(key, date));
             
             
             
-            SolverJob<ShiftSchedule, ProblemKey> job = solverManager.solveAndListen(
+            SolverJob<ShiftSchedule, ProblemKey> job = dailySolver.solveAndListen(
                     key,
                     k -> daily,
                     best -> { if (best != null && best.getScore() != null) recordScorePoint(key, best); },
@@ -1880,16 +2083,16 @@ public class ShiftScheduleService {
             // 1分（設定可能）で早期終了させるタイマーを設定
             java.util.concurrent.ScheduledExecutorService killer = java.util.concurrent.Executors.newSingleThreadScheduledExecutor();
             killer.schedule(() -> {
-                try { solverManager.terminateEarly(key); } catch (Exception ignore) {}
+                try { dailySolver.terminateEarly(key); } catch (Exception ignore) {}
             }, Math.max(1, getAssignmentDailyLimit().toSeconds()), java.util.concurrent.TimeUnit.SECONDS);
             // 未改善終了（デフォルト10秒）モニタ
-            lastImprovementMap.put(key, System.currentTimeMillis());
+            touchImprovement(key);
             java.util.concurrent.ScheduledExecutorService unimprovedMonitor = java.util.concurrent.Executors.newSingleThreadScheduledExecutor();
             unimprovedMonitor.scheduleAtFixedRate(() -> {
                 try {
-                    long last = lastImprovementMap.getOrDefault(key, System.currentTimeMillis());
+                    long last = lastImprovementMillis(key);
                     if (System.currentTimeMillis() - last >= getAssignmentDailyUnimprovedLimit().toMillis()) {
-                        solverManager.terminateEarly(key);
+                        dailySolver.terminateEarly(key);
                     }
                 } catch (Exception ignore) {}
             }, 5, 1, java.util.concurrent.TimeUnit.SECONDS);
@@ -1905,6 +2108,8 @@ public class ShiftScheduleService {
         } catch (Exception ex) {
             log.error("Single-day assignment failed for {}: {}", date, ex.getMessage(), ex);
             return false;
+        } finally {
+            jobRegistry.markFinished(key);
         }
     }
 
@@ -1912,38 +2117,33 @@ public class ShiftScheduleService {
      * 既存の月次問題を当日分に絞るラッパー。
      */
     private ShiftSchedule loadProblemForDate(ProblemKey key, LocalDate date) {
-        ShiftSchedule monthProblem = loadProblem(key);
-        if (monthProblem.getAssignmentList() != null) {
-            List<ShiftAssignmentPlanningEntity> onlyDay = monthProblem.getAssignmentList().stream()
-                    .filter(a -> date.equals(a.getShiftDate()))
-                    .toList();
-            monthProblem.setAssignmentList(new ArrayList<>(onlyDay));
-        }
-        // 需要テーブルも当日分のみに限定（単日実行を正しく評価するため）
-        if (monthProblem.getDemandList() != null) {
-            var onlyDay = monthProblem.getDemandList().stream()
-                    .filter(d -> date.equals(d.getDemandDate()))
-                    .toList();
-            monthProblem.setDemandList(new ArrayList<>(onlyDay));
-        }
-        if (monthProblem.getWorkDemandList() != null) {
-            var onlyDay = monthProblem.getWorkDemandList().stream()
-                    .filter(d -> date.equals(d.getDemandDate()))
-                    .toList();
-            monthProblem.setWorkDemandList(new ArrayList<>(onlyDay));
-        }
-        // ステージはASSIGNMENT固定
-        if (monthProblem.getAssignmentList() != null) {
-            for (var a : monthProblem.getAssignmentList()) a.setStage("ASSIGNMENT");
+        return prepareDailyProblem(loadMonthSnapshot(key), date);
+    }
+
+    /**
+     * サイクル全体の問題を候補計算なしで読み込み、日次切り出し用のスナップショットにする。
+     */
+    private MonthProblemSnapshot loadMonthSnapshot(ProblemKey key) {
+        return new MonthProblemSnapshot(loadProblem(key, false));
+    }
+
+    /**
+     * スナップショットから当日分の部分問題を切り出し、当日スロットの候補従業員を計算する。
+     * 出勤データはスナップショット読み込み時のものを共有する（DB再取得なし）。
+     */
+    private ShiftSchedule prepareDailyProblem(MonthProblemSnapshot snapshot, LocalDate date) {
+        ShiftSchedule daily = snapshot.sliceForDate(date);
+        try {
+            assignmentCandidateService.prepareCandidateEmployeesForAssignment(daily, snapshot.getAttendance());
+        } catch (Exception ex) {
+            log.warn("Rebuild candidate employees for day {} failed: {}", date, ex.getMessage());
         }
-        // 念のため候補従業員を当日分に対して再構築（ASSIGNMENT専用）
         try {
-            LocalDate cycleStart = key.getCycleStart() != null ? key.getCycleStart() : monthProblem.getMonth();
-            assignmentCandidateService.prepareCandidateEmployeesForAssignment(monthProblem, cycleStart);
-        } catch (Exception ignore) {
-            log.warn("Rebuild candidate employees for day {} failed: {}", date, ignore.getMessage());
+            diagnoseFeasibility(daily);
+        } catch (Exception diagEx) {
+            log.debug("Feasibility diagnostics skipped for {}: {}", date, diagEx.getMessage());
         }
-        return monthProblem;
+        return daily;
     }
 
     /**
@@ -2065,19 +2265,16 @@ public class ShiftScheduleService {
         boolean hasRegistersForStore = Optional.ofNullable(best.getRegisterList()).orElse(List.of())
                 .stream().anyMatch(r -> store.equals(r.getStoreCode()));
         if (hasRegisterSlots && hasRegistersForStore) {
-            // 粒度の粗い日次削除（範囲）
+            // 粒度の粗い日次削除（範囲）。当日の start_at はすべてここで消えるため、
+            // 残る重複はバッチ内のユニークキー (store, employee, start_at) 衝突のみ → 後勝ちで除去
             registerAssignmentMapper.deleteByMonthAndStore(date, date.plusDays(1), store);
-            // 念押しでキー一致の削除を行ってから挿入（重複対策）
+            Map<String, RegisterAssignment> uniqueRegisters = new LinkedHashMap<>();
             for (RegisterAssignment ra : mergedRegisters) {
                 if (ra.getStoreCode() == null) ra.setStoreCode(store);
                 if (ra.getCreatedBy() == null) ra.setCreatedBy("auto");
-                try {
-                    // start_at のみで既存を削除（ユニークキーに揃える）
-                    registerAssignmentMapper.deleteByStoreEmployeeAndStartAt(
-                            ra.getStoreCode(), ra.getEmployeeCode(), ra.getStartAt());
-                } catch (Exception ignore) { /* best-effort */ }
-                registerAssignmentMapper.insert(ra);
+                uniqueRegisters.put(ra.getStoreCode() + "|" + ra.getEmployeeCode() + "|" + ra.getStartAt().getTime(), ra);
             }
+            BulkWrites.inChunks(new ArrayList<>(uniqueRegisters.values()), registerAssignmentMapper::insertAll);
         } else if (hasRegisterSlots) {
             log.warn("[DailyPersist] No register master rows for store {}. Skip register_assignment delete/insert for {}.", store, date);
         } else {
@@ -2085,7 +2282,7 @@ public class ShiftScheduleService {
         }
         if (best.getDepartmentCode() != null) {
             departmentTaskAssignmentMapper.deleteByMonthStoreAndDepartment(date, date.plusDays(1), store, best.getDepartmentCode());
-            deptTasks.forEach(departmentTaskAssignmentMapper::insert);
+            BulkWrites.inChunks(deptTasks, departmentTaskAssignmentMapper::insertAll);
         }
         var dayShifts = buildDailyShiftAssignments(dayList);
         persistBreakAssignments(best, dayShifts);
@@ -2133,6 +2330,7 @@ public class ShiftScheduleService {
                 .collect(Collectors.groupingBy(a -> a.getAssignedEmployee().getEmployeeCode() + "@" + a.getShiftDate().toString()));
 
         ZoneId zone = ZoneId.systemDefault();
+        List<DepartmentTaskAssignment> breaks = new ArrayList<>();
         for (ShiftAssignment shift : shiftAssignments) {
             if (shift.getEmployeeCode() == null || shift.getStartAt() == null || shift.getEndAt() == null) continue;
             LocalDate date = shift.getStartAt().toInstant().atZone(zone).toLocalDate();
@@ -2159,8 +2357,9 @@ public class ShiftScheduleService {
             assignment.setStartAt(window.get().startAt);
             assignment.setEndAt(window.get().endAt);
             assignment.setCreatedBy("break_auto");
-            departmentTaskAssignmentMapper.insert(assignment);
+            breaks.add(assignment);
         }
+        BulkWrites.inChunks(breaks, departmentTaskAssignmentMapper::insertAll);
     }
 
     private Optional<BreakWindow> findBreakWindow(List<ShiftAssignmentPlanningEntity> slots,
@@ -0,0 +1,206 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.application.dto.ScorePoint;
+import io.github.riemr.shift.application.dto.SolverRegistryFootprint;
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.optaplanner.core.api.solver.SolverJob;
+import org.optaplanner.core.api.solver.SolverStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最適化ジョブの実行時状態（開始時刻・ジョブ・フェーズ・スコア推移・チケット）を ProblemKey 単位で保持する。
+ * <p>
+ * 完了したジョブは shift.solver.registry.ttl 経過後、または完了済みが
+ * shift.solver.registry.max-completed 件を超えた時点で古いものから破棄する。
+ * スコア推移は固定長のリングバッファに保持し、追加時に配列コピーを行わない。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class SolveJobRegistry {
+
+    // 完了済みジョブの保持期間（ISO-8601 Duration）
+    @Value("${shift.solver.registry.ttl:PT1H}")
+    private Duration ttl;
+    // 完了済みジョブの最大保持件数
+    @Value("${shift.solver.registry.max-completed:200}")
+    private int maxCompleted;
+    // ジョブごとに保持するスコア推移の点数
+    @Value("${shift.solver.registry.score-points:1000}")
+    private int scorePointCapacity;
+
+    private final SolveProgressHub progressHub;
+
+    private final Map<ProblemKey, JobState> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ProblemKey> tickets = new ConcurrentHashMap<>();
+
+    /** ジョブ 1 件分の状態 */
+    static final class JobState {
+        volatile Instant startedAt;
+        volatile Object job;
+        volatile String phase;
+        volatile String ticketId;
+        volatile long lastImprovementMillis;
+        /** 完了時刻（実行中は 0） */
+        volatile long finishedAtMillis;
+        /** 実行モード（再現モードならシードも含めて結果と一緒に返す） */
+        volatile SolveMode mode = SolveMode.NON_REPRODUCIBLE;
+        /** 全エンティティが初期化されたベスト解を初めて受け取った時刻（初期解フェーズの終わり） */
+        volatile Instant initializedAt;
+        /** 最後にベスト解を受け取った時刻 */
+        volatile Instant lastBestAt;
+        final ScorePointRing scores;
+
+        private JobState(int scoreCapacity) {
+            this.scores = new ScorePointRing(scoreCapacity);
+        }
+    }
+
+    JobState get(ProblemKey key) {
+        return key == null ? null : jobs.get(key);
+    }
+
+    /** 状態を取得する（なければ作成する。作成時は期限切れの完了ジョブを掃除する） */
+    JobState state(ProblemKey key) {
+        JobState s = jobs.get(key);
+        if (s != null) return s;
+        evictExpired();
+        return jobs.computeIfAbsent(key, k -> new JobState(Math.max(1, scorePointCapacity)));
+    }
+
+    /** 同じキーで再実行するときに以前の状態を捨てる（チケットは残す） */
+    JobState reset(ProblemKey key) {
+        evictExpired();
+        JobState fresh = new JobState(Math.max(1, scorePointCapacity));
+        JobState previous = jobs.put(key, fresh);
+        if (previous != null) fresh.ticketId = previous.ticketId;
+        return fresh;
+    }
+
+    ProblemKey keyOf(String ticketId) {
+        return ticketId == null ? null : tickets.get(ticketId);
+    }
+
+    void bindTicket(String ticketId, ProblemKey key) {
+        tickets.put(ticketId, key);
+    }
+
+    /** 店舗・ステージが一致する未完了ジョブのうち、指定状態のものの件数（メトリクス用） */
+    long count(String storeCode, SolveStage stage, SolverStatus status) {
+        long n = 0;
+        for (var e : jobs.entrySet()) {
+            ProblemKey key = e.getKey();
+            JobState s = e.getValue();
+            if (s.finishedAtMillis != 0 || key.getStage() != stage) continue;
+            if (!Objects.equals(blankToNull(key.getStoreCode()), blankToNull(storeCode))) continue;
+            if (s.job instanceof SolverJob<?, ?> job && job.getSolverStatus() == status) n++;
+        }
+        return n;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+
+    void markFinished(ProblemKey key) {
+        JobState s = jobs.get(key);
+        if (s != null && s.finishedAtMillis == 0) s.finishedAtMillis = System.currentTimeMillis();
+    }
+
+    /** 保持期間を過ぎた完了ジョブと、上限件数を超えた古い完了ジョブを破棄する */
+    void evictExpired() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = (ttl == null || ttl.isNegative()) ? 0 : ttl.toMillis();
+        List<Map.Entry<ProblemKey, JobState>> completed = new ArrayList<>();
+        for (var e : jobs.entrySet()) {
+            long finished = e.getValue().finishedAtMillis;
+            if (finished == 0) continue;
+            if (now - finished >= ttlMillis) {
+                remove(e.getKey(), e.getValue());
+            } else {
+                completed.add(e);
+            }
+        }
+        int overflow = completed.size() - Math.max(0, maxCompleted);
+        if (overflow > 0) {
+            completed.sort(Comparator.comparingLong(e -> e.getValue().finishedAtMillis));
+            for (int i = 0; i < overflow; i++) {
+                remove(completed.get(i).getKey(), completed.get(i).getValue());
+            }
+        }
+    }
+
+    private void remove(ProblemKey key, JobState state) {
+        if (!jobs.remove(key, state)) return;
+        tickets.values().removeIf(key::equals);
+        progressHub.discard(key);
+        log.debug("Evicted solver job state: {}", key);
+    }
+
+    SolverRegistryFootprint footprint() {
+        evictExpired();
+        int running = 0;
+        int completed = 0;
+        long points = 0;
+        for (JobState s : jobs.values()) {
+            if (s.finishedAtMillis == 0) running++; else completed++;
+            points += s.scores.size();
+        }
+        int capacity = Math.max(1, scorePointCapacity);
+        // 概算: ScorePoint 1 件 ≒ 40 byte、リング配列はジョブごとに容量分の参照（8 byte）、状態・マップ項目 ≒ 256 byte
+        long estimatedBytes = points * 40L
+                + (long) jobs.size() * (capacity * 8L + 256L)
+                + tickets.size() * 128L;
+        return new SolverRegistryFootprint(
+                jobs.size(), running, completed, tickets.size(),
+                points, capacity, progressHub.channelCount(), progressHub.bufferedEventCount(),
+                estimatedBytes, ttl == null ? null : ttl.toString(), maxCompleted);
+    }
+
+    /** 固定長のスコア推移（満杯時は最古の点を上書き） */
+    static final class ScorePointRing {
+        private final ScorePoint[] points;
+        private int head;
+        private int size;
+
+        ScorePointRing(int capacity) {
+            this.points = new ScorePoint[capacity];
+        }
+
+        synchronized void add(ScorePoint p) {
+            points[(head + size) % points.length] = p;
+            if (size < points.length) {
+                size++;
+            } else {
+                head = (head + 1) % points.length;
+            }
+        }
+
+        synchronized ScorePoint last() {
+            return size == 0 ? null : points[(head + size - 1) % points.length];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        /** 古い順のコピー */
+        synchronized List<ScorePoint> snapshot() {
+            List<ScorePoint> out = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) out.add(points[(head + i) % points.length]);
+            return out;
+        }
+    }
+}
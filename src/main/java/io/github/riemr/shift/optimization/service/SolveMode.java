@@ -0,0 +1,24 @@
+package io.github.riemr.shift.optimization.service;
+
+/**
+ * ソルブの実行モード。
+ * <p>
+ * REPRODUCIBLE は乱数シードを固定し、時間ではなくステップ数で終了する（同じ問題・同じシードなら同じ探索経路になる）。
+ * 性能回帰の切り分け用。NON_REPRODUCIBLE は通常運用（時間上限で終了）。
+ *
+ * @param reproducible 再現モードか
+ * @param seed 再現モードの乱数シード（通常モードでは null）
+ */
+public record SolveMode(boolean reproducible, Long seed) {
+
+    public static final SolveMode NON_REPRODUCIBLE = new SolveMode(false, null);
+
+    public static SolveMode reproducible(long seed) {
+        return new SolveMode(true, seed);
+    }
+
+    /** 結果・ログに残す表記（例: REPRODUCIBLE(seed=42)） */
+    public String describe() {
+        return reproducible ? "REPRODUCIBLE(seed=" + seed + ")" : "NON_REPRODUCIBLE";
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.riemr.shift.optimization.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 最適化ジョブごとの進捗イベント（phase / score / done / failed）を SSE で配信する。
+ * <p>
+ * イベントはソルバーのベスト解コールバックから直接投入し、ジョブごとに直近
+ * {@value #MAX_EVENTS_PER_CHANNEL} 件を保持する。再接続時は Last-Event-ID より後のイベントを再送する。
+ */
+@Component
+@Slf4j
+class SolveProgressHub {
+
+    static final String EVENT_PHASE = "phase";
+    static final String EVENT_SCORE = "score";
+    static final String EVENT_DONE = "done";
+    static final String EVENT_FAILED = "failed";
+
+    private static final int MAX_EVENTS_PER_CHANNEL = 256;
+
+    // SSE 接続の上限時間（超えるとクライアントが Last-Event-ID 付きで再接続する）
+    @Value("${shift.solver.progress.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
+    private final Map<ProblemKey, Channel> channels = new ConcurrentHashMap<>();
+
+    /** 新しいジョブの配信を開始する（同じキーの以前の配信は閉じる） */
+    void open(ProblemKey key) {
+        Channel previous = channels.put(key, new Channel());
+        if (previous != null) previous.close();
+    }
+
+    void publish(ProblemKey key, String name, Object data) {
+        Channel ch = channels.get(key);
+        if (ch != null) ch.publish(name, data, false);
+    }
+
+    /** 最終イベントを送って購読を終了する（2 回目以降は無視） */
+    void finish(ProblemKey key, String name, Object data) {
+        Channel ch = channels.get(key);
+        if (ch != null) ch.publish(name, data, true);
+    }
+
+    /** ジョブ状態の破棄に合わせて配信も閉じて破棄する */
+    void discard(ProblemKey key) {
+        Channel ch = channels.remove(key);
+        if (ch != null) ch.close();
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    long bufferedEventCount() {
+        long n = 0;
+        for (Channel ch : channels.values()) n += ch.eventCount();
+        return n;
+    }
+
+    /**
+     * @param lastEventId 受信済みの最後のイベント ID（null なら保持分をすべて送る）
+     */
+    SseEmitter subscribe(ProblemKey key, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout == null ? null : streamTimeout.toMillis());
+        Channel ch = key == null ? null : channels.get(key);
+        if (ch == null) {
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_DONE).data(Map.of("status", "UNKNOWN", "phase", "未開始")));
+            } catch (IOException | IllegalStateException ignore) {
+                // 切断済み
+            }
+            emitter.complete();
+            return emitter;
+        }
+        ch.subscribe(emitter, lastEventId == null ? 0L : lastEventId);
+        return emitter;
+    }
+
+    private record Event(long id, String name, Object data) {}
+
+    private static final class Channel {
+        private final Deque<Event> events = new ArrayDeque<>();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private long lastId;
+        private boolean finished;
+
+        synchronized void publish(String name, Object data, boolean last) {
+            if (finished) return;
+            Event e = new Event(++lastId, name, data);
+            events.addLast(e);
+            if (events.size() > MAX_EVENTS_PER_CHANNEL) events.removeFirst();
+            emitters.removeIf(em -> !send(em, e));
+            if (last) close();
+        }
+
+        synchronized void subscribe(SseEmitter emitter, long afterId) {
+            for (Event e : events) {
+                if (e.id() > afterId && !send(emitter, e)) return;
+            }
+            if (finished) {
+                emitter.complete();
+                return;
+            }
+            emitters.add(emitter);
+            Runnable remove = () -> {
+                synchronized (this) {
+                    emitters.remove(emitter);
+                }
+            };
+            emitter.onCompletion(remove);
+            emitter.onTimeout(remove);
+            emitter.onError(t -> remove.run());
+        }
+
+        synchronized int eventCount() {
+            return events.size();
+        }
+
+        synchronized void close() {
+            finished = true;
+            List<SseEmitter> open = new ArrayList<>(emitters);
+            emitters.clear();
+            open.forEach(SseEmitter::complete);
+        }
+
+        private static boolean send(SseEmitter emitter, Event e) {
+            try {
+                emitter.send(SseEmitter.event().id(Long.toString(e.id())).name(e.name()).data(e.data()));
+                return true;
+            } catch (IOException | IllegalStateException ex) {
+                // クライアント切断（再接続時に Last-Event-ID から再送される）
+                log.debug("Progress stream closed: {}", ex.getMessage());
+                return false;
+            }
+        }
+    }
+}
@@ -9,6 +9,7 @@ import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
 import io.github.riemr.shift.optimization.entity.WorkDemandSlot;
 import io.github.riemr.shift.optimization.entity.DailyPatternAssignmentEntity;
 import io.github.riemr.shift.optimization.entity.AttendanceGroupInfo;
+import io.github.riemr.shift.optimization.entity.ConsecutiveWorkLimit;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -19,6 +20,7 @@ import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.domain.solution.ProblemFactCollectionProperty;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -26,7 +28,9 @@ import java.util.List;
 @Getter
 @Setter
 @ToString
-public class AttendanceSolution {
+public class AttendanceSolution implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long problemId;
     private LocalDate month;
@@ -52,6 +56,8 @@ public class AttendanceSolution {
     private List<LocalDate> activeDates;
     @ProblemFactCollectionProperty
     private List<EmployeeMonthlySetting> employeeMonthlySettingList;
+    @ProblemFactCollectionProperty
+    private List<ConsecutiveWorkLimit> consecutiveWorkLimitList;
 
     @PlanningEntityCollectionProperty
     private List<DailyPatternAssignmentEntity> patternAssignments;
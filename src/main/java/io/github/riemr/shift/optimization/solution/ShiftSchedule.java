@@ -26,6 +26,7 @@ import org.optaplanner.core.api.domain.solution.ProblemFactCollectionProperty;
 import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.score.buildin.hardsoft.HardSoftScore;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -37,7 +38,9 @@ import java.util.List;
 @Getter
 @Setter
 @ToString
-public class ShiftSchedule {
+public class ShiftSchedule implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /** 問題識別用 (yyyyMM) */
     private Long problemId;
@@ -1,5 +1,6 @@
 package io.github.riemr.shift.presentation.controller;
 
+import io.github.riemr.shift.application.service.ScreenAuthorizationService;
 import io.github.riemr.shift.infrastructure.mapper.AuthorityMasterMapper;
 import io.github.riemr.shift.infrastructure.mapper.AuthorityScreenPermissionMapper;
 import io.github.riemr.shift.infrastructure.persistence.entity.AuthorityMaster;
@@ -25,6 +26,7 @@ public class PermissionController {
 
     private final AuthorityMasterMapper authorityMasterMapper;
     private final AuthorityScreenPermissionMapper permissionMapper;
+    private final ScreenAuthorizationService screenAuth;
 
     private static final List<String> SCREENS = List.of(
             ScreenCodes.SHIFT_MONTHLY,
@@ -75,6 +77,7 @@ public class PermissionController {
                 permissionMapper.upsert(p);
             }
         }
+        screenAuth.invalidatePermissions();
         return "redirect:/permissions";
     }
 }
@@ -1,5 +1,8 @@
 package io.github.riemr.shift.presentation.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.riemr.shift.application.dto.DailyBoardDto;
 import io.github.riemr.shift.application.dto.ShiftAssignmentMonthlyView;
 import io.github.riemr.shift.application.dto.ShiftAssignmentView;
 import io.github.riemr.shift.application.dto.SolveRequest;
@@ -13,18 +16,13 @@ import io.github.riemr.shift.infrastructure.mapper.StoreMapper;
 import io.github.riemr.shift.application.dto.RegisterDemandHourDto;
 import io.github.riemr.shift.application.service.RegisterDemandHourService;
 import io.github.riemr.shift.application.service.TaskCategoryMasterService;
-import io.github.riemr.shift.application.service.TaskMasterService;
 import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
 import io.github.riemr.shift.optimization.entity.WorkDemandSlot;
-import io.github.riemr.shift.infrastructure.mapper.RegisterDemandIntervalMapper;
 import io.github.riemr.shift.infrastructure.mapper.WorkDemandIntervalMapper;
-import io.github.riemr.shift.infrastructure.mapper.RegisterAssignmentMapper;
 import io.github.riemr.shift.infrastructure.mapper.DepartmentTaskAssignmentMapper;
 import io.github.riemr.shift.infrastructure.mapper.EmployeeRequestMapper;
 import io.github.riemr.shift.infrastructure.mapper.ShiftAssignmentMapper;
-import io.github.riemr.shift.application.util.TimeIntervalQuarterUtils;
 import io.github.riemr.shift.application.dto.DemandIntervalDto;
-import io.github.riemr.shift.application.dto.QuarterSlot;
 import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
 import io.github.riemr.shift.infrastructure.mapper.EmployeeMapper;
 import io.github.riemr.shift.infrastructure.mapper.EmployeeDepartmentMapper;
@@ -35,9 +33,11 @@ import io.github.riemr.shift.application.dto.ShiftAttendanceSaveRequest;
 import io.github.riemr.shift.application.dto.EmployeeRequestDeleteRequest;
 import io.github.riemr.shift.application.dto.WorkDemandSaveRequest;
 import io.github.riemr.shift.application.service.AppSettingService;
+import io.github.riemr.shift.application.service.DailyBoardService;
 import io.github.riemr.shift.application.service.WorkDemandIntervalService;
 import io.github.riemr.shift.application.dto.StaffingBalanceDto;
 import io.github.riemr.shift.application.dto.ScorePoint;
+import io.github.riemr.shift.application.dto.SolverRegistryFootprint;
 import io.github.riemr.shift.application.dto.DailySolveRequest;
 import io.github.riemr.shift.infrastructure.persistence.entity.DepartmentTaskAssignment;
 import io.github.riemr.shift.infrastructure.persistence.entity.TaskCategoryMaster;
@@ -46,9 +46,15 @@ import io.github.riemr.shift.util.OffRequestKinds;
 import io.github.riemr.shift.util.EmployeeRequestKinds;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.time.ZoneId;
@@ -64,7 +70,6 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -82,11 +87,8 @@ public class ShiftDailyShiftController {
     private final StoreMapper storeMapper;
     private final RegisterDemandHourService registerDemandHourService;
     private final TaskCategoryMasterService taskCategoryMasterService;
-    private final TaskMasterService taskMasterService;
     private final WorkDemandIntervalService workDemandIntervalService;
-    private final RegisterDemandIntervalMapper registerDemandIntervalMapper;
     private final WorkDemandIntervalMapper workDemandIntervalMapper;
-    private final RegisterAssignmentMapper registerAssignmentMapper;
     private final DepartmentTaskAssignmentMapper departmentTaskAssignmentMapper;
     private final ShiftAssignmentMapper shiftAssignmentMapper;
     private final EmployeeRequestMapper employeeRequestMapper;
@@ -94,6 +96,8 @@ public class ShiftDailyShiftController {
     private final EmployeeDepartmentMapper employeeDepartmentMapper;
     private final StoreDepartmentMapper storeDepartmentMapper;
     private final AppSettingService appSettingService;
+    private final DailyBoardService dailyBoardService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/daily-shift")
     @PreAuthorize("@screenAuth.hasViewPermission(T(io.github.riemr.shift.util.ScreenCodes).SHIFT_DAILY)")
@@ -145,7 +149,7 @@ public class ShiftDailyShiftController {
         // 事前準備処理はShiftScheduleService内で実行されるため、ここでは実行しない
         
         // 既存の最適化（作業割当まで）
-        return service.startSolveMonth(cycleStart, req.storeCode(), req.departmentCode());
+        return service.startSolveMonth(cycleStart, req.storeCode(), req.departmentCode(), req.reproducible(), req.seed());
     }
 
     // 新規: 月次シフト最適化（出勤のみ決定）
@@ -157,7 +161,7 @@ public class ShiftDailyShiftController {
         int startDay = appSettingService.getShiftCycleStartDay();
         LocalDate cycleStart = computeCycleStart(base, startDay);
         log.info("Starting attendance optimization for month={}, store={}, dept={}", req.month(), req.storeCode(), req.departmentCode());
-        return service.startSolveAttendanceMonth(cycleStart, req.storeCode(), req.departmentCode());
+        return service.startSolveAttendanceMonth(cycleStart, req.storeCode(), req.departmentCode(), req.reproducible(), req.seed());
     }
 
     // 新規: 作業割当（出勤済み前提で細目割当）
@@ -169,7 +173,7 @@ public class ShiftDailyShiftController {
         int startDay = appSettingService.getShiftCycleStartDay();
         LocalDate cycleStart = computeCycleStart(base, startDay);
         log.info("Starting assignment optimization for month={}, store={}, dept={}", req.month(), req.storeCode(), req.departmentCode());
-        return service.startSolveMonth(cycleStart, req.storeCode(), req.departmentCode());
+        return service.startSolveMonth(cycleStart, req.storeCode(), req.departmentCode(), req.reproducible(), req.seed());
     }
 
     private LocalDate computeCycleStart(LocalDate anyDate, int startDay) {
@@ -195,6 +199,27 @@ public class ShiftDailyShiftController {
                 : service.getStatus(id, storeCode, departmentCode, stage);
     }
 
+    /**
+     * 最適化の進捗を SSE で配信する（phase / score / done / failed）。
+     * 再接続時はブラウザが送る Last-Event-ID（または lastEventId パラメータ）以降を再送する。
+     */
+    @GetMapping(value = "/api/calc/progress/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter progress(@PathVariable("id") String id,
+                               @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                               @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        String raw = (lastEventIdHeader != null && !lastEventIdHeader.isBlank()) ? lastEventIdHeader : lastEventIdParam;
+        Long lastEventId = null;
+        if (raw != null && !raw.isBlank()) {
+            try {
+                lastEventId = Long.parseLong(raw.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid Last-Event-ID '{}' for ticket {}", raw, id);
+            }
+        }
+        return service.streamProgress(id, lastEventId);
+    }
+
     @GetMapping("/api/calc/result/{id}")
     @ResponseBody
     public List<ShiftAssignmentView> result(@PathVariable("id") String id,
@@ -215,82 +240,49 @@ public class ShiftDailyShiftController {
         return service.getScoreSeries(id, storeCode, departmentCode);
     }
 
+    // 開発者向け: ソルバーのジョブ状態・進捗配信が保持しているメモリ量の概算
+    @GetMapping("/api/calc/jobs/footprint")
+    @ResponseBody
+    public SolverRegistryFootprint solverFootprint() {
+        return service.getSolverFootprint();
+    }
+
+    /**
+     * 日次シフト画面の表示データを 1 リクエストで返す（ETag 付き）。
+     * 内容が変わっていなければ If-None-Match に対して 304 を返す。
+     * <p>
+     * ETag は応答本文（JSON）のハッシュのため、304 でもボードの読み込みは毎回行う。
+     * 節約できるのは転送量とブラウザ側の再描画のみ。ボードは更新日時を持たない複数テーブル
+     * （出勤・レジ/作業割当・需要・マスタ等）から組み立てるため、安価な版数で読み込み前に判定することはしない。
+     * 本文は一度だけ直列化し、そのバイト列をハッシュと応答の両方に使う。
+     */
+    @GetMapping("/api/calc/daily-board/{date}")
+    @ResponseBody
+    public ResponseEntity<byte[]> getDailyBoard(@PathVariable("date") String dateString,
+                                                @RequestParam("storeCode") String storeCode,
+                                                @RequestParam(value = "departmentCode", required = false) String departmentCode,
+                                                WebRequest webRequest) throws JsonProcessingException {
+        LocalDate date = LocalDate.parse(dateString, DateTimeFormatter.ISO_LOCAL_DATE);
+        DailyBoardDto board = dailyBoardService.load(storeCode, departmentCode, date);
+        byte[] body = objectMapper.writeValueAsBytes(board);
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(body);
+    }
+
     @GetMapping("/api/calc/assignments/daily/{date}")
     @ResponseBody
     public List<ShiftAssignmentView> getAssignmentsByDate(@PathVariable("date") String dateString,
                                                           @RequestParam("storeCode") String storeCode,
                                                           @RequestParam(value = "departmentCode", required = false) String departmentCode) {
         LocalDate date = LocalDate.parse(dateString, DateTimeFormatter.ISO_LOCAL_DATE);
-        var zone = ZoneId.systemDefault();
-        var from = date;
-        var to = date.plusDays(1);
-
-        List<ShiftAssignmentView> results = new ArrayList<>();
-
-        // 従業員名マップ
-        var employees = employeeMapper.selectByStoreCode(storeCode);
-        Map<String, String> empName = employees.stream().collect(Collectors.toMap(
-                Employee::getEmployeeCode,
-                Employee::getEmployeeName,
-                (a,b) -> a));
-
-        boolean isRegisterDept = (departmentCode == null || departmentCode.isBlank() || "520".equalsIgnoreCase(departmentCode));
-        if (isRegisterDept) {
-            var reg = registerAssignmentMapper.selectByDate(from, to).stream()
-                    .filter(r -> storeCode.equals(r.getStoreCode()))
-                    .toList();
-            for (var a : reg) {
-                String code = a.getEmployeeCode();
-                String name = (code == null) ? null : empName.getOrDefault(code, code);
-                results.add(new ShiftAssignmentView(
-                        a.getStartAt().toInstant().atZone(zone).toLocalDateTime().toString(),
-                        a.getEndAt().toInstant().atZone(zone).toLocalDateTime().toString(),
-                        a.getRegisterNo(),
-                        "520",
-                        "REGISTER_OP",
-                        null,
-                        code,
-                        name
-                ));
-            }
-
-            var tasks = departmentTaskAssignmentMapper.selectByDate(storeCode, "520", from, to);
-            for (var t : tasks) {
-                String code = t.getEmployeeCode();
-                String name = (code == null) ? null : empName.getOrDefault(code, code);
-                results.add(new ShiftAssignmentView(
-                        t.getStartAt().toInstant().atZone(zone).toLocalDateTime().toString(),
-                        t.getEndAt().toInstant().atZone(zone).toLocalDateTime().toString(),
-                        null,
-                        "520",
-                        "DEPARTMENT_TASK",
-                        t.getTaskCode(),
-                        code,
-                        name
-                ));
-            }
-        }
-
-        if (departmentCode != null && !departmentCode.isBlank() && !"520".equalsIgnoreCase(departmentCode)) {
-            var tasks = departmentTaskAssignmentMapper.selectByDate(storeCode, departmentCode, from, to);
-            for (var t : tasks) {
-                String code = t.getEmployeeCode();
-                String name = (code == null) ? null : empName.getOrDefault(code, code);
-                results.add(new ShiftAssignmentView(
-                        t.getStartAt().toInstant().atZone(zone).toLocalDateTime().toString(),
-                        t.getEndAt().toInstant().atZone(zone).toLocalDateTime().toString(),
-                        null,
-                        departmentCode,
-                        "DEPARTMENT_TASK",
-                        t.getTaskCode(),
-                        code,
-                        name
-                ));
-            }
-        }
-
-        results.sort(Comparator.comparing(ShiftAssignmentView::startAt));
-        return results;
+        return dailyBoardService.assignments(storeCode, departmentCode, date);
     }
 
     @GetMapping("/api/calc/shifts/monthly/{ym}")
@@ -310,9 +302,7 @@ public class ShiftDailyShiftController {
                 (a,b) -> a));
 
         // 出勤（shift_assignment）を返す：部門指定は関係なく、店舗ベースで集計
-        var shifts = shiftAssignmentMapper.selectByMonth(from, to).stream()
-                .filter(s -> storeCode.equals(s.getStoreCode()))
-                .toList();
+        var shifts = shiftAssignmentMapper.selectByStoreAndRange(storeCode, from, to);
         List<ShiftAssignmentMonthlyView> out = new ArrayList<>(shifts.size());
         for (var s : shifts) {
             String code = s.getEmployeeCode();
@@ -343,32 +333,13 @@ public class ShiftDailyShiftController {
     public List<RegisterDemandSlot> getWorkModelSlotsByDate(@PathVariable("date") String dateString,
                                                             @RequestParam("storeCode") String storeCode) {
         LocalDate date = LocalDate.parse(dateString, DateTimeFormatter.ISO_LOCAL_DATE);
-        var intervals = registerDemandIntervalMapper.selectByStoreAndDate(storeCode, date);
-        int resMin = appSettingService.getTimeResolutionMinutes();
-        var quarters = TimeIntervalQuarterUtils.splitAll(intervals, resMin);
-        List<RegisterDemandSlot> result = new ArrayList<>(quarters.size());
-        for (QuarterSlot qs : quarters) {
-            RegisterDemandSlot slot = new RegisterDemandSlot();
-            slot.setStoreCode(qs.getStoreCode());
-            slot.setDemandDate(qs.getDate());
-            slot.setSlotTime(qs.getStart());
-            slot.setRequiredUnits(qs.getDemand());
-            slot.setRegisterNo(qs.getRegisterNo());
-            result.add(slot);
-        }
-        return result;
+        return dailyBoardService.registerDemandSlots(storeCode, date);
     }
 
     @GetMapping("/api/calc/task-masters")
     @ResponseBody
     public List<TaskMaster> getTaskMasters(@RequestParam(value = "departmentCode", required = false) String departmentCode) {
-        var list = taskMasterService.list();
-        if (departmentCode == null || departmentCode.isBlank()) {
-            return list;
-        }
-        return list.stream()
-                .filter(t -> departmentCode.equals(t.getDepartmentCode()))
-                .toList();
+        return dailyBoardService.taskMasters(departmentCode);
     }
 
     @GetMapping("/api/calc/task-categories")
@@ -512,32 +483,7 @@ public class ShiftDailyShiftController {
                                               @RequestParam(value = "departmentCode", required = false) String departmentCode) {
         // 指定日の出勤者のみ（shift_assignment）
         LocalDate date = LocalDate.parse(dateString, DateTimeFormatter.ISO_LOCAL_DATE);
-        var from = date;
-        var to = date.plusDays(1);
-        var attendances = shiftAssignmentMapper.selectByDate(from, to).stream()
-                .filter(a -> storeCode.equals(a.getStoreCode()))
-                .toList();
-        Set<String> attendEmp = attendances.stream()
-                .map(a -> a.getEmployeeCode())
-                .filter(Objects::nonNull)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-
-        if (attendEmp.isEmpty()) return List.of();
-
-        var list = employeeMapper.selectByStoreCode(storeCode).stream()
-                .filter(e -> attendEmp.contains(e.getEmployeeCode()))
-                .collect(Collectors.toList());
-
-        // 部門指定（非レジ部門）の場合は部門所属者でさらにフィルタ
-        if (departmentCode != null && !departmentCode.isBlank() && !"520".equalsIgnoreCase(departmentCode)) {
-            var edList = employeeDepartmentMapper.selectByDepartment(departmentCode);
-            var allowed = edList.stream().map(ed -> ed.getEmployeeCode()).collect(Collectors.toSet());
-            list = list.stream().filter(e -> allowed.contains(e.getEmployeeCode())).toList();
-        }
-
-        // 安定出力のため社員コードでソート
-        list.sort(Comparator.comparing(Employee::getEmployeeCode));
-        return list;
+        return dailyBoardService.attendingEmployees(storeCode, departmentCode, date);
     }
 
     @GetMapping("/api/departments/{storeCode}")
@@ -0,0 +1,34 @@
+package io.github.riemr.shift.util;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * 複数行 INSERT 用のチャンク分割ヘルパー。
+ * PostgreSQL のバインドパラメータ上限（65535）を超えないよう、一定行数ごとに 1 文として発行する。
+ */
+public final class BulkWrites {
+
+    /** 1 文あたりの最大行数（7 列 × 1000 行 = 7000 パラメータ） */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private BulkWrites() {
+    }
+
+    /**
+     * rows をチャンクに分けて writer（multi-row INSERT マッパー）へ渡し、影響行数の合計を返す。
+     */
+    public static <T> int inChunks(List<T> rows, ToIntFunction<List<T>> writer) {
+        return inChunks(rows, DEFAULT_CHUNK_SIZE, writer);
+    }
+
+    public static <T> int inChunks(List<T> rows, int chunkSize, ToIntFunction<List<T>> writer) {
+        if (rows == null || rows.isEmpty()) return 0;
+        int size = Math.max(1, chunkSize);
+        int total = 0;
+        for (int i = 0; i < rows.size(); i += size) {
+            total += writer.applyAsInt(rows.subList(i, Math.min(rows.size(), i + size)));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.riemr.shift.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * 保存済みの行と新しい解の行を自然キーで突き合わせ、必要な INSERT / UPDATE / DELETE だけを求める差分。
+ * 再最適化で変化が少ない月でも、書き込み量を変更件数に比例させるために使う。
+ *
+ * @param <T> 行の型
+ */
+public final class RowDelta<T> {
+
+    /** 適用結果の件数 */
+    public record Counts(int inserted, int updated, int deleted, int unchanged) {
+        @Override
+        public String toString() {
+            return "inserted=" + inserted + ", updated=" + updated + ", deleted=" + deleted + ", unchanged=" + unchanged;
+        }
+
+        /** 実際に書き込んだ行数（INSERT + UPDATE + DELETE） */
+        public int written() {
+            return inserted + updated + deleted;
+        }
+    }
+
+    private final List<T> inserts;
+    private final List<T> updates;
+    private final List<T> deletes;
+    private final int unchanged;
+
+    private RowDelta(List<T> inserts, List<T> updates, List<T> deletes, int unchanged) {
+        this.inserts = inserts;
+        this.updates = updates;
+        this.deletes = deletes;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * @param existing    保存済みの行（主キー付き）
+     * @param desired     新しい解の行（主キーなし）。同一キーが重複する場合は先勝ち
+     * @param key         自然キー（一意制約に対応するもの）
+     * @param sameContent キー以外の列が一致するか（existing, desired）
+     * @param carryId     更新対象の desired へ existing の主キーを引き継ぐ（existing, desired）
+     */
+    public static <T, K> RowDelta<T> of(List<T> existing,
+                                        List<T> desired,
+                                        Function<T, K> key,
+                                        BiPredicate<T, T> sameContent,
+                                        BiConsumer<T, T> carryId) {
+        Map<K, T> current = new LinkedHashMap<>();
+        List<T> deletes = new ArrayList<>();
+        for (T row : existing) {
+            // 一意制約があるため通常は起きないが、重複分は削除対象にする
+            if (current.putIfAbsent(key.apply(row), row) != null) deletes.add(row);
+        }
+        List<T> inserts = new ArrayList<>();
+        List<T> updates = new ArrayList<>();
+        int unchanged = 0;
+        Map<K, Boolean> seen = new LinkedHashMap<>();
+        for (T row : desired) {
+            K k = key.apply(row);
+            if (seen.putIfAbsent(k, Boolean.TRUE) != null) continue;
+            T old = current.remove(k);
+            if (old == null) {
+                inserts.add(row);
+            } else if (sameContent.test(old, row)) {
+                unchanged++;
+            } else {
+                carryId.accept(old, row);
+                updates.add(row);
+            }
+        }
+        deletes.addAll(current.values());
+        return new RowDelta<>(inserts, updates, deletes, unchanged);
+    }
+
+    /**
+     * DELETE → UPDATE → INSERT の順で適用する（キーの付け替えで一意制約に当たらないよう削除を先に行う）。
+     *
+     * @param deleter 複数行 DELETE（チャンク単位で呼ばれる）
+     * @param updater 1 行 UPDATE
+     * @param inserter 複数行 INSERT（チャンク単位で呼ばれる）
+     */
+    public Counts apply(ToIntFunction<List<T>> deleter, ToIntFunction<T> updater, ToIntFunction<List<T>> inserter) {
+        int deleted = BulkWrites.inChunks(deletes, deleter);
+        int updated = 0;
+        for (T row : updates) updated += updater.applyAsInt(row);
+        int inserted = BulkWrites.inChunks(inserts, inserter);
+        return new Counts(inserted, updated, deleted, unchanged);
+    }
+
+    public boolean isEmpty() {
+        return inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty();
+    }
+}
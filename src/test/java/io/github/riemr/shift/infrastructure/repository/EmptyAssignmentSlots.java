@@ -0,0 +1,36 @@
+package io.github.riemr.shift.infrastructure.repository;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.Register;
+import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
+import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.WorkDemandSlot;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * テストから {@link ShiftScheduleRepositoryImpl} のスロット生成（パッケージ内限定）を使うための窓口。
+ * 合成問題の生成（SyntheticProblemGenerator）がローダーと同じ手順でスロットを作るのに使う。
+ */
+public final class EmptyAssignmentSlots {
+
+    private EmptyAssignmentSlots() {
+    }
+
+    /** レジ需要からレジ操作スロットを作る（{@link ShiftScheduleRepositoryImpl#buildEmptyAssignments}） */
+    public static List<ShiftAssignmentPlanningEntity> register(List<RegisterDemandSlot> demandList,
+                                                               List<Register> registerList,
+                                                               String departmentCode,
+                                                               int minutesPerSlot,
+                                                               LongSupplier idSeq) {
+        return ShiftScheduleRepositoryImpl.buildEmptyAssignments(demandList, registerList, departmentCode, minutesPerSlot, idSeq);
+    }
+
+    /** 作業需要から部門作業スロットを作る（{@link ShiftScheduleRepositoryImpl#buildEmptyWorkAssignments}） */
+    public static List<ShiftAssignmentPlanningEntity> work(List<WorkDemandSlot> demandList,
+                                                           String departmentCode,
+                                                           int minutesPerSlot,
+                                                           LongSupplier idSeq) {
+        return ShiftScheduleRepositoryImpl.buildEmptyWorkAssignments(demandList, departmentCode, minutesPerSlot, idSeq);
+    }
+}
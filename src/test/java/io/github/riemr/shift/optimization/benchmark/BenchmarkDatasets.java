@@ -0,0 +1,75 @@
+package io.github.riemr.shift.optimization.benchmark;
+
+import io.github.riemr.shift.optimization.dataset.SolutionDatasets;
+import io.github.riemr.shift.optimization.service.SyntheticProblemGenerator;
+import io.github.riemr.shift.optimization.service.SyntheticProblemSpec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * ベンチマーク用データセットの解決。
+ * <ul>
+ *   <li>shift.benchmark.data-dir: 保存済みデータセット {stage}/*.ser の置き場所（既定: benchmark-data）</li>
+ *   <li>shift.benchmark.synthetic-sizes: データセットが無いときに合成する問題の従業員数（既定 30,100,300）</li>
+ * </ul>
+ */
+final class BenchmarkDatasets {
+
+    static final String ATTENDANCE = "attendance";
+    static final String ASSIGNMENT = "assignment";
+
+    private static final Path DATA_DIR = Path.of(System.getProperty("shift.benchmark.data-dir", "benchmark-data"));
+    private static final String SYNTHETIC_SIZES = System.getProperty("shift.benchmark.synthetic-sizes", "30,100,300");
+    private static final Path SYNTHETIC_DIR = Path.of("target", "benchmark-data");
+
+    private BenchmarkDatasets() {
+    }
+
+    /** ステージのデータセット。無ければ合成問題を書き出して使い、それも無ければテストをスキップする */
+    static List<File> list(String stage) throws IOException {
+        Path dir = DATA_DIR.resolve(stage);
+        List<File> files = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> s = Files.list(dir)) {
+                s.filter(p -> p.getFileName().toString().endsWith("." + SolutionDatasets.FILE_EXTENSION))
+                        .sorted()
+                        .forEach(p -> files.add(p.toFile()));
+            }
+        }
+        if (files.isEmpty()) {
+            files.addAll(synthetic(stage));
+        }
+        assumeFalse(files.isEmpty(), "No " + stage + " datasets under " + dir.toAbsolutePath());
+        return files;
+    }
+
+    /** 保存済みデータセットが無いときは、従業員数を変えた合成問題を書き出して使う */
+    private static List<File> synthetic(String stage) {
+        List<File> files = new ArrayList<>();
+        for (String size : SYNTHETIC_SIZES.split(",")) {
+            if (size.isBlank()) continue;
+            int employees = Integer.parseInt(size.trim());
+            SyntheticProblemGenerator generator = new SyntheticProblemGenerator(SyntheticProblemSpec.builder()
+                    .employees(employees)
+                    .registers(Math.max(2, employees / 8))
+                    .departments(1 + employees / 50)
+                    .build());
+            Serializable problem = ATTENDANCE.equals(stage)
+                    ? generator.attendanceProblem()
+                    : generator.assignmentProblem();
+            Path file = SYNTHETIC_DIR.resolve(stage).resolve("synthetic-" + employees + "." + SolutionDatasets.FILE_EXTENSION);
+            SolutionDatasets.write(problem, file);
+            files.add(file.toFile());
+        }
+        return files;
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.riemr.shift.optimization.benchmark;
+
+import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintFactory;
+import org.optaplanner.core.api.score.stream.ConstraintProvider;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 対象の ConstraintProvider を包み、指定した制約だけを評価させる。
+ * <p>
+ * OptaPlanner が引数なしで生成するため、対象と制約名は
+ * ScoreDirectorFactoryConfig#constraintProviderCustomProperties（delegate / constraint）で渡す。
+ * constraint が空なら全制約。返さなかったストリームはノードが作られないので、単体の計算コストを測れる。
+ */
+public class IsolatedConstraintProvider implements ConstraintProvider {
+
+    /** 対象クラスごとの全制約名（定義順）。一度組み立てると分かる */
+    private static final Map<String, List<String>> CONSTRAINT_NAMES = new ConcurrentHashMap<>();
+
+    private String delegate;
+    private String constraint = "";
+
+    public void setDelegate(String delegate) {
+        this.delegate = delegate;
+    }
+
+    public void setConstraint(String constraint) {
+        this.constraint = constraint == null ? "" : constraint;
+    }
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory factory) {
+        Constraint[] all = newDelegate().defineConstraints(factory);
+        CONSTRAINT_NAMES.put(delegate, Arrays.stream(all).map(Constraint::getConstraintName).toList());
+        if (constraint.isEmpty()) return all;
+        Constraint[] selected = Arrays.stream(all)
+                .filter(c -> constraint.equals(c.getConstraintName()))
+                .toArray(Constraint[]::new);
+        if (selected.length == 0) {
+            throw new IllegalArgumentException("Unknown constraint '" + constraint + "' in " + delegate
+                    + " (available: " + CONSTRAINT_NAMES.get(delegate) + ")");
+        }
+        return selected;
+    }
+
+    /** 全制約で一度でも組み立てた後に呼ぶこと */
+    static List<String> constraintNames(Class<? extends ConstraintProvider> delegate) {
+        List<String> names = CONSTRAINT_NAMES.get(delegate.getName());
+        if (names == null) {
+            throw new IllegalStateException("Constraints of " + delegate.getSimpleName() + " have not been built yet");
+        }
+        return names;
+    }
+
+    private ConstraintProvider newDelegate() {
+        if (delegate == null) {
+            throw new IllegalStateException("constraintProviderCustomProperties.delegate is required");
+        }
+        try {
+            return Class.forName(delegate).asSubclass(ConstraintProvider.class).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate constraint provider " + delegate, e);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.riemr.shift.optimization.benchmark;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.optimization.constraint.AttendanceConstraintProvider;
+import io.github.riemr.shift.optimization.constraint.ShiftScheduleConstraintProvider;
+import io.github.riemr.shift.optimization.dataset.SolutionDatasets;
+import io.github.riemr.shift.optimization.entity.DailyPatternAssignmentEntity;
+import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.solution.AttendanceSolution;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.stream.ConstraintProvider;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+import org.optaplanner.core.impl.solver.DefaultSolverFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 制約単位のスコア計算スループット（moves/s）を測る。
+ * <p>
+ * データセットごとに、ScoreDirector 上でランダムな change / swap ムーブ（変更→スコア計算）を一定時間繰り返し、
+ * 全制約と、各制約を単独で有効にした場合の 1 秒あたりムーブ数を出す。乱数は固定なので同じデータなら同じムーブ列になる。
+ * 制約を書き換える際の回帰確認に使う。
+ * <p>
+ * 通常のテストからは除外している。実行は {@code ./mvnw test -Pbenchmark -Dtest=ScoreCalculationBenchmarkTest}。
+ * 結果は target/benchmark-report/score-calculation-{stage}.csv に出る（ログには全制約の値と出力先のみ）。
+ * <ul>
+ *   <li>shift.benchmark.score-calc.warm-up: 計測前の空回し時間（既定 PT5S）</li>
+ *   <li>shift.benchmark.score-calc.measure: 計測時間（既定 PT10S）</li>
+ *   <li>shift.benchmark.score-calc.constraints: 単独計測する制約名（カンマ区切り。既定は全制約）</li>
+ *   <li>shift.benchmark.score-calc.min-moves-per-second: 全制約のスループット下限（指定時のみ検査）</li>
+ * </ul>
+ */
+@Tag("benchmark")
+@Slf4j
+class ScoreCalculationBenchmarkTest {
+
+    private static final Path REPORT_DIR = Path.of("target", "benchmark-report");
+    private static final Duration WARM_UP = Duration.parse(System.getProperty("shift.benchmark.score-calc.warm-up", "PT5S"));
+    private static final Duration MEASURE = Duration.parse(System.getProperty("shift.benchmark.score-calc.measure", "PT10S"));
+    private static final String CONSTRAINTS = System.getProperty("shift.benchmark.score-calc.constraints", "");
+    private static final String MIN_MOVES_PER_SECOND = System.getProperty("shift.benchmark.score-calc.min-moves-per-second", "");
+    private static final long SEED = 42L;
+    /** change と swap の比率（swap は 1 - この値） */
+    private static final double CHANGE_RATIO = 0.5;
+    /** ATTENDANCE の change で非出勤（null）にする確率 */
+    private static final double UNASSIGN_RATIO = 0.2;
+    private static final String ALL = "(all)";
+
+    @Test
+    void attendanceConstraints() throws IOException {
+        run(BenchmarkDatasets.ATTENDANCE, AttendanceSolution.class, DailyPatternAssignmentEntity.class,
+                AttendanceConstraintProvider.class,
+                sol -> sol.getPatternAssignments().stream()
+                        .filter(e -> !e.isPinned())
+                        .map(e -> new Slot<>(e, e.getEligibleEmployees(), true,
+                                DailyPatternAssignmentEntity::getAssignedEmployee,
+                                DailyPatternAssignmentEntity::setAssignedEmployee))
+                        .toList());
+    }
+
+    @Test
+    void assignmentConstraints() throws IOException {
+        run(BenchmarkDatasets.ASSIGNMENT, ShiftSchedule.class, ShiftAssignmentPlanningEntity.class,
+                ShiftScheduleConstraintProvider.class,
+                sol -> sol.getAssignmentList().stream()
+                        .map(e -> new Slot<>(e, e.getAvailableEmployees(), false,
+                                ShiftAssignmentPlanningEntity::getAssignedEmployee,
+                                ShiftAssignmentPlanningEntity::setAssignedEmployee))
+                        .toList());
+    }
+
+    private static <S, E> void run(String stage, Class<S> solutionClass, Class<E> entityClass,
+                                   Class<? extends ConstraintProvider> provider,
+                                   Function<S, List<Slot<E>>> slots) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("dataset,constraint,moves,seconds,moves_per_second");
+        for (File dataset : BenchmarkDatasets.list(stage)) {
+            // 全制約を先に組み立てると制約名が分かる
+            long all = measure(dataset, solutionClass, entityClass, provider, "", slots);
+            lines.add(line(dataset, ALL, all));
+            log.info("{} {}: {} moves/s", dataset.getName(), ALL, String.format("%.0f", perSecond(all)));
+            List<String> names = CONSTRAINTS.isBlank()
+                    ? IsolatedConstraintProvider.constraintNames(provider)
+                    : List.of(CONSTRAINTS.split("\\s*,\\s*"));
+            for (String name : names) {
+                lines.add(line(dataset, name, measure(dataset, solutionClass, entityClass, provider, name, slots)));
+            }
+            if (!MIN_MOVES_PER_SECOND.isBlank()) {
+                double min = Double.parseDouble(MIN_MOVES_PER_SECOND);
+                assertTrue(perSecond(all) >= min,
+                        dataset.getName() + ": " + ALL + " is below " + min + " moves/s");
+            }
+        }
+        Path csv = REPORT_DIR.resolve("score-calculation-" + stage + ".csv");
+        Files.createDirectories(csv.getParent());
+        Files.write(csv, lines);
+        log.info("Score calculation report ({}): {}", stage, csv.toAbsolutePath());
+    }
+
+    /** @return 計測時間内に実行したムーブ数 */
+    @SuppressWarnings("unchecked")
+    private static <S, E> long measure(File dataset, Class<S> solutionClass, Class<E> entityClass,
+                                       Class<? extends ConstraintProvider> provider, String constraint,
+                                       Function<S, List<Slot<E>>> slotsOf) {
+        // 制約ごとに読み直して、どの計測も同じ初期状態・同じムーブ列から始める
+        S solution = SolutionDatasets.read(dataset.toPath(), solutionClass);
+        Random random = new Random(SEED);
+        List<Slot<E>> slots = slotsOf.apply(solution).stream().filter(s -> !s.values().isEmpty()).toList();
+        if (slots.isEmpty()) return 0;
+        // 初期解なしのデータセットでも計測できるよう、未割当は乱数で埋めておく
+        for (Slot<E> slot : slots) {
+            if (slot.getter().apply(slot.entity()) == null && !slot.nullable()) {
+                slot.setter().accept(slot.entity(), slot.values().get(random.nextInt(slot.values().size())));
+            }
+        }
+
+        SolverConfig config = new SolverConfig()
+                .withSolutionClass(solutionClass)
+                .withEntityClasses(entityClass)
+                .withScoreDirectorFactory(new ScoreDirectorFactoryConfig()
+                        .withConstraintProviderClass(IsolatedConstraintProvider.class)
+                        .withConstraintProviderCustomProperties(Map.of(
+                                "delegate", provider.getName(),
+                                "constraint", constraint)));
+        DefaultSolverFactory<S> factory = (DefaultSolverFactory<S>) SolverFactory.<S>create(config);
+        try (InnerScoreDirector<S, ?> director = factory.getScoreDirectorFactory().buildScoreDirector(false, false)) {
+            director.setWorkingSolution(solution);
+            director.calculateScore();
+            runMoves(director, slots, random, WARM_UP);
+            return runMoves(director, slots, random, MEASURE);
+        }
+    }
+
+    private static <S, E> long runMoves(InnerScoreDirector<S, ?> director, List<Slot<E>> slots,
+                                        Random random, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long moves = 0;
+        while (System.nanoTime() < deadline) {
+            Slot<E> a = slots.get(random.nextInt(slots.size()));
+            if (random.nextDouble() < CHANGE_RATIO || !swap(director, a, slots.get(random.nextInt(slots.size())))) {
+                Employee value = a.nullable() && random.nextDouble() < UNASSIGN_RATIO
+                        ? null
+                        : a.values().get(random.nextInt(a.values().size()));
+                change(director, a, value);
+            }
+            director.calculateScore();
+            moves++;
+        }
+        return moves;
+    }
+
+    private static <E> void change(InnerScoreDirector<?, ?> director, Slot<E> slot, Employee value) {
+        director.beforeVariableChanged(slot.entity(), Slot.VARIABLE);
+        slot.setter().accept(slot.entity(), value);
+        director.afterVariableChanged(slot.entity(), Slot.VARIABLE);
+        director.triggerVariableListeners();
+    }
+
+    /** 互いの値が相手の候補に含まれるときだけ入れ替える。入れ替えられなければ false */
+    private static <E> boolean swap(InnerScoreDirector<?, ?> director, Slot<E> a, Slot<E> b) {
+        if (a == b) return false;
+        Employee va = a.getter().apply(a.entity());
+        Employee vb = b.getter().apply(b.entity());
+        if (va == vb || !accepts(a, vb) || !accepts(b, va)) return false;
+        director.beforeVariableChanged(a.entity(), Slot.VARIABLE);
+        director.beforeVariableChanged(b.entity(), Slot.VARIABLE);
+        a.setter().accept(a.entity(), vb);
+        b.setter().accept(b.entity(), va);
+        director.afterVariableChanged(a.entity(), Slot.VARIABLE);
+        director.afterVariableChanged(b.entity(), Slot.VARIABLE);
+        director.triggerVariableListeners();
+        return true;
+    }
+
+    private static boolean accepts(Slot<?> slot, Employee value) {
+        return value == null ? slot.nullable() : slot.values().contains(value);
+    }
+
+    private static String line(File dataset, String constraint, long moves) {
+        return String.format("%s,\"%s\",%d,%.1f,%.0f",
+                dataset.getName(), constraint, moves, MEASURE.toMillis() / 1000.0, perSecond(moves));
+    }
+
+    private static double perSecond(long moves) {
+        return moves * 1000.0 / MEASURE.toMillis();
+    }
+
+    /** 1 エンティティ分のムーブ対象（両ステージとも変数名は assignedEmployee） */
+    private record Slot<E>(E entity, List<Employee> values, boolean nullable,
+                           Function<E, Employee> getter, BiConsumer<E, Employee> setter) {
+        static final String VARIABLE = "assignedEmployee";
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.riemr.shift.optimization.benchmark;
+
+import io.github.riemr.shift.optimization.dataset.SolutionDatasets;
+import io.github.riemr.shift.optimization.solution.AttendanceSolution;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import org.optaplanner.persistence.common.api.domain.solution.SolutionFileIO;
+
+import java.io.File;
+import java.io.Serializable;
+
+/**
+ * Benchmarker 用の SolutionFileIO。{@link SolutionDatasets} で書き出した .ser データセットを読み書きする。
+ * Benchmarker はクラス指定で生成するため、ソリューション型ごとにサブクラスを用意する。
+ */
+public abstract class SerializedSolutionFileIO<S extends Serializable> implements SolutionFileIO<S> {
+
+    private final Class<S> solutionClass;
+
+    SerializedSolutionFileIO(Class<S> solutionClass) {
+        this.solutionClass = solutionClass;
+    }
+
+    @Override
+    public String getInputFileExtension() {
+        return SolutionDatasets.FILE_EXTENSION;
+    }
+
+    @Override
+    public S read(File inputSolutionFile) {
+        return SolutionDatasets.read(inputSolutionFile.toPath(), solutionClass);
+    }
+
+    @Override
+    public void write(S solution, File outputSolutionFile) {
+        SolutionDatasets.write(solution, outputSolutionFile.toPath());
+    }
+
+    public static class ShiftScheduleFileIO extends SerializedSolutionFileIO<ShiftSchedule> {
+        public ShiftScheduleFileIO() {
+            super(ShiftSchedule.class);
+        }
+    }
+
+    public static class AttendanceSolutionFileIO extends SerializedSolutionFileIO<AttendanceSolution> {
+        public AttendanceSolutionFileIO() {
+            super(AttendanceSolution.class);
+        }
+    }
+}
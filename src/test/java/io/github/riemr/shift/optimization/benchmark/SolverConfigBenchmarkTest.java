@@ -0,0 +1,174 @@
+package io.github.riemr.shift.optimization.benchmark;
+
+import io.github.riemr.shift.optimization.config.OptaPlannerConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+import org.optaplanner.benchmark.config.PlannerBenchmarkConfig;
+import org.optaplanner.benchmark.config.ProblemBenchmarksConfig;
+import org.optaplanner.benchmark.config.SolverBenchmarkConfig;
+import org.optaplanner.benchmark.config.statistic.ProblemStatisticType;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.persistence.common.api.domain.solution.SolutionFileIO;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * OptaPlannerConfig の現行フェーズ構成と代替構成を、保存済みデータセットで比較する。
+ * <p>
+ * 通常のテストからは除外している。実行は {@code ./mvnw test -Pbenchmark}。
+ * データセットは shift.solver.dataset-dump-dir で書き出した {stage}/*.ser を
+ * {@code -Dshift.benchmark.data-dir}（既定: benchmark-data）に置く。店舗規模の異なるものを複数置くこと
+ * （解決方法は {@link BenchmarkDatasets}）。
+ * HTML レポートは target/benchmark-report/{stage} に出力される（ブラウザは開かない）。
+ * <ul>
+ *   <li>shift.benchmark.spent-limit: 1 ソルブあたりの時間（既定 PT60S。フェーズ上限もこれを基準に分割）</li>
+ *   <li>shift.benchmark.warm-up: ウォームアップ時間（既定 PT30S）</li>
+ *   <li>shift.benchmark.parallel-count: 同時に走らせるソルブ数（既定 1）</li>
+ *   <li>shift.benchmark.move-thread-counts: スレッド数比較で試す shift.solver.move-thread-count（カンマ区切り。既定 NONE,2,4,AUTO）</li>
+ * </ul>
+ * スレッド数の比較（*MoveThreadCounts）は CPU を取り合わないよう parallel-count=1 のまま、
+ * {@code -Dtest=SolverConfigBenchmarkTest#assignmentMoveThreadCounts} のように単独で実行すること。
+ */
+@Tag("benchmark")
+@Slf4j
+class SolverConfigBenchmarkTest {
+
+    private static final Path REPORT_DIR = Path.of("target", "benchmark-report");
+    private static final Duration SPENT_LIMIT = Duration.parse(System.getProperty("shift.benchmark.spent-limit", "PT60S"));
+    private static final Duration WARM_UP = Duration.parse(System.getProperty("shift.benchmark.warm-up", "PT30S"));
+    private static final String PARALLEL_COUNT = System.getProperty("shift.benchmark.parallel-count", "1");
+    private static final String MOVE_THREAD_COUNTS = System.getProperty("shift.benchmark.move-thread-counts", "NONE,2,4,AUTO");
+
+    // OptaPlannerConfig のフェーズ並び: [カスタム初期解, CH, LS(多様化), LS(収束)]
+    private static final int DIVERSIFY_PHASE = 2;
+    private static final int CONVERGE_PHASE = 3;
+
+    @Test
+    void attendancePhaseConfigurations() throws IOException {
+        List<File> datasets = BenchmarkDatasets.list(BenchmarkDatasets.ATTENDANCE);
+        List<SolverBenchmarkConfig> solvers = List.of(
+                solver("current", attendanceConfig(c -> {})),
+                solver("late-acceptance-only", keepLocalSearch(attendanceConfig(c -> {}), DIVERSIFY_PHASE)),
+                solver("tabu-only", keepLocalSearch(attendanceConfig(c -> {}), CONVERGE_PHASE)),
+                solver("diversify-quarter", diversifyFor(attendanceConfig(c -> {}), SPENT_LIMIT.dividedBy(4))));
+        run(BenchmarkDatasets.ATTENDANCE, SerializedSolutionFileIO.AttendanceSolutionFileIO.class, datasets, solvers);
+    }
+
+    @Test
+    void assignmentPhaseConfigurations() throws IOException {
+        List<File> datasets = BenchmarkDatasets.list(BenchmarkDatasets.ASSIGNMENT);
+        List<SolverBenchmarkConfig> solvers = List.of(
+                solver("current", assignmentConfig(c -> {})),
+                // 日次用の設定（近傍スワップ）。距離表がエンティティ数の 2 乗になるため日次データセットでの比較を想定
+                solver("daily-nearby-swap", newConfig(c -> ReflectionTestUtils.setField(c, "assignmentDailyNearbySwapEnabled", true))
+                        .dailyAssignmentSolverConfig()),
+                solver("block-moves", assignmentConfig(c -> ReflectionTestUtils.setField(c, "assignmentBlockMovesEnabled", true))),
+                solver("tabu-only", keepLocalSearch(assignmentConfig(c -> {}), CONVERGE_PHASE)));
+        run(BenchmarkDatasets.ASSIGNMENT, SerializedSolutionFileIO.ShiftScheduleFileIO.class, datasets, solvers);
+    }
+
+    @Test
+    void attendanceMoveThreadCounts() throws IOException {
+        List<File> datasets = BenchmarkDatasets.list(BenchmarkDatasets.ATTENDANCE);
+        List<SolverBenchmarkConfig> solvers = moveThreadCounts().stream()
+                .map(n -> solver("threads-" + n, attendanceConfig(c -> ReflectionTestUtils.setField(c, "moveThreadCount", n))))
+                .toList();
+        run(BenchmarkDatasets.ATTENDANCE + "-threads", SerializedSolutionFileIO.AttendanceSolutionFileIO.class, datasets, solvers);
+    }
+
+    @Test
+    void assignmentMoveThreadCounts() throws IOException {
+        List<File> datasets = BenchmarkDatasets.list(BenchmarkDatasets.ASSIGNMENT);
+        List<SolverBenchmarkConfig> solvers = moveThreadCounts().stream()
+                .map(n -> solver("threads-" + n, assignmentConfig(c -> ReflectionTestUtils.setField(c, "moveThreadCount", n))))
+                .toList();
+        run(BenchmarkDatasets.ASSIGNMENT + "-threads", SerializedSolutionFileIO.ShiftScheduleFileIO.class, datasets, solvers);
+    }
+
+    private static List<String> moveThreadCounts() {
+        return List.of(MOVE_THREAD_COUNTS.trim().split("\\s*,\\s*"));
+    }
+
+    private static void run(String stage, Class<? extends SolutionFileIO<?>> fileIO,
+                            List<File> datasets, List<SolverBenchmarkConfig> solvers) {
+        ProblemBenchmarksConfig problems = new ProblemBenchmarksConfig();
+        problems.setSolutionFileIOClass(fileIO);
+        problems.setInputSolutionFileList(datasets);
+        problems.setProblemStatisticTypeList(List.of(
+                ProblemStatisticType.BEST_SCORE,
+                ProblemStatisticType.SCORE_CALCULATION_SPEED));
+        SolverBenchmarkConfig inherited = new SolverBenchmarkConfig();
+        inherited.setProblemBenchmarksConfig(problems);
+
+        PlannerBenchmarkConfig benchmark = new PlannerBenchmarkConfig();
+        benchmark.setName(stage);
+        benchmark.setBenchmarkDirectory(REPORT_DIR.resolve(stage).toFile());
+        benchmark.setWarmUpSecondsSpentLimit(WARM_UP.toSeconds());
+        benchmark.setParallelBenchmarkCount(PARALLEL_COUNT);
+        benchmark.setInheritedSolverBenchmarkConfig(inherited);
+        benchmark.setSolverBenchmarkConfigList(solvers);
+
+        File report = PlannerBenchmarkFactory.create(benchmark).buildPlannerBenchmark().benchmark();
+        log.info("Benchmark report ({}): {}", stage, report.getAbsolutePath());
+    }
+
+    private static SolverBenchmarkConfig solver(String name, SolverConfig solverConfig) {
+        // 実運用の未改善終了ではなく、一定時間後の最終スコアで比較する
+        solverConfig.setTerminationConfig(new TerminationConfig().withSpentLimit(SPENT_LIMIT));
+        SolverBenchmarkConfig config = new SolverBenchmarkConfig();
+        config.setName(name);
+        config.setSolverConfig(solverConfig);
+        return config;
+    }
+
+    private static SolverConfig attendanceConfig(Consumer<OptaPlannerConfig> customizer) {
+        return newConfig(customizer).attendanceSolverConfig();
+    }
+
+    private static SolverConfig assignmentConfig(Consumer<OptaPlannerConfig> customizer) {
+        return newConfig(customizer).assignmentSolverConfig();
+    }
+
+    /** application.properties の既定値で OptaPlannerConfig を組み立てる（時間上限のみベンチマーク用） */
+    private static OptaPlannerConfig newConfig(Consumer<OptaPlannerConfig> customizer) {
+        OptaPlannerConfig config = new OptaPlannerConfig();
+        ReflectionTestUtils.setField(config, "solverSpentLimit", SPENT_LIMIT.toString());
+        ReflectionTestUtils.setField(config, "attendanceSpentLimit", SPENT_LIMIT.toString());
+        ReflectionTestUtils.setField(config, "attendanceUnimprovedLimit", SPENT_LIMIT.toString());
+        ReflectionTestUtils.setField(config, "moveThreadCount", "NONE");
+        ReflectionTestUtils.setField(config, "assignmentDailyNearbySwapEnabled", false);
+        ReflectionTestUtils.setField(config, "assignmentDailyNearbySwapSizeMaximum", 40);
+        ReflectionTestUtils.setField(config, "assignmentBlockMovesEnabled", false);
+        customizer.accept(config);
+        return config;
+    }
+
+    /** ローカルサーチを指定の 1 フェーズだけ残す（フェーズ単体の終了条件は外して全体の上限まで回す） */
+    private static SolverConfig keepLocalSearch(SolverConfig config, int keptPhase) {
+        List<PhaseConfig> phases = new ArrayList<>(config.getPhaseConfigList().subList(0, DIVERSIFY_PHASE));
+        LocalSearchPhaseConfig ls = (LocalSearchPhaseConfig) config.getPhaseConfigList().get(keptPhase);
+        ls.setTerminationConfig(null);
+        phases.add(ls);
+        config.setPhaseConfigList(phases);
+        return config;
+    }
+
+    /** 多様化フェーズ（LATE_ACCEPTANCE）の時間配分だけを変える */
+    private static SolverConfig diversifyFor(SolverConfig config, Duration limit) {
+        config.getPhaseConfigList().get(DIVERSIFY_PHASE)
+                .setTerminationConfig(new TerminationConfig().withSpentLimit(limit));
+        return config;
+    }
+}
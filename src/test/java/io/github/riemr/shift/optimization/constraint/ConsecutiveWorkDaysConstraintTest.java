@@ -0,0 +1,160 @@
+package io.github.riemr.shift.optimization.constraint;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.optimization.entity.ConsecutiveWorkLimit;
+import io.github.riemr.shift.optimization.entity.DailyPatternAssignmentEntity;
+import io.github.riemr.shift.optimization.solution.AttendanceSolution;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.test.api.score.stream.ConstraintVerifier;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsecutiveWorkDaysConstraintTest {
+
+    private static final LocalDate D1 = LocalDate.of(2025, 7, 1);
+
+    private final ConstraintVerifier<AttendanceConstraintProvider, AttendanceSolution> verifier =
+            ConstraintVerifier.build(new AttendanceConstraintProvider(), AttendanceSolution.class,
+                    DailyPatternAssignmentEntity.class);
+
+    private int seq;
+
+    @Test
+    void runWithinLimitIsNotPenalized() {
+        Employee e = employee("E1");
+        List<Object> facts = work(e, 1, 2, 3);
+        facts.add(new ConsecutiveWorkLimit("E1", 3));
+
+        verifier.verifyThat(AttendanceConstraintProvider::consecutiveWorkDaysHard)
+                .given(facts.toArray())
+                .penalizesBy(0);
+    }
+
+    @Test
+    void runOverLimitIsPenalizedByExcessDays() {
+        Employee e = employee("E1");
+        List<Object> facts = work(e, 1, 2, 3, 4, 5);
+        facts.add(new ConsecutiveWorkLimit("E1", 3));
+
+        verifier.verifyThat(AttendanceConstraintProvider::consecutiveWorkDaysHard)
+                .given(facts.toArray())
+                .penalizesBy(2);
+    }
+
+    @Test
+    void gapBreaksTheRun() {
+        Employee e = employee("E1");
+        List<Object> facts = work(e, 1, 2, 3, 5, 6, 7);
+        facts.add(new ConsecutiveWorkLimit("E1", 3));
+
+        verifier.verifyThat(AttendanceConstraintProvider::consecutiveWorkDaysHard)
+                .given(facts.toArray())
+                .penalizesBy(0);
+    }
+
+    @Test
+    void excessIsSummedOverRuns() {
+        Employee e = employee("E1");
+        // 3 連勤 + 4 連勤、上限 2 → 1 + 2
+        List<Object> facts = work(e, 1, 2, 3, 5, 6, 7, 8);
+        facts.add(new ConsecutiveWorkLimit("E1", 2));
+
+        verifier.verifyThat(AttendanceConstraintProvider::consecutiveWorkDaysHard)
+                .given(facts.toArray())
+                .penalizesBy(3);
+    }
+
+    @Test
+    void multipleAssignmentsOnTheSameDayCountOnce() {
+        Employee e = employee("E1");
+        List<Object> facts = work(e, 1, 2, 2, 3, 3, 4);
+        facts.add(new ConsecutiveWorkLimit("E1", 3));
+
+        verifier.verifyThat(AttendanceConstraintProvider::consecutiveWorkDaysHard)
+                .given(facts.toArray())
+                .penalizesBy(1);
+    }
+
+    @Test
+    void eachEmployeeUsesOwnLimit() {
+        Employee strict = employee("E1");
+        Employee loose = employee("E2");
+        List<Object> facts = work(strict, 1, 2, 3, 4);
+        facts.addAll(work(loose, 1, 2, 3, 4));
+        facts.add(new ConsecutiveWorkLimit("E1", 2));
+        facts.add(new ConsecutiveWorkLimit("E2", 4));
+
+        verifier.verifyThat(AttendanceConstraintProvider::consecutiveWorkDaysHard)
+                .given(facts.toArray())
+                .penalizesBy(2);
+    }
+
+    @Test
+    void incrementalRunsMatchFullRescan() {
+        Random random = new Random(42);
+        ConsecutiveDays.Runs runs = new ConsecutiveDays.Runs();
+        List<Integer> present = new ArrayList<>();
+        for (int step = 0; step < 2_000; step++) {
+            if (present.isEmpty() || random.nextBoolean()) {
+                int day = random.nextInt(40);
+                runs.add(day);
+                present.add(day);
+            } else {
+                runs.remove(present.remove(random.nextInt(present.size())));
+            }
+            ConsecutiveDays result = runs.snapshot();
+            List<Integer> expected = rescan(present);
+            int longest = expected.stream().mapToInt(Integer::intValue).max().orElse(0);
+            assertThat(result.longestRun()).isEqualTo(longest);
+            for (int limit = 1; limit <= 5; limit++) {
+                int excess = 0;
+                for (int len : expected) excess += Math.max(0, len - limit);
+                assertThat(result.excessOver(limit)).isEqualTo(excess);
+            }
+        }
+    }
+
+    /** 比較用: 全日を並べ直して連続区間の長さを求める */
+    private static List<Integer> rescan(List<Integer> days) {
+        List<Integer> lengths = new ArrayList<>();
+        int prev = 0;
+        int len = 0;
+        for (int day : new TreeSet<>(days)) {
+            if (len > 0 && day == prev + 1) {
+                len++;
+            } else {
+                if (len > 0) lengths.add(len);
+                len = 1;
+            }
+            prev = day;
+        }
+        if (len > 0) lengths.add(len);
+        return lengths;
+    }
+
+    private static Employee employee(String code) {
+        Employee e = new Employee();
+        e.setEmployeeCode(code);
+        e.setStoreCode("S001");
+        return e;
+    }
+
+    /** 指定した日（D1 からの 1 始まりの日番号）に出勤させる */
+    private List<Object> work(Employee e, int... days) {
+        List<Object> entities = new ArrayList<>();
+        for (int day : days) {
+            DailyPatternAssignmentEntity a = new DailyPatternAssignmentEntity("A" + (seq++), "S001", null,
+                    D1.plusDays(day - 1), LocalTime.of(9, 0), LocalTime.of(17, 0), 0);
+            a.setAssignedEmployee(e);
+            entities.add(a);
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.riemr.shift.optimization.constraint;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeRegisterSkill;
+import io.github.riemr.shift.infrastructure.persistence.entity.RegisterAssignment;
+import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.test.api.score.stream.ConstraintVerifier;
+
+import java.util.Date;
+
+class PreferHigherSkillLevelConstraintTest {
+
+    private static final long T0 = 1_751_328_000_000L; // 2025-07-01T00:00Z
+
+    private final ConstraintVerifier<ShiftScheduleConstraintProvider, ShiftSchedule> verifier =
+            ConstraintVerifier.build(new ShiftScheduleConstraintProvider(), ShiftSchedule.class,
+                    ShiftAssignmentPlanningEntity.class);
+
+    @Test
+    void slotIsPenalizedByMissingSkillLevels() {
+        verifier.verifyThat(ShiftScheduleConstraintProvider::preferHigherSkillLevelForAssignment)
+                .given(slot(), skill(2))
+                .penalizesBy(2);
+    }
+
+    private static ShiftAssignmentPlanningEntity slot() {
+        RegisterAssignment origin = new RegisterAssignment();
+        origin.setStoreCode("S001");
+        origin.setRegisterNo(1);
+        origin.setStartAt(new Date(T0));
+        origin.setEndAt(new Date(T0 + 15 * 60_000L));
+        ShiftAssignmentPlanningEntity sa = new ShiftAssignmentPlanningEntity(origin);
+        sa.setShiftId(1L);
+        sa.setStage(SolveStage.ASSIGNMENT);
+        Employee e = new Employee();
+        e.setEmployeeCode("E1");
+        sa.setAssignedEmployee(e);
+        return sa;
+    }
+
+    private static EmployeeRegisterSkill skill(int level) {
+        EmployeeRegisterSkill s = new EmployeeRegisterSkill();
+        s.setStoreCode("S001");
+        s.setEmployeeCode("E1");
+        s.setRegisterNo(1);
+        s.setSkillLevel((short) level);
+        return s;
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.riemr.shift.optimization.move;
+
+import io.github.riemr.shift.optimization.service.SyntheticProblemGenerator;
+import io.github.riemr.shift.optimization.service.SyntheticProblemSpec;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RegisterBlockMoveIteratorFactoryTest {
+
+    private final RegisterBlockMoveIteratorFactory factory = new RegisterBlockMoveIteratorFactory();
+
+    @Test
+    void originalIteratorEnumeratesOnlyDoableMoves() {
+        ScoreDirector<ShiftSchedule> director = director(problem());
+        factory.phaseStarted(director);
+
+        Iterator<BlockReassignMove> it = factory.createOriginalMoveIterator(director);
+        int count = 0;
+        while (it.hasNext()) {
+            assertThat(it.next().isMoveDoable(director)).isTrue();
+            count++;
+        }
+
+        assertThat(count).isPositive();
+        assertThatThrownBy(it::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void randomIteratorReturnsDoableMoves() {
+        ScoreDirector<ShiftSchedule> director = director(problem());
+        factory.phaseStarted(director);
+
+        Iterator<BlockReassignMove> it = factory.createRandomMoveIterator(director, new Random(1));
+        for (int i = 0; i < 100; i++) {
+            assertThat(it.hasNext()).isTrue();
+            assertThat(it.next().isMoveDoable(director)).isTrue();
+        }
+    }
+
+    @Test
+    void iteratorsReportNoMovesWhenNoBlockCanChange() {
+        ShiftSchedule schedule = problem();
+        schedule.getAssignmentList().forEach(a -> a.setCandidateEmployees(List.of()));
+        ScoreDirector<ShiftSchedule> director = director(schedule);
+        factory.phaseStarted(director);
+
+        Iterator<BlockReassignMove> random = factory.createRandomMoveIterator(director, new Random(1));
+        assertThat(random.hasNext()).isFalse();
+        assertThatThrownBy(random::next).isInstanceOf(NoSuchElementException.class);
+        assertThat(factory.createOriginalMoveIterator(director).hasNext()).isFalse();
+    }
+
+    private static ShiftSchedule problem() {
+        return new SyntheticProblemGenerator(SyntheticProblemSpec.builder()
+                .days(1).employees(8).registers(2).build()).assignmentProblem();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ScoreDirector<ShiftSchedule> director(ShiftSchedule schedule) {
+        ScoreDirector<ShiftSchedule> director = mock(ScoreDirector.class);
+        when(director.getWorkingSolution()).thenReturn(schedule);
+        return director;
+    }
+}
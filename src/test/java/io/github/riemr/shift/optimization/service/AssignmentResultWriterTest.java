@@ -0,0 +1,126 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.infrastructure.mapper.RegisterAssignmentMapper;
+import io.github.riemr.shift.infrastructure.mapper.ShiftAssignmentMapper;
+import io.github.riemr.shift.infrastructure.persistence.entity.RegisterAssignment;
+import io.github.riemr.shift.infrastructure.persistence.entity.ShiftAssignment;
+import io.github.riemr.shift.util.RowDelta;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AssignmentResultWriterTest {
+
+    private static final String STORE = "S001";
+    private static final LocalDate FROM = LocalDate.of(2025, 7, 1);
+    private static final LocalDate TO = FROM.plusMonths(1);
+    private static final long HOUR = 3_600_000L;
+    private static final long T0 = 1_751_328_000_000L; // 2025-07-01T00:00Z
+
+    private final ShiftAssignmentMapper shiftMapper = mock(ShiftAssignmentMapper.class);
+    private final RegisterAssignmentMapper registerMapper = mock(RegisterAssignmentMapper.class);
+
+    @Test
+    void deltaKeysShiftsByEmployeeAndStartMillis() {
+        ShiftAssignment same = shift(10L, "E1", 9, 17);
+        ShiftAssignment changed = shift(11L, "E2", 9, 17);
+        ShiftAssignment removed = shift(12L, "E3", 9, 17);
+        when(shiftMapper.selectByStoreAndRange(STORE, FROM, TO)).thenReturn(List.of(same, changed, removed));
+        List<List<Long>> deletedIds = new ArrayList<>();
+        when(shiftMapper.deleteByIds(anyList())).thenAnswer(inv -> {
+            List<Long> ids = new ArrayList<>(inv.getArgument(0));
+            deletedIds.add(ids);
+            return ids.size();
+        });
+        when(shiftMapper.updateByPrimaryKey(any())).thenReturn(1);
+        when(shiftMapper.insertAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        // 同じ時刻でも別インスタンスの Date（キーはミリ秒で比較される）
+        ShiftAssignment sameAgain = shift(null, "E1", 9, 17);
+        ShiftAssignment longer = shift(null, "E2", 9, 18);
+        ShiftAssignment added = shift(null, "E4", 9, 17);
+
+        RowDelta.Counts counts = writer("DELTA").writeShiftAssignments(STORE, FROM, TO, List.of(sameAgain, longer, added));
+
+        assertThat(counts).isEqualTo(new RowDelta.Counts(1, 1, 1, 1));
+        assertThat(deletedIds).containsExactly(List.of(12L));
+        assertThat(longer.getShiftId()).isEqualTo(11L);
+        InOrder order = inOrder(shiftMapper);
+        order.verify(shiftMapper).deleteByIds(anyList());
+        order.verify(shiftMapper).updateByPrimaryKey(longer);
+        order.verify(shiftMapper).insertAll(List.of(added));
+        verify(shiftMapper, never()).deleteByMonthAndStore(any(), any(), any());
+    }
+
+    @Test
+    void deltaUpdatesRegisterAssignmentWhenRegisterChanges() {
+        when(registerMapper.selectByStoreAndRange(STORE, FROM, TO)).thenReturn(List.of(register(20L, "E1", 1)));
+        when(registerMapper.updateByPrimaryKey(any())).thenReturn(1);
+        RegisterAssignment moved = register(null, "E1", 2);
+
+        RowDelta.Counts counts = writer("DELTA").writeRegisterAssignments(STORE, FROM, TO, List.of(moved));
+
+        assertThat(counts).isEqualTo(new RowDelta.Counts(0, 1, 0, 0));
+        assertThat(moved.getAssignmentId()).isEqualTo(20L);
+        verify(registerMapper, never()).deleteByIds(anyList());
+        verify(registerMapper, never()).insertAll(anyList());
+    }
+
+    @Test
+    void replaceDeletesRangeAndInsertsAll() {
+        when(shiftMapper.deleteByMonthAndStore(FROM, TO, STORE)).thenReturn(3);
+        when(shiftMapper.insertAll(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        RowDelta.Counts counts = writer("replace").writeShiftAssignments(STORE, FROM, TO,
+                List.of(shift(null, "E1", 9, 17), shift(null, "E2", 9, 17)));
+
+        assertThat(counts).isEqualTo(new RowDelta.Counts(2, 0, 3, 0));
+        verify(shiftMapper, never()).selectByStoreAndRange(any(), any(), any());
+    }
+
+    @Test
+    void invalidModeFallsBackToDelta() {
+        when(shiftMapper.selectByStoreAndRange(STORE, FROM, TO)).thenReturn(List.of());
+
+        writer("bogus").writeShiftAssignments(STORE, FROM, TO, List.of());
+
+        verify(shiftMapper).selectByStoreAndRange(STORE, FROM, TO);
+        verify(shiftMapper, never()).deleteByMonthAndStore(any(), any(), any());
+    }
+
+    private AssignmentResultWriter writer(String mode) {
+        return new AssignmentResultWriter(shiftMapper, registerMapper, mode);
+    }
+
+    private static ShiftAssignment shift(Long id, String employee, int startHour, int endHour) {
+        ShiftAssignment s = new ShiftAssignment();
+        s.setShiftId(id);
+        s.setStoreCode(STORE);
+        s.setEmployeeCode(employee);
+        s.setStartAt(new Date(T0 + startHour * HOUR));
+        s.setEndAt(new Date(T0 + endHour * HOUR));
+        s.setCreatedBy("auto");
+        return s;
+    }
+
+    private static RegisterAssignment register(Long id, String employee, int registerNo) {
+        RegisterAssignment r = new RegisterAssignment();
+        r.setAssignmentId(id);
+        r.setStoreCode(STORE);
+        r.setEmployeeCode(employee);
+        r.setRegisterNo(registerNo);
+        r.setStartAt(new Date(T0 + 9 * HOUR));
+        r.setEndAt(new Date(T0 + 10 * HOUR));
+        r.setCreatedBy("auto");
+        return r;
+    }
+}
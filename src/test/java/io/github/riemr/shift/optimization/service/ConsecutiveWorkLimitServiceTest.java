@@ -0,0 +1,89 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.infrastructure.mapper.ConstraintSettingMapper;
+import io.github.riemr.shift.infrastructure.persistence.entity.ConstraintSetting;
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConsecutiveWorkLimitServiceTest {
+
+    private static final LocalDate CYCLE = LocalDate.of(2025, 7, 1);
+
+    private final ConstraintSettingMapper mapper = mock(ConstraintSettingMapper.class);
+    private final ConsecutiveWorkLimitService service = new ConsecutiveWorkLimitService(mapper);
+
+    @Test
+    void scopePrecedenceIsEmployeeThenStoreThenGlobal() {
+        givenSettings(setting(1L, "GLOBAL", null, 5, null),
+                setting(2L, "STORE", "S001", 4, null),
+                setting(3L, "EMPLOYEE", "E1", 3, null));
+
+        Map<String, Integer> limits = service.resolveByEmployee(null,
+                List.of(employee("E1", "S001"), employee("E2", "S001"), employee("E3", "S002")), CYCLE);
+
+        assertThat(limits).containsEntry("E1", 3).containsEntry("E2", 4).containsEntry("E3", 5);
+    }
+
+    @Test
+    void overlappingSettingsPreferLatestEffectiveFromRegardlessOfOrder() {
+        ConstraintSetting older = setting(10L, "EMPLOYEE", "E1", 3, LocalDate.of(2025, 6, 1));
+        ConstraintSetting newer = setting(5L, "EMPLOYEE", "E1", 5, LocalDate.of(2025, 7, 10));
+        ConstraintSetting undated = setting(20L, "EMPLOYEE", "E1", 2, null);
+        List<Employee> employees = List.of(employee("E1", "S001"));
+
+        givenSettings(older, newer, undated);
+        assertThat(service.resolveByEmployee("S001", employees, CYCLE)).containsEntry("E1", 5);
+        givenSettings(newer, undated, older);
+        assertThat(service.resolveByEmployee("S001", employees, CYCLE)).containsEntry("E1", 5);
+    }
+
+    @Test
+    void overlappingSettingsWithSameEffectiveFromPreferHigherSettingId() {
+        LocalDate from = LocalDate.of(2025, 6, 1);
+        ConstraintSetting first = setting(1L, "STORE", "S001", 4, from);
+        ConstraintSetting second = setting(2L, "STORE", "S001", 6, from);
+        List<Employee> employees = List.of(employee("E1", "S001"));
+
+        givenSettings(second, first);
+        assertThat(service.resolveByEmployee("S001", employees, CYCLE)).containsEntry("E1", 6);
+        givenSettings(first, second);
+        assertThat(service.resolveByEmployee("S001", employees, CYCLE)).containsEntry("E1", 6);
+    }
+
+    private void givenSettings(ConstraintSetting... settings) {
+        when(mapper.selectByExample(any())).thenReturn(new ArrayList<>(List.of(settings)));
+    }
+
+    private static ConstraintSetting setting(Long id, String scope, String scopeId, int days, LocalDate effectiveFrom) {
+        ConstraintSetting s = new ConstraintSetting();
+        s.setSettingId(id);
+        s.setConstraintCode(ConsecutiveWorkLimitService.CONSTRAINT_CODE);
+        s.setScopeType(scope);
+        s.setScopeId(scopeId);
+        s.setNumericValue(BigDecimal.valueOf(days));
+        if (effectiveFrom != null) {
+            s.setEffectiveFrom(Date.from(effectiveFrom.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        }
+        return s;
+    }
+
+    private static Employee employee(String code, String store) {
+        Employee e = new Employee();
+        e.setEmployeeCode(code);
+        e.setStoreCode(store);
+        return e;
+    }
+}
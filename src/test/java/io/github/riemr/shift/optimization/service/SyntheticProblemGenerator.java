@@ -0,0 +1,550 @@
+package io.github.riemr.shift.optimization.service;
+
+import io.github.riemr.shift.infrastructure.persistence.entity.Employee;
+import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeDepartmentSkill;
+import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeMonthlySetting;
+import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeRegisterSkill;
+import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeRequest;
+import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeShiftPattern;
+import io.github.riemr.shift.infrastructure.persistence.entity.EmployeeWeeklyPreference;
+import io.github.riemr.shift.infrastructure.persistence.entity.Register;
+import io.github.riemr.shift.infrastructure.persistence.entity.ShiftAssignment;
+import io.github.riemr.shift.infrastructure.repository.EmptyAssignmentSlots;
+import io.github.riemr.shift.optimization.entity.ConsecutiveWorkLimit;
+import io.github.riemr.shift.optimization.entity.DailyPatternAssignmentEntity;
+import io.github.riemr.shift.optimization.entity.RegisterDemandSlot;
+import io.github.riemr.shift.optimization.entity.ShiftAssignmentPlanningEntity;
+import io.github.riemr.shift.optimization.entity.SolveStage;
+import io.github.riemr.shift.optimization.entity.WorkDemandSlot;
+import io.github.riemr.shift.optimization.solution.AttendanceSolution;
+import io.github.riemr.shift.optimization.solution.ShiftSchedule;
+import io.github.riemr.shift.util.EmployeeRequestKinds;
+import io.github.riemr.shift.util.OffRequestKinds;
+
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * DB を使わずに、パラメータ（{@link SyntheticProblemSpec}）から ATTENDANCE / ASSIGNMENT の問題を生成する。
+ * <p>
+ * 従業員・レジ・部門・シフトパターン・曜日別設定・希望・スキル・需要は seed から決定的に作り、
+ * パターン枠・スロット・休憩・候補従業員はローダーと同じ構築処理
+ * （{@link AttendanceService#buildPatternAssignments}, {@link EmptyAssignmentSlots},
+ * {@link AssignmentService#prepareCandidates}, {@link ShiftScheduleService#buildBreakAssignments}）で作る。
+ * ASSIGNMENT の出勤（shift_assignment）は ATTENDANCE のパターン枠を貪欲に埋めたものを使う。
+ * <p>
+ * 部門コードは先頭がレジ部門（{@value #REGISTER_DEPARTMENT}）、以降が D01, D02, ... 。
+ */
+public class SyntheticProblemGenerator {
+
+    public static final String REGISTER_DEPARTMENT = "520";
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    /** 曜日別設定で休みにする日数（フルタイム / パートタイム） */
+    private static final int FULL_TIME_OFF_DAYS = 2;
+    private static final int PART_TIME_OFF_DAYS = 3;
+
+    private final SyntheticProblemSpec spec;
+    private final LocalDate cycleEnd;
+    private final List<String> departmentCodes = new ArrayList<>();
+    private final List<LocalTime[]> windows = new ArrayList<>();
+
+    private final List<Employee> employees = new ArrayList<>();
+    private final Map<String, Set<String>> membersByDepartment = new HashMap<>();
+    private final List<Register> registers = new ArrayList<>();
+    private final List<EmployeeShiftPattern> shiftPatterns = new ArrayList<>();
+    private final List<EmployeeWeeklyPreference> weeklyPreferences = new ArrayList<>();
+    private final List<EmployeeMonthlySetting> monthlySettings = new ArrayList<>();
+    private final List<EmployeeRequest> requests = new ArrayList<>();
+    private final List<EmployeeRegisterSkill> registerSkills = new ArrayList<>();
+    private final List<EmployeeDepartmentSkill> departmentSkills = new ArrayList<>();
+    private final List<RegisterDemandSlot> registerDemand = new ArrayList<>();
+    private final Map<String, List<WorkDemandSlot>> workDemandByDepartment = new HashMap<>();
+
+    /** ASSIGNMENT 用の出勤（初回要求時に生成） */
+    private List<ShiftAssignment> roster;
+
+    public SyntheticProblemGenerator(SyntheticProblemSpec spec) {
+        validate(spec);
+        this.spec = spec;
+        this.cycleEnd = spec.getCycleStart().plusMonths(1);
+        // 生成順を固定して同じ seed から同じ問題を作る
+        Random random = new Random(spec.getSeed());
+        buildDepartments();
+        buildWindows();
+        buildRegisters();
+        buildEmployees(random);
+        buildSkills(random);
+        buildRequests(random);
+        buildRegisterDemand(random);
+        buildWorkDemand();
+    }
+
+    public SyntheticProblemSpec getSpec() {
+        return spec;
+    }
+
+    /** 生成した部門コード（先頭がレジ部門） */
+    public List<String> getDepartmentCodes() {
+        return List.copyOf(departmentCodes);
+    }
+
+    /** レジ部門の ATTENDANCE 問題 */
+    public AttendanceSolution attendanceProblem() {
+        return attendanceProblem(REGISTER_DEPARTMENT);
+    }
+
+    /**
+     * ATTENDANCE 問題（AttendanceService#loadAttendanceProblem 相当）。
+     * レジ需要は部門に関わらず店舗全体のものを使う（ローダーと同じ）。
+     */
+    public AttendanceSolution attendanceProblem(String departmentCode) {
+        requireDepartment(departmentCode);
+        List<Employee> staff = employeesOf(departmentCode);
+        AttendanceSolution sol = new AttendanceSolution();
+        sol.setProblemId(spec.getCycleStart().getYear() * 100L + spec.getCycleStart().getMonthValue());
+        sol.setMonth(spec.getCycleStart());
+        sol.setStoreCode(spec.getStoreCode());
+        sol.setDepartmentCode(departmentCode);
+        sol.setEmployeeList(staff);
+        sol.setEmployeeShiftPatternList(new ArrayList<>(shiftPatterns));
+        sol.setEmployeeWeeklyPreferenceList(new ArrayList<>(weeklyPreferences));
+        sol.setEmployeeRequestList(new ArrayList<>(requests));
+        sol.setEmployeeMonthlySettingList(new ArrayList<>(monthlySettings));
+        sol.setDemandList(AttendanceService.aggregateRegisterDemand(registerDemand));
+        sol.setWorkDemandList(new ArrayList<>(workDemandByDepartment.getOrDefault(departmentCode, List.of())));
+        sol.setAttendanceGroupInfos(new ArrayList<>());
+        sol.setActiveDates(AttendanceService.buildActiveDates(sol.getDemandList(), sol.getWorkDemandList()));
+        sol.setConsecutiveWorkLimitList(consecutiveWorkLimits(staff));
+        sol.setPatternAssignments(AttendanceService.buildPatternAssignments(sol, List.of()));
+        return sol;
+    }
+
+    /** レジ部門の月次 ASSIGNMENT 問題 */
+    public ShiftSchedule assignmentProblem() {
+        return assignmentProblem(REGISTER_DEPARTMENT);
+    }
+
+    /**
+     * 月次 ASSIGNMENT 問題（ShiftScheduleService#loadProblem 相当）。
+     * レジ部門はレジ需要と部門作業、非レジ部門は部門作業のみをスロットにする。
+     */
+    public ShiftSchedule assignmentProblem(String departmentCode) {
+        requireDepartment(departmentCode);
+        ShiftSchedule schedule = assignmentFacts(departmentCode);
+        ShiftScheduleService.buildBreakAssignments(schedule, spec.getSlotMinutes());
+        AssignmentService.prepareCandidates(schedule, roster(), limitMap(schedule.getEmployeeList()));
+        return schedule;
+    }
+
+    /** 日次 ASSIGNMENT 問題（日次一括実行で 1 日分に切り出したもの） */
+    public ShiftSchedule assignmentProblemForDate(String departmentCode, LocalDate date) {
+        requireDepartment(departmentCode);
+        ShiftSchedule month = assignmentFacts(departmentCode);
+        ShiftScheduleService.buildBreakAssignments(month, spec.getSlotMinutes());
+        ShiftSchedule daily = new MonthProblemSnapshot(month).sliceForDate(date);
+        AssignmentService.prepareCandidates(daily, roster(), limitMap(daily.getEmployeeList()));
+        return daily;
+    }
+
+    /**
+     * ASSIGNMENT の前提となる出勤。レジ部門の ATTENDANCE 枠を日付順に、
+     * 当日まだ出勤していない候補から seed に従って選んで埋める。
+     */
+    public List<ShiftAssignment> roster() {
+        if (roster != null) return roster;
+        Random random = new Random(spec.getSeed() * 31 + 7);
+        Map<LocalDate, Set<String>> workingByDate = new HashMap<>();
+        List<ShiftAssignment> rows = new ArrayList<>();
+        long shiftId = 1;
+        for (DailyPatternAssignmentEntity p : attendanceProblem(REGISTER_DEPARTMENT).getPatternAssignments()) {
+            Set<String> working = workingByDate.computeIfAbsent(p.getDate(), d -> new HashSet<>());
+            List<Employee> free = p.getCandidateEmployees().stream()
+                    .filter(e -> !working.contains(e.getEmployeeCode()))
+                    .toList();
+            if (free.isEmpty()) continue;
+            Employee e = free.get(random.nextInt(free.size()));
+            working.add(e.getEmployeeCode());
+            ShiftAssignment sa = new ShiftAssignment();
+            sa.setShiftId(shiftId++);
+            sa.setStoreCode(spec.getStoreCode());
+            sa.setEmployeeCode(e.getEmployeeCode());
+            sa.setStartAt(toDate(p.getDate(), p.getPatternStart()));
+            sa.setEndAt(toDate(p.getDate(), p.getPatternEnd()));
+            sa.setCreatedBy("synthetic");
+            rows.add(sa);
+        }
+        roster = List.copyOf(rows);
+        return roster;
+    }
+
+    // ============================================================================
+    // ASSIGNMENT
+    // ============================================================================
+
+    private ShiftSchedule assignmentFacts(String departmentCode) {
+        boolean registerDepartment = REGISTER_DEPARTMENT.equals(departmentCode);
+        List<WorkDemandSlot> workDemands = new ArrayList<>(workDemandByDepartment.getOrDefault(departmentCode, List.of()));
+        // 採番は問題ごとに -1 から（ローダーの一時 ID と同じく負値）
+        AtomicLong ids = new AtomicLong(-1L);
+        List<ShiftAssignmentPlanningEntity> slots = new ArrayList<>();
+        if (registerDepartment) {
+            slots.addAll(EmptyAssignmentSlots.register(
+                    registerDemand, registers, departmentCode, spec.getSlotMinutes(), ids::getAndDecrement));
+        }
+        slots.addAll(EmptyAssignmentSlots.work(
+                workDemands, departmentCode, spec.getSlotMinutes(), ids::getAndDecrement));
+        slots.forEach(s -> s.setStage(SolveStage.ASSIGNMENT));
+
+        ShiftSchedule schedule = new ShiftSchedule();
+        schedule.setProblemId(spec.getCycleStart().getYear() * 100L + spec.getCycleStart().getMonthValue());
+        schedule.setMonth(spec.getCycleStart());
+        schedule.setStoreCode(spec.getStoreCode());
+        schedule.setDepartmentCode(departmentCode);
+        schedule.setEmployeeList(employeesOf(departmentCode));
+        schedule.setRegisterList(new ArrayList<>(registers));
+        schedule.setDemandList(new ArrayList<>(registerDemand));
+        schedule.setWorkDemandList(workDemands);
+        schedule.setEmployeeRequestList(new ArrayList<>(requests));
+        schedule.setConstraintMasterList(new ArrayList<>());
+        schedule.setPreviousAssignmentList(new ArrayList<>());
+        schedule.setEmployeeRegisterSkillList(new ArrayList<>(registerSkills));
+        schedule.setEmployeeDepartmentSkillList(departmentSkills.stream()
+                .filter(s -> departmentCode.equals(s.getDepartmentCode()))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        schedule.setEmployeeWeeklyPreferenceList(new ArrayList<>(weeklyPreferences));
+        schedule.setEmployeeMonthlySettingList(new ArrayList<>(monthlySettings));
+        schedule.setEmployeeShiftPatternList(new ArrayList<>(shiftPatterns));
+        schedule.setShiftAssignmentList(new ArrayList<>(roster()));
+        schedule.setAssignmentList(slots);
+        schedule.setBreakList(new ArrayList<>());
+        return schedule;
+    }
+
+    // ============================================================================
+    // 問題事実の生成
+    // ============================================================================
+
+    private void buildDepartments() {
+        departmentCodes.add(REGISTER_DEPARTMENT);
+        for (int d = 1; d < spec.getDepartments(); d++) {
+            departmentCodes.add(String.format("D%02d", d));
+        }
+    }
+
+    /** シフトパターンの時間帯（早番・中番・遅番・通し）。営業時間と分解能に合わせる */
+    private void buildWindows() {
+        LocalTime open = spec.getOpenTime();
+        LocalTime close = spec.getCloseTime();
+        int span = (int) ChronoUnit.MINUTES.between(open, close);
+        int shift = Math.min(span, 6 * 60);
+        int full = Math.min(span, 9 * 60);
+        int middle = alignDown((span - shift) / 2);
+        Set<String> keys = new LinkedHashSet<>();
+        for (LocalTime[] w : List.of(
+                new LocalTime[]{open, open.plusMinutes(shift)},
+                new LocalTime[]{open.plusMinutes(middle), open.plusMinutes(middle + shift)},
+                new LocalTime[]{close.minusMinutes(shift), close},
+                new LocalTime[]{open, open.plusMinutes(full)})) {
+            if (keys.add(w[0] + "_" + w[1])) windows.add(w);
+        }
+    }
+
+    private void buildRegisters() {
+        for (int r = 1; r <= spec.getRegisters(); r++) {
+            Register reg = new Register();
+            reg.setStoreCode(spec.getStoreCode());
+            reg.setRegisterNo(r);
+            reg.setRegisterName("Register " + r);
+            reg.setShortName("R" + r);
+            reg.setOpenPriority(r);
+            reg.setRegisterType("NORMAL");
+            reg.setIsAutoOpenTarget(Boolean.TRUE);
+            reg.setMaxAllowance(2);
+            registers.add(reg);
+        }
+    }
+
+    private void buildEmployees(Random random) {
+        int nonRegisterDepartments = departmentCodes.size() - 1;
+        Date monthStart = toDate(spec.getCycleStart(), LocalTime.MIDNIGHT);
+        for (int i = 0; i < spec.getEmployees(); i++) {
+            String code = String.format("E%05d", i + 1);
+            boolean fullTime = i % 3 == 0;
+            Employee e = new Employee();
+            e.setEmployeeCode(code);
+            e.setStoreCode(spec.getStoreCode());
+            e.setEmployeeName("Synthetic " + code);
+            e.setMinWorkMinutesDay(fullTime ? 360 : 180);
+            e.setMaxWorkMinutesDay(fullTime ? 540 : 360);
+            int weekMax = fullTime ? 40 : 12 + random.nextInt(17);
+            e.setMinWorkHoursWeek(fullTime ? 32 : weekMax / 2);
+            e.setMaxWorkHoursWeek(weekMax);
+            employees.add(e);
+
+            // 非レジ部門の所属（レジ部門はローダー同様に従業員を絞り込まない）
+            if (nonRegisterDepartments > 0) {
+                String dept = departmentCodes.get(1 + i % nonRegisterDepartments);
+                membersByDepartment.computeIfAbsent(dept, k -> new LinkedHashSet<>()).add(code);
+            }
+
+            // シフトパターン: 1〜3 個（priority 2 以上でないと枠・候補にならない）
+            int patternCount = 1 + random.nextInt(Math.min(3, windows.size()));
+            List<LocalTime[]> pool = new ArrayList<>(windows);
+            for (int p = 0; p < patternCount; p++) {
+                LocalTime[] w = pool.remove(random.nextInt(pool.size()));
+                EmployeeShiftPattern sp = new EmployeeShiftPattern();
+                sp.setEmployeeCode(code);
+                sp.setPatternCode("P" + (p + 1));
+                sp.setPriority((short) (p == 0 ? 3 : 2));
+                sp.setStartTime(Time.valueOf(w[0]));
+                sp.setEndTime(Time.valueOf(w[1]));
+                sp.setActive(Boolean.TRUE);
+                shiftPatterns.add(sp);
+            }
+
+            // 曜日別設定: 固定の休み曜日以外は営業時間全体を基本時間とする
+            Set<Integer> offDays = new HashSet<>();
+            int offCount = fullTime ? FULL_TIME_OFF_DAYS : PART_TIME_OFF_DAYS;
+            while (offDays.size() < offCount) {
+                offDays.add(1 + random.nextInt(7));
+            }
+            for (int dow = 1; dow <= 7; dow++) {
+                EmployeeWeeklyPreference w = new EmployeeWeeklyPreference();
+                w.setEmployeeCode(code);
+                w.setStoreCode(spec.getStoreCode());
+                w.setDayOfWeek((short) dow);
+                if (offDays.contains(dow)) {
+                    w.setWorkStyle("OFF");
+                } else {
+                    w.setWorkStyle("OPTIONAL");
+                    w.setBaseStartTime(Time.valueOf(spec.getOpenTime()));
+                    w.setBaseEndTime(Time.valueOf(spec.getCloseTime()));
+                }
+                weeklyPreferences.add(w);
+            }
+
+            EmployeeMonthlySetting ms = new EmployeeMonthlySetting();
+            ms.setEmployeeCode(code);
+            ms.setMonthStart(monthStart);
+            ms.setMinWorkHours(e.getMinWorkHoursWeek() * 4);
+            ms.setMaxWorkHours(weekMax * 4 + 8);
+            ms.setMinOffDays(fullTime ? 8 : 10);
+            ms.setMaxOffDays(fullTime ? 12 : 20);
+            monthlySettings.add(ms);
+        }
+    }
+
+    private void buildSkills(Random random) {
+        for (Employee e : employees) {
+            for (Register r : registers) {
+                EmployeeRegisterSkill s = new EmployeeRegisterSkill();
+                s.setStoreCode(spec.getStoreCode());
+                s.setEmployeeCode(e.getEmployeeCode());
+                s.setRegisterNo(r.getRegisterNo());
+                s.setSkillLevel(skillLevel(random));
+                registerSkills.add(s);
+            }
+            for (String dept : departmentCodes) {
+                EmployeeDepartmentSkill s = new EmployeeDepartmentSkill();
+                s.setEmployeeCode(e.getEmployeeCode());
+                s.setDepartmentCode(dept);
+                s.setSkillLevel(skillLevel(random));
+                departmentSkills.add(s);
+            }
+        }
+    }
+
+    /** skillDensity の確率で 2〜4（割当可）、それ以外は 0/1（割当不可） */
+    private short skillLevel(Random random) {
+        return (short) (random.nextDouble() < spec.getSkillDensity() ? 2 + random.nextInt(3) : random.nextInt(2));
+    }
+
+    private void buildRequests(Random random) {
+        long requestId = 1;
+        Map<String, List<EmployeeShiftPattern>> patternsByEmployee = new HashMap<>();
+        for (EmployeeShiftPattern p : shiftPatterns) {
+            patternsByEmployee.computeIfAbsent(p.getEmployeeCode(), k -> new ArrayList<>()).add(p);
+        }
+        for (Employee e : employees) {
+            for (LocalDate d : demandDates()) {
+                double roll = random.nextDouble();
+                EmployeeRequest r;
+                if (roll < spec.getRequestDensity()) {
+                    r = new EmployeeRequest();
+                    r.setRequestKind(OffRequestKinds.OFF);
+                } else if (roll < spec.getRequestDensity() * 1.25) {
+                    // 出勤希望は本人のパターンの時間帯で出す
+                    List<EmployeeShiftPattern> own = patternsByEmployee.getOrDefault(e.getEmployeeCode(), List.of());
+                    if (own.isEmpty()) continue;
+                    EmployeeShiftPattern p = own.get(random.nextInt(own.size()));
+                    r = new EmployeeRequest();
+                    r.setRequestKind(EmployeeRequestKinds.PREFER_ON);
+                    r.setFromTime(p.getStartTime());
+                    r.setToTime(p.getEndTime());
+                } else {
+                    continue;
+                }
+                r.setRequestId(requestId++);
+                r.setStoreCode(spec.getStoreCode());
+                r.setEmployeeCode(e.getEmployeeCode());
+                r.setRequestDate(toDate(d, LocalTime.MIDNIGHT));
+                r.setPriority(1);
+                requests.add(r);
+            }
+        }
+    }
+
+    /** 需要曲線に沿ったレジ台数を、レジ番号ごとの 1 台分のスロットとして作る（区間分割後の形と同じ） */
+    private void buildRegisterDemand(Random random) {
+        int span = (int) ChronoUnit.MINUTES.between(spec.getOpenTime(), spec.getCloseTime());
+        for (LocalDate d : demandDates()) {
+            boolean weekend = d.getDayOfWeek() == DayOfWeek.SATURDAY || d.getDayOfWeek() == DayOfWeek.SUNDAY;
+            for (int m = 0; m < span; m += spec.getSlotMinutes()) {
+                double shape = curve((double) m / span);
+                int units = 1 + (int) Math.round((spec.getRegisters() - 1) * shape);
+                if (weekend) units++;
+                // 少しだけ揺らして日ごとに同じ形にならないようにする
+                if (random.nextDouble() < 0.1) units += random.nextBoolean() ? 1 : -1;
+                units = Math.max(1, Math.min(spec.getRegisters(), units));
+                LocalTime t = spec.getOpenTime().plusMinutes(m);
+                for (int r = 1; r <= units; r++) {
+                    RegisterDemandSlot slot = new RegisterDemandSlot();
+                    slot.setStoreCode(spec.getStoreCode());
+                    slot.setDemandDate(d);
+                    slot.setSlotTime(t);
+                    slot.setRequiredUnits(1);
+                    slot.setRegisterNo(r);
+                    registerDemand.add(slot);
+                }
+            }
+        }
+    }
+
+    private double curve(double x) {
+        return switch (spec.getDemandCurve()) {
+            case FLAT -> 1.0;
+            case DOUBLE_PEAK -> Math.max(bell(x, 0.3), bell(x, 0.75));
+            case EVENING_PEAK -> x * x;
+        };
+    }
+
+    private static double bell(double x, double center) {
+        double z = (x - center) / 0.12;
+        return Math.exp(-z * z / 2);
+    }
+
+    /** 部門ごとに作業を営業時間内へずらして並べる（各作業 1 人・3 時間） */
+    private void buildWorkDemand() {
+        int span = (int) ChronoUnit.MINUTES.between(spec.getOpenTime(), spec.getCloseTime());
+        int length = alignDown(Math.min(span, 3 * 60));
+        for (String dept : departmentCodes) {
+            List<WorkDemandSlot> slots = new ArrayList<>();
+            for (int t = 0; t < spec.getTasksPerDepartment(); t++) {
+                String taskCode = dept + "-T" + (t + 1);
+                int offset = alignDown((span - length) * t / Math.max(1, spec.getTasksPerDepartment()));
+                for (LocalDate d : demandDates()) {
+                    for (int m = 0; m < length; m += spec.getSlotMinutes()) {
+                        WorkDemandSlot slot = new WorkDemandSlot();
+                        slot.setStoreCode(spec.getStoreCode());
+                        slot.setDepartmentCode(dept);
+                        slot.setDemandDate(d);
+                        slot.setSlotTime(spec.getOpenTime().plusMinutes(offset + m));
+                        slot.setTaskCode(taskCode);
+                        slot.setRequiredUnits(1);
+                        slots.add(slot);
+                    }
+                }
+            }
+            workDemandByDepartment.put(dept, slots);
+        }
+    }
+
+    // ============================================================================
+    // helpers
+    // ============================================================================
+
+    private List<Employee> employeesOf(String departmentCode) {
+        if (REGISTER_DEPARTMENT.equals(departmentCode)) return new ArrayList<>(employees);
+        Set<String> members = membersByDepartment.getOrDefault(departmentCode, Set.of());
+        return employees.stream()
+                .filter(e -> members.contains(e.getEmployeeCode()))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<ConsecutiveWorkLimit> consecutiveWorkLimits(List<Employee> staff) {
+        List<ConsecutiveWorkLimit> limits = new ArrayList<>();
+        for (Employee e : staff) {
+            limits.add(new ConsecutiveWorkLimit(e.getEmployeeCode(), ConsecutiveWorkLimitService.DEFAULT_MAX_CONSECUTIVE_DAYS));
+        }
+        return limits;
+    }
+
+    private static Map<String, Integer> limitMap(List<Employee> staff) {
+        Map<String, Integer> byEmp = new HashMap<>();
+        for (Employee e : staff) {
+            byEmp.put(e.getEmployeeCode(), ConsecutiveWorkLimitService.DEFAULT_MAX_CONSECUTIVE_DAYS);
+        }
+        return byEmp;
+    }
+
+    private List<LocalDate> demandDates() {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate d = spec.getCycleStart();
+        for (int i = 0; i < spec.getDays() && d.isBefore(cycleEnd); i++, d = d.plusDays(1)) {
+            dates.add(d);
+        }
+        return dates;
+    }
+
+    private int alignDown(int minutes) {
+        return minutes - Math.floorMod(minutes, spec.getSlotMinutes());
+    }
+
+    private void requireDepartment(String departmentCode) {
+        if (!departmentCodes.contains(departmentCode)) {
+            throw new IllegalArgumentException("Unknown synthetic department: " + departmentCode + " (available: " + departmentCodes + ")");
+        }
+    }
+
+    private static Date toDate(LocalDate date, LocalTime time) {
+        return Date.from(date.atTime(time).atZone(ZONE).toInstant());
+    }
+
+    private static void validate(SyntheticProblemSpec spec) {
+        if (spec.getSlotMinutes() <= 0 || 60 % spec.getSlotMinutes() != 0) {
+            throw new IllegalArgumentException("slotMinutes must divide 60: " + spec.getSlotMinutes());
+        }
+        if (spec.getEmployees() < 1 || spec.getRegisters() < 1 || spec.getDepartments() < 1 || spec.getDays() < 1) {
+            throw new IllegalArgumentException("employees, registers, departments and days must be positive: " + spec);
+        }
+        if (spec.getTasksPerDepartment() < 0) {
+            throw new IllegalArgumentException("tasksPerDepartment must not be negative: " + spec);
+        }
+        if (!spec.getCloseTime().isAfter(spec.getOpenTime())
+                || spec.getOpenTime().getMinute() % spec.getSlotMinutes() != 0
+                || spec.getCloseTime().getMinute() % spec.getSlotMinutes() != 0) {
+            throw new IllegalArgumentException("openTime/closeTime must be ordered and aligned to "
+                    + spec.getSlotMinutes() + " minutes: " + spec.getOpenTime() + "-" + spec.getCloseTime());
+        }
+        if (spec.getSkillDensity() < 0 || spec.getSkillDensity() > 1
+                || spec.getRequestDensity() < 0 || spec.getRequestDensity() > 0.8) {
+            throw new IllegalArgumentException("skillDensity must be in [0,1] and requestDensity in [0,0.8]: " + spec);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.riemr.shift.optimization.service;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * {@link SyntheticProblemGenerator} の生成パラメータ。
+ * 同じ値（seed を含む）からは常に同じ問題が生成される。
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class SyntheticProblemSpec {
+
+    /** 需要の時間帯別の形 */
+    public enum DemandCurve {
+        /** 営業時間中ずっと最大台数 */
+        FLAT,
+        /** 昼・夕方の 2 つのピーク */
+        DOUBLE_PEAK,
+        /** 夕方に向けて増える */
+        EVENING_PEAK
+    }
+
+    /** 乱数シード */
+    @Builder.Default
+    private long seed = 1L;
+    @Builder.Default
+    private String storeCode = "SYN";
+    /** サイクル開始日 */
+    @Builder.Default
+    private LocalDate cycleStart = LocalDate.of(2025, 1, 1);
+    /** 需要を作る日数（サイクル開始日から。サイクル＝1 か月を超える分は無視される） */
+    @Builder.Default
+    private int days = 31;
+    @Builder.Default
+    private int employees = 30;
+    @Builder.Default
+    private int registers = 4;
+    /** 部門数。先頭はレジ部門（520）、以降は非レジ部門 */
+    @Builder.Default
+    private int departments = 1;
+    /** 部門ごとの非レジ作業の数 */
+    @Builder.Default
+    private int tasksPerDepartment = 2;
+    /** 時間分解能（10 または 15 分） */
+    @Builder.Default
+    private int slotMinutes = 15;
+    /** 従業員がレジ/部門に対してスキル 2 以上を持つ確率（それ以外は 0/1 = 割当不可） */
+    @Builder.Default
+    private double skillDensity = 0.7;
+    /** 従業員×日ごとに休み希望を出す確率（出勤希望はその 1/4） */
+    @Builder.Default
+    private double requestDensity = 0.05;
+    @Builder.Default
+    private DemandCurve demandCurve = DemandCurve.DOUBLE_PEAK;
+    @Builder.Default
+    private LocalTime openTime = LocalTime.of(9, 0);
+    @Builder.Default
+    private LocalTime closeTime = LocalTime.of(21, 0);
+}
@@ -0,0 +1,130 @@
+package io.github.riemr.shift.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowDeltaTest {
+
+    /** id: 主キー / key: 自然キー / value: キー以外の列 */
+    static final class Row {
+        Long id;
+        final String key;
+        final String value;
+
+        Row(Long id, String key, String value) {
+            this.id = id;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value + "#" + id;
+        }
+    }
+
+    private static RowDelta<Row> delta(List<Row> existing, List<Row> desired) {
+        return RowDelta.of(existing, desired,
+                r -> r.key,
+                (old, now) -> Objects.equals(old.value, now.value),
+                (old, now) -> now.id = old.id);
+    }
+
+    /** 適用時に渡された行を記録する */
+    private static final class Recorder {
+        final List<String> events = new ArrayList<>();
+        final List<Row> deleted = new ArrayList<>();
+        final List<Row> updated = new ArrayList<>();
+        final List<Row> inserted = new ArrayList<>();
+
+        RowDelta.Counts apply(RowDelta<Row> delta) {
+            return delta.apply(
+                    chunk -> { events.add("delete"); deleted.addAll(chunk); return chunk.size(); },
+                    row -> { events.add("update"); updated.add(row); return 1; },
+                    chunk -> { events.add("insert"); inserted.addAll(chunk); return chunk.size(); });
+        }
+    }
+
+    @Test
+    void insertsRowsWithNewKeys() {
+        Row added = new Row(null, "b", "x");
+        Recorder r = new Recorder();
+
+        RowDelta.Counts counts = r.apply(delta(List.of(new Row(1L, "a", "x")), List.of(new Row(null, "a", "x"), added)));
+
+        assertThat(r.inserted).containsExactly(added);
+        assertThat(r.updated).isEmpty();
+        assertThat(r.deleted).isEmpty();
+        assertThat(counts).isEqualTo(new RowDelta.Counts(1, 0, 0, 1));
+    }
+
+    @Test
+    void updatesChangedRowsWithCarriedId() {
+        Row changed = new Row(null, "a", "y");
+        Recorder r = new Recorder();
+
+        RowDelta.Counts counts = r.apply(delta(List.of(new Row(7L, "a", "x")), List.of(changed)));
+
+        assertThat(r.updated).containsExactly(changed);
+        assertThat(changed.id).isEqualTo(7L);
+        assertThat(r.inserted).isEmpty();
+        assertThat(r.deleted).isEmpty();
+        assertThat(counts).isEqualTo(new RowDelta.Counts(0, 1, 0, 0));
+    }
+
+    @Test
+    void deletesRowsMissingFromDesired() {
+        Row stale = new Row(3L, "c", "x");
+        Recorder r = new Recorder();
+
+        RowDelta.Counts counts = r.apply(delta(List.of(new Row(1L, "a", "x"), stale), List.of(new Row(null, "a", "x"))));
+
+        assertThat(r.deleted).containsExactly(stale);
+        assertThat(counts).isEqualTo(new RowDelta.Counts(0, 0, 1, 1));
+    }
+
+    @Test
+    void unchangedRowsAreNotWritten() {
+        RowDelta<Row> delta = delta(List.of(new Row(1L, "a", "x"), new Row(2L, "b", "y")),
+                List.of(new Row(null, "b", "y"), new Row(null, "a", "x")));
+        Recorder r = new Recorder();
+
+        RowDelta.Counts counts = r.apply(delta);
+
+        assertThat(delta.isEmpty()).isTrue();
+        assertThat(r.events).isEmpty();
+        assertThat(counts).isEqualTo(new RowDelta.Counts(0, 0, 0, 2));
+        assertThat(counts.written()).isZero();
+    }
+
+    @Test
+    void duplicateKeysDeleteExtraExistingAndKeepFirstDesired() {
+        Row kept = new Row(1L, "a", "x");
+        Row duplicate = new Row(2L, "a", "x");
+        Row firstDesired = new Row(null, "b", "first");
+        Row secondDesired = new Row(null, "b", "second");
+        Recorder r = new Recorder();
+
+        RowDelta.Counts counts = r.apply(delta(List.of(kept, duplicate),
+                List.of(new Row(null, "a", "x"), firstDesired, secondDesired)));
+
+        assertThat(r.deleted).containsExactly(duplicate);
+        assertThat(r.inserted).containsExactly(firstDesired);
+        assertThat(counts).isEqualTo(new RowDelta.Counts(1, 0, 1, 1));
+    }
+
+    @Test
+    void appliesDeleteThenUpdateThenInsert() {
+        Recorder r = new Recorder();
+
+        r.apply(delta(List.of(new Row(1L, "a", "x"), new Row(2L, "b", "x")),
+                List.of(new Row(null, "a", "changed"), new Row(null, "c", "x"))));
+
+        assertThat(r.events).containsExactly("delete", "update", "insert");
+    }
+}